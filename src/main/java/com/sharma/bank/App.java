@@ -1,5 +1,6 @@
 package com.sharma.bank;
 
+import com.sharma.bank.api.ApiServer;
 import com.sharma.bank.ui.MainUI;
 import javafx.application.Application;
 import javafx.stage.Stage;
@@ -11,8 +12,15 @@ public class App extends Application {
         new MainUI().start(stage);
     }
 
-    public static void main(String[] args) 
+    // --server starts the headless HTTP/JSON API instead of the desktop UI
+    public static void main(String[] args) throws Exception
     {
+        for (String arg : args) {
+            if ("--server".equals(arg)) {
+                ApiServer.main(args);
+                return;
+            }
+        }
         launch(args);
     }
 }
@@ -0,0 +1,54 @@
+package com.sharma.bank.api;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// The parts of an HTTP request the endpoints need
+public class ApiRequest {
+
+    private final String method;
+    private final String[] path;             // "/api/accounts/7" -> ["api", "accounts", "7"]
+    private final Map<String, String> query;
+    private final String body;
+    private final String bearerToken;
+
+    public ApiRequest(String method, String rawPath, String rawQuery, String body, String authorization) {
+        this.method = method;
+        this.path = rawPath.replaceAll("^/+|/+$", "").split("/+");
+        this.query = parseQuery(rawQuery);
+        this.body = body;
+        this.bearerToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring("Bearer ".length()).trim()
+                : null;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> map = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return map;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            map.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return map;
+    }
+
+    public String getMethod() { return method; }
+    public String getBody() { return body; }
+    public String getBearerToken() { return bearerToken; }
+
+    public int pathLength() {
+        return path.length;
+    }
+
+    public String pathPart(int i) {
+        return i < path.length ? path[i] : null;
+    }
+
+    public String queryParam(String name) {
+        return query.get(name);
+    }
+}
@@ -0,0 +1,26 @@
+package com.sharma.bank.api;
+
+import com.sharma.bank.util.Json;
+
+// Status code + JSON body returned by a BankApi endpoint
+public class ApiResponse {
+
+    private final int status;
+    private final String body;
+
+    public ApiResponse(int status, String body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    public static ApiResponse ok(Json body) {
+        return new ApiResponse(200, body.toString());
+    }
+
+    public static ApiResponse error(int status, String message) {
+        return new ApiResponse(status, Json.object().put("error", message).toString());
+    }
+
+    public int getStatus() { return status; }
+    public String getBody() { return body; }
+}
@@ -0,0 +1,187 @@
+package com.sharma.bank.api;
+
+import com.sharma.bank.dao.BalanceIndex;
+import com.sharma.bank.dao.HistoryPageCache;
+import com.sharma.bank.service.AuthService;
+import com.sharma.bank.service.BankingService;
+import com.sharma.bank.service.LedgerEventBus;
+import com.sharma.bank.util.DBConnection;
+import com.sharma.bank.util.SchemaMigrator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Headless mode: serves BankApi over HTTP with the JDK's built-in server.
+//
+// - One thread per request. On Java 21+ these are virtual threads, so a
+//   request blocked on JDBC or BCrypt costs almost nothing; on older JVMs a
+//   bounded platform pool (bank.api.maxInFlight threads) is used instead.
+// - Admission control: at most bank.api.maxInFlight requests run at once.
+//   Past that a request waits bank.api.admissionWaitMillis for a slot, then
+//   gets 503 + Retry-After, so overload sheds load instead of queueing up.
+// - Each request gets bank.api.timeoutMillis, enforced in the database: the
+//   time left becomes statement_timeout before every statement the request
+//   runs, and a commit past it rolls back (DBConnection.setDeadline), so
+//   PostgreSQL cancels the statement and the transaction goes away. The
+//   request's own thread always writes the answer; a timed-out request gets
+//   504 only once nothing it did committed.
+//
+// Sessions live in this JVM (SessionManager). With several instances behind
+// a load balancer, use sticky sessions so a token reaches the node that issued it.
+public class ApiServer {
+
+    private static final int PORT = Integer.getInteger("bank.api.port", 8080);
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("bank.api.maxInFlight", 256);
+    private static final long ADMISSION_WAIT_MILLIS = Long.getLong("bank.api.admissionWaitMillis", 100);
+    private static final long TIMEOUT_MILLIS = Long.getLong("bank.api.timeoutMillis", 10_000);
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final BankApi api;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore admission = new Semaphore(MAX_IN_FLIGHT);
+
+    public ApiServer(BankApi api, int port) throws IOException {
+        this.api = api;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = requestExecutor();
+
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("✅ API listening on port " + server.getAddress().getPort());
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    // Virtual thread per request when the JVM has them (Java 21+), looked up
+    // reflectively so the code still builds and runs on Java 17.
+    private static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger n = new AtomicInteger();
+            return new ThreadPoolExecutor(
+                    MAX_IN_FLIGHT, MAX_IN_FLIGHT,
+                    30, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(MAX_IN_FLIGHT * 4),
+                    r -> {
+                        Thread t = new Thread(r, "api-worker-" + n.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+
+    // ===========================
+    // REQUEST HANDLING
+    // ===========================
+    private void handle(HttpExchange ex) {
+        try {
+            if (!admission.tryAcquire(ADMISSION_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                ex.getResponseHeaders().set("Retry-After", "1");
+                send(ex, ApiResponse.error(503, "Server busy, try again"));
+                return;
+            }
+            try {
+                handleAdmitted(ex);
+            } finally {
+                admission.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Client went away; nothing to answer
+        } finally {
+            ex.close();
+        }
+    }
+
+    private void handleAdmitted(HttpExchange ex) throws IOException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        DBConnection.setDeadline(deadline);
+
+        ApiResponse response;
+        try {
+            String body = readBody(ex);
+            response = body == null
+                    ? ApiResponse.error(413, "Request body too large")
+                    : api.handle(new ApiRequest(
+                            ex.getRequestMethod(),
+                            ex.getRequestURI().getPath(),
+                            ex.getRequestURI().getRawQuery(),
+                            body,
+                            ex.getRequestHeaders().getFirst("Authorization")));
+        } catch (RuntimeException e) {
+            System.out.println("ERROR HANDLING API REQUEST " + ex.getRequestMethod() + " " + ex.getRequestURI() + ":");
+            e.printStackTrace();
+            response = ApiResponse.error(500, "Internal error");
+        } finally {
+            DBConnection.clearDeadline();
+        }
+
+        // Out of time: a failed write was rolled back (or never started), and a
+        // read may have come back empty because its query was cancelled. A
+        // write that succeeded did commit and keeps its answer.
+        if (System.currentTimeMillis() > deadline
+                && (response.getStatus() >= 400 || "GET".equals(ex.getRequestMethod()))) {
+            response = ApiResponse.error(504, "Request timed out");
+        }
+        send(ex, response);
+    }
+
+    // Null when the body is over MAX_BODY_BYTES
+    private static String readBody(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            return bytes.length > MAX_BODY_BYTES ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange ex, ApiResponse response) throws IOException {
+        byte[] bytes = response.getBody().getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(response.getStatus(), bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Usage: ApiServer   (or App --server)
+    // Port from -Dbank.api.port (default 8080). Runs until killed.
+    public static void main(String[] args) throws IOException, SQLException {
+        SchemaMigrator.migrateOnce();
+
+        // Cached balances and history pages must hear about writes made by other processes
+        if (BalanceIndex.shared().isEnabled() || HistoryPageCache.shared().isEnabled()) {
+            LedgerEventBus.shared().startListening();
+        }
+
+        BankApi api = new BankApi(new AuthService(), new BankingService());
+        ApiServer server = new ApiServer(api, PORT);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        server.start();
+    }
+}
@@ -0,0 +1,419 @@
+package com.sharma.bank.api;
+
+import com.sharma.bank.dao.AccountDAO;
+import com.sharma.bank.dao.HistoryPageCache;
+import com.sharma.bank.dao.TransactionDAO;
+import com.sharma.bank.model.Account;
+import com.sharma.bank.model.Transaction;
+import com.sharma.bank.model.User;
+import com.sharma.bank.service.AuthService;
+import com.sharma.bank.service.BankingService;
+import com.sharma.bank.util.Json;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// The JSON endpoints. Transport-free: ApiServer turns HTTP into ApiRequest
+// and writes the ApiResponse back, so the same code could sit behind any server.
+//
+//   POST /api/login                          {email, password} -> {token, userId, fullName}
+//   POST /api/logout
+//   GET  /api/accounts
+//   GET  /api/accounts/{id}/transactions     ?limit=50&cursor=...
+//   POST /api/accounts/{id}/deposit          {amount, description}
+//   POST /api/accounts/{id}/withdraw         {amount, description}
+//   POST /api/transfers                      {fromAccountId, toAccountId, amount, description}
+//   GET  /health                             status + history page cache stats
+//
+// Everything under /api except login needs "Authorization: Bearer <token>".
+// Amounts are JSON strings or numbers and are always returned as strings.
+public class BankApi {
+
+    private static final int DEFAULT_PAGE = 50;
+    private static final int MAX_PAGE = 500;
+    private static final long LOGIN_WAIT_SECONDS = 10;
+
+    private final AuthService authService;
+    private final BankingService bankingService;
+    private final AccountDAO accountDAO = new AccountDAO();
+    private final TransactionDAO transactionDAO = new TransactionDAO();
+
+    public BankApi(AuthService authService, BankingService bankingService) {
+        this.authService = authService;
+        this.bankingService = bankingService;
+    }
+
+    // Rejected input; becomes a 4xx response
+    static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    public ApiResponse handle(ApiRequest req) {
+        try {
+            return route(req);
+        } catch (ApiException e) {
+            return ApiResponse.error(e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            // Malformed JSON, numbers or cursors
+            return ApiResponse.error(400, e.getMessage());
+        }
+    }
+
+    private ApiResponse route(ApiRequest req) {
+        String method = req.getMethod();
+        String root = req.pathPart(0);
+        int len = req.pathLength();
+
+        if ("health".equals(root) && len == 1) {
+            return ApiResponse.ok(Json.object()
+                    .put("status", "UP")
+                    .put("historyCache", historyCacheStats()));
+        }
+        if (!"api".equals(root) || len < 2) {
+            return ApiResponse.error(404, "Not found");
+        }
+
+        String resource = req.pathPart(1);
+
+        if ("login".equals(resource) && len == 2) {
+            requireMethod(req, "POST");
+            return login(req);
+        }
+
+        User user = authenticate(req);
+
+        if ("logout".equals(resource) && len == 2) {
+            requireMethod(req, "POST");
+            authService.logout(req.getBearerToken());
+            return ApiResponse.ok(Json.object().put("loggedOut", true));
+        }
+        if ("transfers".equals(resource) && len == 2) {
+            requireMethod(req, "POST");
+            return transfer(user, req);
+        }
+        if ("accounts".equals(resource)) {
+            if (len == 2) {
+                requireMethod(req, "GET");
+                return accounts(user);
+            }
+            if (len == 4) {
+                Account account = ownedAccount(user, parseId(req.pathPart(2)));
+                switch (req.pathPart(3)) {
+                    case "transactions":
+                        requireMethod(req, "GET");
+                        return history(account, req);
+                    case "deposit":
+                        requireMethod(req, "POST");
+                        return deposit(account, req);
+                    case "withdraw":
+                        requireMethod(req, "POST");
+                        return withdraw(account, req);
+                    default:
+                        break;
+                }
+            }
+        }
+        return ApiResponse.error(404, "Not found");
+    }
+
+    private static Json historyCacheStats() {
+        HistoryPageCache cache = HistoryPageCache.shared();
+        HistoryPageCache.Stats stats = cache.getStats();
+        return Json.object()
+                .put("pages", cache.size())
+                .put("estimatedBytes", cache.getEstimatedBytes())
+                .put("maxBytes", cache.getMaxBytes())
+                .put("hits", stats.getHits())
+                .put("misses", stats.getMisses())
+                .put("hitRatio", stats.getHitRatio())
+                .put("evictions", stats.getEvictions())
+                .put("invalidations", stats.getInvalidations());
+    }
+
+    // ===========================
+    // LOGIN
+    // ===========================
+    private ApiResponse login(ApiRequest req) {
+        Map<String, Object> body = body(req);
+        String email = requiredString(body, "email");
+        String password = requiredString(body, "password");
+
+        AuthService.LoginResult result;
+        try {
+            result = authService.login(email, password).get(LOGIN_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ApiResponse.error(503, "Interrupted");
+        } catch (ExecutionException | TimeoutException e) {
+            return ApiResponse.error(503, "Login is busy, try again");
+        }
+
+        switch (result.getStatus()) {
+            case SUCCESS:
+                return ApiResponse.ok(Json.object()
+                        .put("token", result.getSession().getToken())
+                        .put("userId", result.getUser().getUserId())
+                        .put("fullName", result.getUser().getFullName()));
+            case INVALID_CREDENTIALS:
+                return ApiResponse.error(401, "Invalid email or password");
+            case RATE_LIMITED:
+                return ApiResponse.error(429, "Too many attempts, try again later");
+            case BUSY:
+                return ApiResponse.error(503, "Login is busy, try again");
+            default:
+                return ApiResponse.error(500, "Login failed");
+        }
+    }
+
+    private User authenticate(ApiRequest req) {
+        String token = req.getBearerToken();
+        User user = token == null ? null : authService.currentUser(token);
+        if (user == null) {
+            throw new ApiException(401, "Missing or expired session");
+        }
+        return user;
+    }
+
+    // ===========================
+    // ACCOUNTS + HISTORY
+    // ===========================
+    private ApiResponse accounts(User user) {
+        List<Json> list = new ArrayList<>();
+        for (Account a : accountDAO.getAccountsByUserId(user.getUserId())) {
+            list.add(toJson(a));
+        }
+        return ApiResponse.ok(Json.object().put("accounts", list));
+    }
+
+    private ApiResponse history(Account account, ApiRequest req) {
+        int limit = DEFAULT_PAGE;
+        if (req.queryParam("limit") != null) {
+            limit = parseId(req.queryParam("limit"));
+            if (limit > MAX_PAGE) limit = MAX_PAGE;
+        }
+
+        LocalDateTime beforeCreatedAt = null;
+        int beforeId = 0;
+        String cursor = req.queryParam("cursor");
+        if (cursor != null && !cursor.isEmpty()) {
+            Cursor position = decodeCursor(cursor);
+            beforeCreatedAt = position.createdAt;
+            beforeId = position.transactionId;
+        }
+
+        List<Transaction> page = transactionDAO.getTransactionsPage(
+                account.getAccountId(), beforeCreatedAt, beforeId, limit);
+
+        List<Json> items = new ArrayList<>(page.size());
+        for (Transaction t : page) {
+            items.add(toJson(t));
+        }
+
+        String next = null;
+        if (page.size() == limit) {
+            Transaction last = page.get(page.size() - 1);
+            next = encodeCursor(last.getCreatedAt(), last.getTransactionId());
+        }
+
+        return ApiResponse.ok(Json.object()
+                .put("transactions", items)
+                .put("nextCursor", next));
+    }
+
+    // Opaque to clients: base64url of "<createdAt>|<transactionId>"
+    static String encodeCursor(LocalDateTime createdAt, int transactionId) {
+        String raw = createdAt + "|" + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static final class Cursor {
+        final LocalDateTime createdAt;
+        final int transactionId;
+
+        Cursor(LocalDateTime createdAt, int transactionId) {
+            this.createdAt = createdAt;
+            this.transactionId = transactionId;
+        }
+    }
+
+    // Anything a client can make of a cursor is a 400, never a 500
+    static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length == 2) {
+                return new Cursor(LocalDateTime.parse(parts[0]), Integer.parseInt(parts[1]));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // fall through
+        }
+        throw new ApiException(400, "Invalid cursor");
+    }
+
+    // ===========================
+    // MONEY MOVEMENT
+    // ===========================
+    private ApiResponse deposit(Account account, ApiRequest req) {
+        Map<String, Object> body = body(req);
+        BigDecimal amount = amount(body);
+        String description = optionalString(body, "description", "Deposit");
+
+        BankingService.Result result = bankingService.depositWithResult(account.getAccountId(), amount, description);
+        if (!result.isSuccess()) {
+            return ApiResponse.error(422, "Deposit refused (inactive account)");
+        }
+        return ApiResponse.ok(balance(account.getAccountId(), result));
+    }
+
+    private ApiResponse withdraw(Account account, ApiRequest req) {
+        Map<String, Object> body = body(req);
+        BigDecimal amount = amount(body);
+        String description = optionalString(body, "description", "Withdrawal");
+
+        BankingService.Result result = bankingService.withdrawWithResult(account.getAccountId(), amount, description);
+        if (!result.isSuccess()) {
+            return ApiResponse.error(422, "Withdrawal refused (insufficient funds, daily limit or inactive account)");
+        }
+        return ApiResponse.ok(balance(account.getAccountId(), result));
+    }
+
+    private ApiResponse transfer(User user, ApiRequest req) {
+        Map<String, Object> body = body(req);
+        Account from = ownedAccount(user, requiredInt(body, "fromAccountId"));
+        int toAccountId = requiredInt(body, "toAccountId");
+        BigDecimal amount = amount(body);
+        String description = optionalString(body, "description", "Transfer");
+
+        if (toAccountId == from.getAccountId()) {
+            throw new ApiException(400, "Cannot transfer to the same account");
+        }
+        BankingService.Result result =
+                bankingService.transferWithResult(from.getAccountId(), toAccountId, amount, description);
+        if (!result.isSuccess()) {
+            return ApiResponse.error(422, "Transfer refused (insufficient funds, daily limit or inactive account)");
+        }
+        return ApiResponse.ok(balance(from.getAccountId(), result));
+    }
+
+    // The committed balance from the service's result: no read after the
+    // commit, which could fail once the request's deadline has passed
+    private static Json balance(int accountId, BankingService.Result result) {
+        return Json.object()
+                .put("accountId", accountId)
+                .put("balance", result.getBalances().get(accountId));
+    }
+
+    // ===========================
+    // HELPERS
+    // ===========================
+    // Someone else's account looks the same as a missing one
+    private Account ownedAccount(User user, int accountId) {
+        Account account = accountDAO.getAccountById(accountId);
+        if (account == null || account.getUserId() != user.getUserId()) {
+            throw new ApiException(404, "Account not found");
+        }
+        return account;
+    }
+
+    private static void requireMethod(ApiRequest req, String method) {
+        if (!method.equals(req.getMethod())) {
+            throw new ApiException(405, "Use " + method);
+        }
+    }
+
+    private static Map<String, Object> body(ApiRequest req) {
+        if (req.getBody() == null || req.getBody().isBlank()) {
+            throw new ApiException(400, "JSON body required");
+        }
+        return Json.parseObject(req.getBody());
+    }
+
+    private static BigDecimal amount(Map<String, Object> body) {
+        Object value = body.get("amount");
+        BigDecimal amount;
+        if (value instanceof BigDecimal) {
+            amount = (BigDecimal) value;
+        } else if (value instanceof String) {
+            amount = new BigDecimal((String) value);
+        } else {
+            throw new ApiException(400, "amount is required");
+        }
+        if (amount.signum() <= 0 || amount.stripTrailingZeros().scale() > 2) {
+            throw new ApiException(400, "amount must be positive with at most 2 decimals");
+        }
+        return amount;
+    }
+
+    private static String requiredString(Map<String, Object> body, String key) {
+        Object value = body.get(key);
+        if (!(value instanceof String) || ((String) value).isEmpty()) {
+            throw new ApiException(400, key + " is required");
+        }
+        return (String) value;
+    }
+
+    private static String optionalString(Map<String, Object> body, String key, String fallback) {
+        Object value = body.get(key);
+        return value instanceof String && !((String) value).isBlank() ? (String) value : fallback;
+    }
+
+    private static int requiredInt(Map<String, Object> body, String key) {
+        Object value = body.get(key);
+        if (value instanceof BigDecimal) {
+            try {
+                return ((BigDecimal) value).intValueExact();
+            } catch (ArithmeticException e) {
+                throw new ApiException(400, key + " must be an integer");
+            }
+        }
+        if (value instanceof String) {
+            return parseId((String) value);
+        }
+        throw new ApiException(400, key + " is required");
+    }
+
+    private static int parseId(String s) {
+        try {
+            int id = Integer.parseInt(s);
+            if (id <= 0) throw new NumberFormatException();
+            return id;
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid number: " + s);
+        }
+    }
+
+    private static Json toJson(Account a) {
+        return Json.object()
+                .put("accountId", a.getAccountId())
+                .put("accountNumber", a.getAccountNumber())
+                .put("accountType", a.getAccountType())
+                .put("balance", a.getBalance())
+                .put("status", a.getStatus())
+                .put("createdAt", a.getCreatedAt());
+    }
+
+    private static Json toJson(Transaction t) {
+        return Json.object()
+                .put("transactionId", t.getTransactionId())
+                .put("amount", t.getAmount())
+                .put("type", t.getTransactionType())
+                .put("description", t.getDescription())
+                .put("createdAt", t.getCreatedAt());
+    }
+}
@@ -1,27 +1,41 @@
 package com.sharma.bank.dao;
 
 import com.sharma.bank.model.Account;
+import com.sharma.bank.util.AccountNumberGenerator;
 import com.sharma.bank.util.DBConnection;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class AccountDAO
 {
+    // Hot balances off-heap; every write below invalidates, every row read refills
+    private final BalanceIndex balanceIndex = BalanceIndex.shared();
 
-    // Simple helper to generate an account number
-    // Later you can replace this with a more "bank-like" format
+    // Next unique account number ("AC-" + serial + check digit), or null if
+    // no number block could be reserved from the DB
     public String generateAccountNumber()
     {
-        long timestamp = System.currentTimeMillis();
-        return "AC-"+timestamp;
+        try
+        {
+            return AccountNumberGenerator.shared().next();
+        }
+        catch(SQLException e)
+        {
+            System.out.println("ERROR GENERATING ACCOUNT NUMBER:");
+            e.printStackTrace();
+            return null;
+        }
     }
-    // 1) Create a new account in the DB
+    // 1) Create a new account in the DB (sets the generated id and created_at on it)
     public boolean createAccount(Account account)
     {
-        String sql = "INSERT INTO accounts (user_id, account_number, account_type, balance, status)" + "VALUES(?,?,?,?,?)";
+        String sql = "INSERT INTO accounts (user_id, account_number, account_type, balance, status)" + "VALUES(?,?,?,?,?) RETURNING account_id, created_at";
         try(Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql))
         {
             stmt.setInt(1, account.getUserId());
@@ -30,8 +44,14 @@ public class AccountDAO
             stmt.setBigDecimal(4, account.getBalance());
             stmt.setString(5, account.getStatus());
 
-            int rows = stmt.executeUpdate();
-            return rows > 0; 
+            try(ResultSet rs = stmt.executeQuery())
+            {
+                if(!rs.next()) return false;
+                account.setAccountId(rs.getInt("account_id"));
+                account.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                DBConnection.recordUserWrite(account.getUserId());
+                return true;
+            }
         }
         catch(SQLException e)
         {
@@ -41,14 +61,52 @@ public class AccountDAO
         }
     }
 
+    // Overload: insert many accounts with one multi-row INSERT on an existing Connection.
+    // Generated ids and created_at are written back onto the Account objects
+    // (matched by account_number, which is unique).
+    public void createAccounts(Connection conn, List<Account> accounts) throws SQLException
+    {
+        if (accounts.isEmpty()) return;
+
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO accounts (user_id, account_number, account_type, balance, status) VALUES ");
+        for (int i = 0; i < accounts.size(); i++) {
+            sql.append(i == 0 ? "(?,?,?,?,?)" : ",(?,?,?,?,?)");
+        }
+        sql.append(" RETURNING account_id, account_number, created_at");
+
+        Map<String, Account> byNumber = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int p = 1;
+            for (Account account : accounts) {
+                stmt.setInt(p++, account.getUserId());
+                stmt.setString(p++, account.getAccountNumber());
+                stmt.setString(p++, account.getAccountType());
+                stmt.setBigDecimal(p++, account.getBalance());
+                stmt.setString(p++, account.getStatus());
+                byNumber.put(account.getAccountNumber(), account);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Account account = byNumber.get(rs.getString("account_number"));
+                    account.setAccountId(rs.getInt("account_id"));
+                    account.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                }
+            }
+        }
+    }
+
     // 2) Get all accounts for a specific user getAccountsByUserId
     public List<Account> getAccountsByUserId(int userId)
     {
-        String sql = "SELECT account_id, account_number, account_type, balance, status, created_at From accounts WHERE user_id = ? ORDER BY created_at";
+        String sql = "SELECT account_id, account_number, account_type, balance, status, created_at, version From accounts WHERE user_id = ? ORDER BY created_at";
         List<Account> accounts = new ArrayList<>();
-        try(Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql))
+        long[] stamps = balanceIndex.stamps();
+        try(Connection conn = DBConnection.getReadConnectionForUser(userId); PreparedStatement stmt = conn.prepareStatement(sql))
         {
             stmt.setInt(1, userId);
+            boolean primary = !conn.isReadOnly();       // replica connections are read-only
             try(ResultSet rs = stmt.executeQuery())
             {
                 while(rs.next())
@@ -61,7 +119,8 @@ public class AccountDAO
                     LocalDateTime createdAt = rs.getTimestamp("created_at").toLocalDateTime();
 
                     Account acc = new Account(accountId, userId, accNumber, accType, balance, status, createdAt);
-                    accounts.add(acc);
+                    acc.setVersion(rs.getLong("version"));
+                    accounts.add(primary ? remember(acc, stamps) : acc);
                 }
             }
         }
@@ -77,12 +136,14 @@ public class AccountDAO
     public boolean updateBalance(int accountId, BigDecimal newBalance)
     {
         String sql = "UPDATE accounts SET balance = ? WHERE account_id = ?";
+        balanceIndex.invalidate(accountId);
         try(Connection conn = DBConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql))
         {
             stmt.setBigDecimal(1, newBalance);
             stmt.setInt(2, accountId);
 
             int rows = stmt.executeUpdate();
+            balanceIndex.invalidate(accountId);     // committed: drop reads that raced it
             return rows > 0;
         }
         catch(SQLException e)
@@ -94,8 +155,9 @@ public class AccountDAO
     }
     public Account getAccountById(int accountId) {
         String sql = "SELECT account_id, user_id, account_number, account_type, " +
-                    "balance, status, created_at " +
+                    "balance, status, created_at, version " +
                     "FROM accounts WHERE account_id = ?";
+        long[] stamps = balanceIndex.stamps();
 
         try (Connection conn = DBConnection.getConnection();
             PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -112,7 +174,7 @@ public class AccountDAO
                     LocalDateTime createdAt =
                             rs.getTimestamp("created_at").toLocalDateTime();
 
-                    return new Account(
+                    Account acc = new Account(
                             accountId,
                             userId,
                             accNumber,
@@ -121,6 +183,8 @@ public class AccountDAO
                             status,
                             createdAt
                     );
+                    acc.setVersion(rs.getLong("version"));
+                    return remember(acc, stamps);
                 }
             }
 
@@ -133,7 +197,7 @@ public class AccountDAO
     // Overload: get account by id using an existing Connection (for transactions)
     public Account getAccountById(Connection conn, int accountId) throws SQLException {
         String sql = "SELECT account_id, user_id, account_number, account_type, " +
-                     "balance, status, created_at " +
+                     "balance, status, created_at, version " +
                      "FROM accounts WHERE account_id = ?";
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -149,7 +213,7 @@ public class AccountDAO
                     LocalDateTime createdAt =
                             rs.getTimestamp("created_at").toLocalDateTime();
 
-                    return new Account(
+                    Account acc = new Account(
                             accountId,
                             userId,
                             accNumber,
@@ -158,6 +222,8 @@ public class AccountDAO
                             status,
                             createdAt
                     );
+                    acc.setVersion(rs.getLong("version"));
+                    return acc;
                 }
             }
         }
@@ -165,9 +231,101 @@ public class AccountDAO
         return null;
     }
 
+    // Same as getAccountById(conn, id) but row-locks the account until commit.
+    // A lock means a write is coming, so the owner's reads stay on the primary.
+    public Account getAccountByIdForUpdate(Connection conn, int accountId) throws SQLException {
+        String sql = "SELECT account_id, user_id, account_number, account_type, " +
+                     "balance, status, created_at, version " +
+                     "FROM accounts WHERE account_id = ? FOR UPDATE";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, accountId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Account acc = mapAccount(rs);
+                    DBConnection.recordUserWrite(acc.getUserId());
+                    return acc;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Load and row-lock many accounts in one query. Locks are taken in
+    // account_id order, like transfer(), so callers that take all their row
+    // locks here (and none before) can't deadlock each other.
+    public Map<Integer, Account> getAccountsByIdsForUpdate(Connection conn, Collection<Integer> accountIds) throws SQLException {
+        Map<Integer, Account> accounts = new HashMap<>();
+        if (accountIds.isEmpty()) return accounts;
+
+        String sql = "SELECT account_id, user_id, account_number, account_type, " +
+                     "balance, status, created_at, version " +
+                     "FROM accounts WHERE account_id = ANY (?) " +
+                     "ORDER BY account_id FOR UPDATE";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("integer", accountIds.toArray()));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Account acc = mapAccount(rs);
+                    DBConnection.recordUserWrite(acc.getUserId());
+                    accounts.put(acc.getAccountId(), acc);
+                }
+            }
+        }
+        return accounts;
+    }
+
+    private Account mapAccount(ResultSet rs) throws SQLException {
+        Account acc = new Account(
+                rs.getInt("account_id"),
+                rs.getInt("user_id"),
+                rs.getString("account_number"),
+                rs.getString("account_type"),
+                rs.getBigDecimal("balance"),
+                rs.getString("status"),
+                rs.getTimestamp("created_at").toLocalDateTime()
+        );
+        acc.setVersion(rs.getLong("version"));
+        return acc;
+    }
+
+    // Keep a row read from the primary outside any write transaction (so
+    // committed state at its version) in the balance index. Rows read on a
+    // caller's connection may include its own uncommitted writes, and replica
+    // rows may predate an invalidation: neither must go in. 'stamps' is
+    // balanceIndex.stamps() from before the query.
+    private Account remember(Account acc, long[] stamps) {
+        balanceIndex.put(acc.getAccountId(), acc.getUserId(), acc.getBalance(), acc.getStatus(), acc.getVersion(),
+                stamps);
+        return acc;
+    }
+
+    // Overload: set many balances as one JDBC batch (for batch transfers)
+    public void updateBalances(Connection conn, Map<Integer, BigDecimal> newBalances) throws SQLException {
+        if (newBalances.isEmpty()) return;
+
+        String sql = "UPDATE accounts SET balance = ? WHERE account_id = ?";
+
+        for (Integer accountId : newBalances.keySet()) {
+            balanceIndex.invalidate(accountId);
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, BigDecimal> e : newBalances.entrySet()) {
+                stmt.setBigDecimal(1, e.getValue());
+                stmt.setInt(2, e.getKey());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
     // Overload: update balance using an existing Connection (for transactions)
     public boolean updateBalance(Connection conn, int accountId, BigDecimal newBalance) throws SQLException {
         String sql = "UPDATE accounts SET balance = ? WHERE account_id = ?";
+        balanceIndex.invalidate(accountId);
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setBigDecimal(1, newBalance);
@@ -178,17 +336,110 @@ public class AccountDAO
         }
     }
 
+    // Overload: set the balance only if the row is still at expectedVersion
+    // (e.g. a balance taken from the index). Returns the new version, or -1
+    // when someone else wrote the row first - re-read it and try again.
+    public long updateBalance(Connection conn, int accountId, BigDecimal newBalance,
+                              long expectedVersion) throws SQLException {
+        String sql = "UPDATE accounts SET balance = ? WHERE account_id = ? AND version = ? RETURNING version";
+        balanceIndex.invalidate(accountId);
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setBigDecimal(1, newBalance);
+            stmt.setInt(2, accountId);
+            stmt.setLong(3, expectedVersion);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong("version") : -1;
+            }
+        }
+    }
+
+    // Cached balance, status and version of an account (no DB access), or
+    // null. Only safe to write back through the versioned updateBalance.
+    public BalanceIndex.Snapshot getCachedAccount(int accountId) {
+        return balanceIndex.get(accountId);
+    }
+
+    // After committing a write that didn't go through cacheCommitted: the
+    // invalidation at the write can't stop a read that ran between it and
+    // the commit from caching the old row, this one can
+    public void invalidateCommitted(int... accountIds) {
+        for (int accountId : accountIds) {
+            balanceIndex.invalidate(accountId);
+        }
+    }
+
+    // Take before commit (after the write) for cacheCommitted
+    public long[] cacheStamps() {
+        return balanceIndex.stamps();
+    }
+
+    // Record an account state this process just committed (after commit only)
+    public void cacheCommitted(int accountId, int userId, BigDecimal balance, String status, long version,
+                               long[] stamps) {
+        balanceIndex.put(accountId, userId, balance, status, version, stamps);
+    }
+
+    // Balances of some of a user's accounts: from the index where cached, the
+    // rest in one query (which caches them when it ran on the primary)
+    public Map<Integer, BigDecimal> getBalances(int userId, Collection<Integer> accountIds) {
+        Map<Integer, BigDecimal> balances = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer accountId : accountIds) {
+            BalanceIndex.Snapshot cached = balanceIndex.get(accountId);
+            if (cached != null && cached.getUserId() == userId) {
+                balances.put(accountId, cached.getBalance());
+            } else {
+                missing.add(accountId);
+            }
+        }
+        if (missing.isEmpty()) return balances;
+
+        String sql = "SELECT account_id, user_id, account_number, account_type, " +
+                     "balance, status, created_at, version " +
+                     "FROM accounts WHERE user_id = ? AND account_id = ANY (?)";
+        long[] stamps = balanceIndex.stamps();
+
+        try (Connection conn = DBConnection.getReadConnectionForUser(userId);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+            stmt.setArray(2, conn.createArrayOf("integer", missing.toArray()));
+            boolean primary = !conn.isReadOnly();
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Account acc = mapAccount(rs);
+                    if (primary) remember(acc, stamps);
+                    balances.put(acc.getAccountId(), acc.getBalance());
+                }
+            }
+
+        } catch (SQLException e) {
+            System.out.println("ERROR FETCHING BALANCES:");
+            e.printStackTrace();
+        }
+        return balances;
+    }
+
     public boolean closeAccount(int accountId)
     {
-        String sql = "UPDATE accounts SET status = 'CLOSED' WHERE account_id = ? AND balance = 0";
+        String sql = "UPDATE accounts SET status = 'CLOSED' WHERE account_id = ? AND balance = 0 RETURNING user_id";
 
         try (Connection conn = DBConnection.getConnection();
             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, accountId);
+            balanceIndex.invalidate(accountId);
 
-            int rows = stmt.executeUpdate();
-            return rows > 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                balanceIndex.invalidate(accountId);     // committed: drop reads that raced it
+                if (!rs.next()) return false;
+                DBConnection.recordUserWrite(rs.getInt("user_id"));
+                DBConnection.recordAccountWrite(accountId);
+                return true;
+            }
 
         } catch (SQLException e) {
             System.out.println("ERROR CLOSING ACCOUNT:");
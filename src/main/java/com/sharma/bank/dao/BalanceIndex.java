@@ -0,0 +1,273 @@
+package com.sharma.bank.dao;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Off-heap cache of the hot accounts' balances, keyed by account id. One
+// fixed-width slot per account in a direct ByteBuffer, open addressing with
+// linear probing - 40 bytes an account instead of an Account with its
+// BigDecimal, Strings and LocalDateTime, and nothing for the GC to trace.
+//
+// Slot layout (8-byte aligned):
+//   0  long  seq        seqlock: odd while a writer is inside the slot
+//   8  int   accountId  0 = empty; set once when the slot is claimed
+//   12 int   userId
+//   16 long  balance    minor units (cents)
+//   24 long  version    accounts.version of the cached row
+//   32 int   status     STATUS_* code, 0 = invalidated (version kept as a floor)
+//
+// Readers never lock: they retry while the seq is odd or changed under them.
+// Writers are serialized on the index. A put is ignored unless it carries a
+// newer version than the slot, so a lagging read can't go back in time, and
+// after invalidate() only a version past the floor gets back in.
+//
+// An account with no slot has no floor, so invalidate() also bumps a
+// per-stripe counter (as HistoryPageCache does): put() takes the stamps()
+// seen before the query and is dropped if the account's stripe was
+// invalidated since, so a read that raced a commit can't cache the old row.
+//
+// Slots are never freed. Once the table is at its load limit new accounts are
+// simply not cached (the first-seen accounts are the hot set of a process).
+//
+// Off unless bank.balanceIndex.capacity is set: the slots are allocated up
+// front (e.g. 1048576 accounts = 40 MB of direct memory).
+public class BalanceIndex {
+
+    private static final int CAPACITY = Integer.getInteger("bank.balanceIndex.capacity", 0);
+
+    private static final int SLOT_BYTES = 40;
+    private static final int MAX_CAPACITY = 1 << 25;            // 1.25 GB of slots, one direct buffer
+    private static final int SEQ = 0;
+    private static final int ACCOUNT_ID = 8;
+    private static final int USER_ID = 12;
+    private static final int BALANCE = 16;
+    private static final int VERSION = 24;
+    private static final int STATUS = 32;
+
+    private static final int STRIPES = 64;
+
+    private static final int STATUS_INVALID = 0;
+    private static final String[] STATUS_NAMES = { null, "ACTIVE", "CLOSED", "FROZEN" };
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private static final BalanceIndex SHARED = new BalanceIndex(CAPACITY);
+
+    public static BalanceIndex shared() {
+        return SHARED;
+    }
+
+    // One consistent read of a slot
+    public static final class Snapshot {
+        private final int accountId;
+        private final int userId;
+        private final long balanceMinor;
+        private final String status;
+        private final long version;
+
+        Snapshot(int accountId, int userId, long balanceMinor, String status, long version) {
+            this.accountId = accountId;
+            this.userId = userId;
+            this.balanceMinor = balanceMinor;
+            this.status = status;
+            this.version = version;
+        }
+
+        public int getAccountId() { return accountId; }
+        public int getUserId() { return userId; }
+        public long getBalanceMinor() { return balanceMinor; }
+        public BigDecimal getBalance() { return BigDecimal.valueOf(balanceMinor, 2); }
+        public String getStatus() { return status; }
+        public long getVersion() { return version; }
+    }
+
+    private final ByteBuffer slots;
+    private final int capacity;         // power of two
+    private final int maxEntries;
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+    private int size;                   // guarded by this
+
+    public BalanceIndex(int capacity) {
+        int cap = capacity <= 0 ? 0 : Integer.highestOneBit(Math.max(16, Math.min(capacity, MAX_CAPACITY) - 1) << 1);
+        this.capacity = cap;
+        this.maxEntries = (int) (cap * 0.75);
+        // Atomic VarHandle access needs 8-byte aligned offsets from the buffer start
+        this.slots = ByteBuffer.allocateDirect(cap * SLOT_BYTES + 8).alignedSlice(8).order(ByteOrder.nativeOrder());
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    // Invalidation counters of every stripe; read them before querying
+    public long[] stamps() {
+        long[] snapshot = new long[STRIPES];
+        for (int i = 0; i < STRIPES; i++) snapshot[i] = stamps.get(i);
+        return snapshot;
+    }
+
+    private static int stripe(int accountId) {
+        return (accountId ^ (accountId >>> 16)) & (STRIPES - 1);
+    }
+
+    private int home(int accountId) {
+        int h = accountId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (capacity - 1);
+    }
+
+    // Byte offset of the account's slot, or -1 if it has none
+    private int find(int accountId) {
+        if (capacity == 0 || accountId == 0) return -1;
+        for (int i = home(accountId), probes = 0; probes < capacity; i = (i + 1) & (capacity - 1), probes++) {
+            int off = i * SLOT_BYTES;
+            int key = (int) INT.getAcquire(slots, off + ACCOUNT_ID);
+            if (key == accountId) return off;
+            if (key == 0) return -1;
+        }
+        return -1;
+    }
+
+    // ===========================
+    // READING
+    // ===========================
+    // The cached row, or null if the account is not cached or was invalidated
+    public Snapshot get(int accountId) {
+        int off = find(accountId);
+        if (off < 0) return null;
+
+        while (true) {
+            long seq = (long) LONG.getAcquire(slots, off + SEQ);
+            if ((seq & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int userId = (int) INT.get(slots, off + USER_ID);
+            long balance = (long) LONG.get(slots, off + BALANCE);
+            long version = (long) LONG.get(slots, off + VERSION);
+            int status = (int) INT.get(slots, off + STATUS);
+            VarHandle.loadLoadFence();
+            if ((long) LONG.getOpaque(slots, off + SEQ) != seq) continue;
+
+            return status == STATUS_INVALID ? null
+                    : new Snapshot(accountId, userId, balance, STATUS_NAMES[status], version);
+        }
+    }
+
+    // ===========================
+    // WRITING
+    // ===========================
+    // Cache a committed row read after 'stamps' was taken. Ignored when the
+    // account was invalidated since, when the slot already holds this version
+    // or a newer one, when the row can't be encoded, or when the table is full.
+    public synchronized boolean put(int accountId, int userId, BigDecimal balance, String status, long version,
+                                    long[] stamps) {
+        if (this.stamps.get(stripe(accountId)) != stamps[stripe(accountId)]) return false;
+
+        int code = statusCode(status);
+        long minor = toMinor(balance);
+        if (code == STATUS_INVALID || minor == Long.MIN_VALUE) {
+            invalidate(accountId);
+            return false;
+        }
+
+        int off = find(accountId);
+        if (off >= 0) {
+            if ((long) LONG.get(slots, off + VERSION) >= version) return false;
+            write(off, userId, minor, version, code);
+            return true;
+        }
+
+        if (capacity == 0 || accountId == 0 || size >= maxEntries) return false;
+        off = claim(accountId);
+        write(off, userId, minor, version, code);
+        INT.setRelease(slots, off + ACCOUNT_ID, accountId);
+        size++;
+        return true;
+    }
+
+    // A write to the account is on its way: stop serving it until a newer
+    // version than the one cached is put
+    public synchronized void invalidate(int accountId) {
+        stamps.incrementAndGet(stripe(accountId));
+        int off = find(accountId);
+        if (off < 0 || (int) INT.get(slots, off + STATUS) == STATUS_INVALID) return;
+
+        long seq = (long) LONG.get(slots, off + SEQ);
+        LONG.setOpaque(slots, off + SEQ, seq + 1);
+        VarHandle.storeStoreFence();
+        INT.set(slots, off + STATUS, STATUS_INVALID);
+        LONG.setRelease(slots, off + SEQ, seq + 2);
+    }
+
+    // Drop every cached row (e.g. after missed change notifications)
+    public synchronized void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) stamps.incrementAndGet(i);
+        for (int i = 0; i < capacity; i++) {
+            int off = i * SLOT_BYTES;
+            int key = (int) INT.get(slots, off + ACCOUNT_ID);
+            if (key != 0) invalidate(key);
+        }
+    }
+
+    // First empty slot on the probe path; caller holds the lock and checked size
+    private int claim(int accountId) {
+        int i = home(accountId);
+        while ((int) INT.get(slots, i * SLOT_BYTES + ACCOUNT_ID) != 0) {
+            i = (i + 1) & (capacity - 1);
+        }
+        int off = i * SLOT_BYTES;
+        LONG.set(slots, off + VERSION, -1L);
+        return off;
+    }
+
+    private void write(int off, int userId, long minor, long version, int status) {
+        long seq = (long) LONG.get(slots, off + SEQ);
+        LONG.setOpaque(slots, off + SEQ, seq + 1);
+        VarHandle.storeStoreFence();
+        INT.set(slots, off + USER_ID, userId);
+        LONG.set(slots, off + BALANCE, minor);
+        LONG.set(slots, off + VERSION, version);
+        INT.set(slots, off + STATUS, status);
+        LONG.setRelease(slots, off + SEQ, seq + 2);
+    }
+
+    private static int statusCode(String status) {
+        for (int i = 1; i < STATUS_NAMES.length; i++) {
+            if (STATUS_NAMES[i].equals(status)) return i;
+        }
+        return STATUS_INVALID;
+    }
+
+    // Cents, or Long.MIN_VALUE if the amount has sub-cent digits or doesn't fit
+    static long toMinor(BigDecimal amount) {
+        if (amount == null) return Long.MIN_VALUE;
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Off-heap bytes reserved for the slots
+    public long getReservedBytes() {
+        return (long) capacity * SLOT_BYTES;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("accounts=%d/%d offHeapBytes=%d", size(), maxEntries, getReservedBytes());
+    }
+}
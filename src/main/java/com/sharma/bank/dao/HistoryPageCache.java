@@ -0,0 +1,222 @@
+package com.sharma.bank.dao;
+
+import com.sharma.bank.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// LRU of history pages (TransactionDAO.getTransactionsPage results), keyed by
+// (account, cursor, page size). The dashboard, the accounts page, statements
+// and the HTTP API keep asking for the same first pages; a hit never touches
+// the database.
+//
+// Bounded by an estimate of the retained bytes (bank.historyCache.maxBytes,
+// 0 turns the cache off). Every page of an account is dropped when a
+// transaction is written for it - by TransactionDAO at the insert, and again
+// after commit (BankingService, LedgerEventBus for other processes).
+//
+// A page read while a write is in flight could put pre-commit rows back after
+// the invalidation; put() takes the stamp() seen before the query and drops
+// the page if the account was invalidated since.
+public class HistoryPageCache {
+
+    private static final long MAX_BYTES = Long.getLong("bank.historyCache.maxBytes", 16L * 1024 * 1024);
+
+    // Rough retained size of one cached Transaction (object, BigDecimal,
+    // LocalDateTime, type string) plus the description chars, and per page
+    private static final int ROW_BYTES = 240;
+    private static final int PAGE_BYTES = 120;
+
+    private static final int STRIPES = 256;
+
+    private static final HistoryPageCache SHARED = new HistoryPageCache(MAX_BYTES);
+
+    public static HistoryPageCache shared() {
+        return SHARED;
+    }
+
+    private static final class Key {
+        private final int accountId;
+        private final LocalDateTime beforeCreatedAt;
+        private final int beforeTransactionId;
+        private final int limit;
+
+        Key(int accountId, LocalDateTime beforeCreatedAt, int beforeTransactionId, int limit) {
+            this.accountId = accountId;
+            this.beforeCreatedAt = beforeCreatedAt;
+            this.beforeTransactionId = beforeCreatedAt == null ? 0 : beforeTransactionId;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return accountId == k.accountId && beforeTransactionId == k.beforeTransactionId
+                    && limit == k.limit && Objects.equals(beforeCreatedAt, k.beforeCreatedAt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, beforeCreatedAt, beforeTransactionId, limit);
+        }
+    }
+
+    private static final class Page {
+        private final List<Transaction> rows;
+        private final long bytes;
+
+        Page(List<Transaction> rows) {
+            this.rows = rows;
+            long b = PAGE_BYTES;
+            for (Transaction tx : rows) {
+                b += ROW_BYTES + (tx.getDescription() == null ? 0 : 2L * tx.getDescription().length());
+            }
+            this.bytes = b;
+        }
+    }
+
+    public static final class Stats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder invalidations = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        public long getHits() { return hits.sum(); }
+        public long getMisses() { return misses.sum(); }
+        public long getEvictions() { return evictions.sum(); }
+        public long getInvalidations() { return invalidations.sum(); }
+        public long getRejected() { return rejected.sum(); }
+
+        public double getHitRatio() {
+            long h = getHits();
+            long total = h + getMisses();
+            return total == 0 ? 0 : (double) h / total;
+        }
+    }
+
+    private final long maxBytes;
+    private final Stats stats = new Stats();
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+    private final Map<Integer, Set<Key>> keysByAccount = new HashMap<>();
+    private final LinkedHashMap<Key, Page> pages = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+
+    public HistoryPageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    // Invalidation counter of the account's stripe; read it before querying
+    public long stamp(int accountId) {
+        return stamps.get(stripe(accountId));
+    }
+
+    private static int stripe(int accountId) {
+        return (accountId ^ (accountId >>> 16)) & (STRIPES - 1);
+    }
+
+    // A copy of the cached page, or null
+    public synchronized List<Transaction> get(int accountId, LocalDateTime beforeCreatedAt,
+                                              int beforeTransactionId, int limit) {
+        Page page = pages.get(new Key(accountId, beforeCreatedAt, beforeTransactionId, limit));
+        if (page == null) {
+            stats.misses.increment();
+            return null;
+        }
+        stats.hits.increment();
+        return new ArrayList<>(page.rows);
+    }
+
+    public synchronized void put(int accountId, LocalDateTime beforeCreatedAt, int beforeTransactionId,
+                                 int limit, List<Transaction> rows, long stamp) {
+        if (!isEnabled()) return;
+        if (stamp(accountId) != stamp) {
+            stats.rejected.increment();
+            return;
+        }
+
+        Key key = new Key(accountId, beforeCreatedAt, beforeTransactionId, limit);
+        Page page = new Page(List.copyOf(rows));
+        if (page.bytes > maxBytes) return;
+
+        Page previous = pages.put(key, page);
+        if (previous != null) bytes -= previous.bytes;
+        bytes += page.bytes;
+        keysByAccount.computeIfAbsent(accountId, k -> new HashSet<>()).add(key);
+
+        // Evict least recently used pages until under budget
+        var it = pages.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Map.Entry<Key, Page> eldest = it.next();
+            it.remove();
+            forget(eldest.getKey(), eldest.getValue());
+            stats.evictions.increment();
+        }
+    }
+
+    // Drop every cached page of the account
+    public void invalidate(int accountId) {
+        stamps.incrementAndGet(stripe(accountId));
+        synchronized (this) {
+            Set<Key> keys = keysByAccount.remove(accountId);
+            if (keys == null) return;
+            for (Key key : keys) {
+                Page page = pages.remove(key);
+                if (page != null) bytes -= page.bytes;
+            }
+            stats.invalidations.increment();
+        }
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < STRIPES; i++) stamps.incrementAndGet(i);
+        pages.clear();
+        keysByAccount.clear();
+        bytes = 0;
+    }
+
+    private void forget(Key key, Page page) {
+        bytes -= page.bytes;
+        Set<Key> keys = keysByAccount.get(key.accountId);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            keysByAccount.remove(key.accountId);
+        }
+    }
+
+    public synchronized int size() {
+        return pages.size();
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return bytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pages=%d bytes=%d/%d hits=%d misses=%d hitRatio=%.3f evictions=%d invalidations=%d",
+                size(), getEstimatedBytes(), maxBytes, stats.getHits(), stats.getMisses(),
+                stats.getHitRatio(), stats.getEvictions(), stats.getInvalidations());
+    }
+}
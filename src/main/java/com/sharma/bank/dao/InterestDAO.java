@@ -0,0 +1,106 @@
+package com.sharma.bank.dao;
+
+import com.sharma.bank.model.InterestAccrual;
+import com.sharma.bank.util.IdRange;
+import com.sharma.bank.util.IntSet;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Daily interest markers. The (account_id, accrual_date) primary key is what
+// makes the accrual job safe to rerun: an account is only credited if its
+// marker row for the day was actually inserted.
+public class InterestDAO {
+
+    // Eligible accounts in a range that have no marker for the day yet, row-locked
+    // so a concurrent deposit can't slip between reading and crediting the balance.
+    // The carry comes from the account's most recent accrual.
+    private static final String ELIGIBLE_SQL =
+            "SELECT a.account_id, a.balance, " +
+            "       COALESCE((SELECT i.carry FROM interest_accruals i " +
+            "                 WHERE i.account_id = a.account_id AND i.accrual_date < ? " +
+            "                 ORDER BY i.accrual_date DESC LIMIT 1), 0) AS carry " +
+            "FROM accounts a " +
+            "WHERE a.account_id BETWEEN ? AND ? " +
+            "  AND a.account_type = 'SAVINGS' AND a.status = 'ACTIVE' AND a.balance > 0 " +
+            "  AND NOT EXISTS (SELECT 1 FROM interest_accruals i " +
+            "                  WHERE i.account_id = a.account_id AND i.accrual_date = ?) " +
+            "ORDER BY a.account_id " +
+            "FOR UPDATE OF a";
+
+    // One statement for the whole chunk; RETURNING tells us which markers are new
+    private static final String INSERT_SQL =
+            "INSERT INTO interest_accruals " +
+            "(account_id, accrual_date, balance, annual_rate, interest, credited, carry) " +
+            "SELECT t.account_id, ?, t.balance, ?, t.interest, t.credited, t.carry " +
+            "FROM UNNEST(?::int[], ?::numeric[], ?::numeric[], ?::numeric[], ?::numeric[]) " +
+            "     AS t(account_id, balance, interest, credited, carry) " +
+            "ON CONFLICT (account_id, accrual_date) DO NOTHING " +
+            "RETURNING account_id";
+
+    // 1) Accounts in the range still owed interest for the day (carryIn filled in)
+    public List<InterestAccrual> lockEligible(Connection conn, IdRange range, LocalDate day) throws SQLException {
+        List<InterestAccrual> list = new ArrayList<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(ELIGIBLE_SQL)) {
+            stmt.setDate(1, Date.valueOf(day));
+            stmt.setInt(2, range.getFromId());
+            stmt.setInt(3, range.getToId());
+            stmt.setDate(4, Date.valueOf(day));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new InterestAccrual(
+                            rs.getInt("account_id"),
+                            day,
+                            rs.getBigDecimal("balance"),
+                            rs.getBigDecimal("carry")
+                    ));
+                }
+            }
+        }
+        return list;
+    }
+
+    // 2) Insert the markers; returns the account ids whose marker was new
+    public IntSet insertAccruals(Connection conn, LocalDate day, BigDecimal annualRate,
+                                 List<InterestAccrual> accruals) throws SQLException {
+        IntSet inserted = new IntSet(accruals.size());
+        if (accruals.isEmpty()) return inserted;
+
+        int n = accruals.size();
+        Integer[] ids = new Integer[n];
+        BigDecimal[] balances = new BigDecimal[n];
+        BigDecimal[] interest = new BigDecimal[n];
+        BigDecimal[] credited = new BigDecimal[n];
+        BigDecimal[] carry = new BigDecimal[n];
+        for (int i = 0; i < n; i++) {
+            InterestAccrual a = accruals.get(i);
+            ids[i] = a.getAccountId();
+            balances[i] = a.getBalance();
+            interest[i] = a.getInterest();
+            credited[i] = a.getCredited();
+            carry[i] = a.getCarryOut();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            stmt.setDate(1, Date.valueOf(day));
+            stmt.setBigDecimal(2, annualRate);
+            stmt.setArray(3, conn.createArrayOf("integer", ids));
+            stmt.setArray(4, conn.createArrayOf("numeric", balances));
+            stmt.setArray(5, conn.createArrayOf("numeric", interest));
+            stmt.setArray(6, conn.createArrayOf("numeric", credited));
+            stmt.setArray(7, conn.createArrayOf("numeric", carry));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    inserted.add(rs.getInt(1));
+                }
+            }
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,134 @@
+package com.sharma.bank.dao;
+
+import com.sharma.bank.model.OutboxEvent;
+import com.sharma.bank.model.Transaction;
+import com.sharma.bank.util.Json;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Transactional outbox: every ledger row gets an event row written in the SAME
+// DB transaction, so consumers see exactly the committed changes. Relays tail
+// the table by event_id and keep their position in outbox_consumer_offsets.
+public class OutboxDAO {
+
+    // Event for one ledger row; balanceAfter is the account balance right after it
+    public static OutboxEvent fromTransaction(Transaction tx, BigDecimal balanceAfter) {
+        String payload = Json.object()
+                .put("accountId", tx.getAccountId())
+                .put("type", tx.getTransactionType())
+                .put("amount", tx.getAmount())
+                .put("balanceAfter", balanceAfter)
+                .put("description", tx.getDescription())
+                .put("at", LocalDateTime.now().toString())
+                .toString();
+        return new OutboxEvent(tx.getAccountId(), tx.getTransactionType(), payload);
+    }
+
+    // 1) Append events for ledger rows (same connection + transaction as the ledger write).
+    //    balancesAfter.get(i) is the account balance right after txs.get(i).
+    public void appendTransactions(Connection conn, List<Transaction> txs,
+                                   List<BigDecimal> balancesAfter) throws SQLException {
+        if (txs.isEmpty()) return;
+
+        List<OutboxEvent> events = new ArrayList<>(txs.size());
+        for (int i = 0; i < txs.size(); i++) {
+            events.add(fromTransaction(txs.get(i), balancesAfter.get(i)));
+        }
+        append(conn, events);
+    }
+
+    public void appendTransaction(Connection conn, Transaction tx, BigDecimal balanceAfter) throws SQLException {
+        append(conn, List.of(fromTransaction(tx, balanceAfter)));
+    }
+
+    public void append(Connection conn, List<OutboxEvent> events) throws SQLException {
+        if (events.isEmpty()) return;
+
+        String sql = "INSERT INTO ledger_outbox (account_id, event_type, payload) VALUES (?, ?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (OutboxEvent e : events) {
+                stmt.setInt(1, e.getAccountId());
+                stmt.setString(2, e.getEventType());
+                stmt.setString(3, e.getPayload());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // 2) Next events after an id, in id order
+    public List<OutboxEvent> readAfter(Connection conn, long afterEventId, int limit) throws SQLException {
+        String sql = "SELECT event_id, account_id, event_type, payload, created_at " +
+                     "FROM ledger_outbox WHERE event_id > ? " +
+                     "ORDER BY event_id LIMIT ?";
+
+        List<OutboxEvent> events = new ArrayList<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, afterEventId);
+            stmt.setInt(2, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    events.add(new OutboxEvent(
+                            rs.getLong("event_id"),
+                            rs.getInt("account_id"),
+                            rs.getString("event_type"),
+                            rs.getString("payload"),
+                            rs.getTimestamp("created_at").toLocalDateTime()
+                    ));
+                }
+            }
+        }
+        return events;
+    }
+
+    // 2b) Oldest transaction id still running, and the first one not yet
+    //     assigned, of a fresh snapshot (relay gap handling)
+    public long snapshotXmin(Connection conn) throws SQLException {
+        return snapshotBound(conn, "pg_snapshot_xmin");
+    }
+
+    public long snapshotXmax(Connection conn) throws SQLException {
+        return snapshotBound(conn, "pg_snapshot_xmax");
+    }
+
+    private long snapshotBound(Connection conn, String function) throws SQLException {
+        String sql = "SELECT " + function + "(pg_current_snapshot())::text::bigint";
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // 3) Consumer offsets: last event id a consumer has fully processed (0 = none)
+    public long getOffset(Connection conn, String consumer) throws SQLException {
+        String sql = "SELECT last_event_id FROM outbox_consumer_offsets WHERE consumer = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, consumer);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    public void saveOffset(Connection conn, String consumer, long lastEventId) throws SQLException {
+        String sql = "INSERT INTO outbox_consumer_offsets (consumer, last_event_id) VALUES (?, ?) " +
+                     "ON CONFLICT (consumer) DO UPDATE SET " +
+                     "  last_event_id = EXCLUDED.last_event_id, updated_at = NOW()";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, consumer);
+            stmt.setLong(2, lastEventId);
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.sharma.bank.dao;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Monthly partitions of the transactions table and the archive bookkeeping
+// for the ones that were exported to files and dropped.
+public class PartitionDAO {
+
+    // "FOR VALUES FROM ('2024-01-01 00:00:00') TO ('2024-02-01 00:00:00')" or FROM (MINVALUE)
+    private static final Pattern BOUND = Pattern.compile(
+            "FROM \\((?:MINVALUE|'([^']+)')\\) TO \\((?:MAXVALUE|'([^']+)')\\)");
+
+    // One attached partition; from == null means unbounded below (the legacy table)
+    public static class TxPartition {
+        private final String name;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+
+        public TxPartition(String name, LocalDateTime from, LocalDateTime to) {
+            this.name = name;
+            this.from = from;
+            this.to = to;
+        }
+
+        public String getName() { return name; }
+        public LocalDateTime getFrom() { return from; }
+        public LocalDateTime getTo() { return to; }
+    }
+
+    // One archived partition; the file lives in the archive directory
+    public static class ArchiveEntry {
+        private final String partitionName;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final String fileName;
+        private final long rowCount;
+
+        public ArchiveEntry(String partitionName, LocalDateTime from, LocalDateTime to,
+                            String fileName, long rowCount) {
+            this.partitionName = partitionName;
+            this.from = from;
+            this.to = to;
+            this.fileName = fileName;
+            this.rowCount = rowCount;
+        }
+
+        public String getPartitionName() { return partitionName; }
+        public LocalDateTime getFrom() { return from; }
+        public LocalDateTime getTo() { return to; }
+        public String getFileName() { return fileName; }
+        public long getRowCount() { return rowCount; }
+    }
+
+    // 1) Create monthly partitions up to monthsAhead months out; returns how many were new
+    public int ensureFuturePartitions(Connection conn, int monthsAhead) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT ensure_transaction_partitions(?)")) {
+            stmt.setInt(1, monthsAhead);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    // 2) Attached partitions of transactions, oldest first
+    public List<TxPartition> listPartitions(Connection conn) throws SQLException {
+        String sql = "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound " +
+                     "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                     "WHERE i.inhparent = 'transactions'::regclass";
+
+        List<TxPartition> partitions = new ArrayList<>();
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                TxPartition p = parseBound(rs.getString("relname"), rs.getString("bound"));
+                if (p != null) {
+                    partitions.add(p);
+                }
+            }
+        }
+
+        partitions.sort((a, b) -> a.getTo().compareTo(b.getTo()));
+        return partitions;
+    }
+
+    // Null for bounds we don't manage (DEFAULT, MAXVALUE)
+    static TxPartition parseBound(String name, String bound) {
+        Matcher m = BOUND.matcher(bound == null ? "" : bound);
+        if (!m.find() || m.group(2) == null) {
+            return null;
+        }
+        LocalDateTime from = m.group(1) == null ? null : Timestamp.valueOf(m.group(1)).toLocalDateTime();
+        LocalDateTime to = Timestamp.valueOf(m.group(2)).toLocalDateTime();
+        return new TxPartition(name, from, to);
+    }
+
+    // 3) Rows in one partition (to verify an export before dropping it)
+    public long countRows(Connection conn, TxPartition p) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + quoteIdent(p.getName()))) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // 4) Record the archive, then detach and drop the partition. Call inside
+    //    one DB transaction so the rows are never both gone and unrecorded.
+    public void retire(Connection conn, TxPartition p, String fileName, long rowCount) throws SQLException {
+        String sql = "INSERT INTO transaction_archives (partition_name, range_from, range_to, file_name, row_count) " +
+                     "VALUES (?, ?, ?, ?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, p.getName());
+            stmt.setTimestamp(2, p.getFrom() == null ? null : Timestamp.valueOf(p.getFrom()));
+            stmt.setTimestamp(3, Timestamp.valueOf(p.getTo()));
+            stmt.setString(4, fileName);
+            stmt.setLong(5, rowCount);
+            stmt.executeUpdate();
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE transactions DETACH PARTITION " + quoteIdent(p.getName()));
+            stmt.execute("DROP TABLE " + quoteIdent(p.getName()));
+        }
+    }
+
+    // 5) Every archive, oldest first
+    public List<ArchiveEntry> getArchives(Connection conn) throws SQLException {
+        String sql = "SELECT partition_name, range_from, range_to, file_name, row_count " +
+                     "FROM transaction_archives ORDER BY range_to";
+
+        List<ArchiveEntry> list = new ArrayList<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp rangeFrom = rs.getTimestamp("range_from");
+                    list.add(new ArchiveEntry(
+                            rs.getString("partition_name"),
+                            rangeFrom == null ? null : rangeFrom.toLocalDateTime(),
+                            rs.getTimestamp("range_to").toLocalDateTime(),
+                            rs.getString("file_name"),
+                            rs.getLong("row_count")
+                    ));
+                }
+            }
+        }
+        return list;
+    }
+
+    // Partition names come from pg_class, never from users, but quote anyway
+    private static String quoteIdent(String name) {
+        return "\"" + name.replace("\"", "\"\"") + "\"";
+    }
+}
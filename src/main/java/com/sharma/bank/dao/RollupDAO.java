@@ -0,0 +1,202 @@
+package com.sharma.bank.dao;
+
+import com.sharma.bank.model.DailyRollup;
+import com.sharma.bank.model.Transaction;
+import com.sharma.bank.util.DBConnection;
+import com.sharma.bank.util.IdRange;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-account, per-day aggregates kept next to the ledger so charts and
+// statements read O(days) rows instead of O(transactions).
+public class RollupDAO {
+
+    // Adds one ledger row to today's bucket; the first write of the day
+    // also fixes the opening balance.
+    private static final String APPLY_SQL =
+            "INSERT INTO daily_account_rollups " +
+            "(account_id, day, opening_balance, closing_balance, " +
+            " deposit_count, deposit_total, withdrawal_count, withdrawal_total, " +
+            " transfer_in_count, transfer_in_total, transfer_out_count, transfer_out_total) " +
+            "VALUES (?, CURRENT_DATE, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (account_id, day) DO UPDATE SET " +
+            "  closing_balance    = EXCLUDED.closing_balance, " +
+            "  deposit_count      = daily_account_rollups.deposit_count      + EXCLUDED.deposit_count, " +
+            "  deposit_total      = daily_account_rollups.deposit_total      + EXCLUDED.deposit_total, " +
+            "  withdrawal_count   = daily_account_rollups.withdrawal_count   + EXCLUDED.withdrawal_count, " +
+            "  withdrawal_total   = daily_account_rollups.withdrawal_total   + EXCLUDED.withdrawal_total, " +
+            "  transfer_in_count  = daily_account_rollups.transfer_in_count  + EXCLUDED.transfer_in_count, " +
+            "  transfer_in_total  = daily_account_rollups.transfer_in_total  + EXCLUDED.transfer_in_total, " +
+            "  transfer_out_count = daily_account_rollups.transfer_out_count + EXCLUDED.transfer_out_count, " +
+            "  transfer_out_total = daily_account_rollups.transfer_out_total + EXCLUDED.transfer_out_total";
+
+    // Rebuilds every day of every account in a range straight from the ledger.
+    // Closing balances are walked backwards from the current balance, so
+    // accounts opened with an initial balance still get correct figures.
+    private static final String BACKFILL_SQL =
+            "WITH daily AS ( " +
+            "  SELECT account_id, created_at::date AS day, " +
+            "         COUNT(*) FILTER (WHERE transaction_type = 'DEPOSIT')      AS deposit_count, " +
+            "         COALESCE(SUM(amount) FILTER (WHERE transaction_type = 'DEPOSIT'), 0)      AS deposit_total, " +
+            "         COUNT(*) FILTER (WHERE transaction_type = 'WITHDRAWAL')   AS withdrawal_count, " +
+            "         COALESCE(SUM(amount) FILTER (WHERE transaction_type = 'WITHDRAWAL'), 0)   AS withdrawal_total, " +
+            "         COUNT(*) FILTER (WHERE transaction_type = 'TRANSFER_IN')  AS transfer_in_count, " +
+            "         COALESCE(SUM(amount) FILTER (WHERE transaction_type = 'TRANSFER_IN'), 0)  AS transfer_in_total, " +
+            "         COUNT(*) FILTER (WHERE transaction_type = 'TRANSFER_OUT') AS transfer_out_count, " +
+            "         COALESCE(SUM(amount) FILTER (WHERE transaction_type = 'TRANSFER_OUT'), 0) AS transfer_out_total " +
+            "  FROM transactions " +
+            "  WHERE account_id BETWEEN ? AND ? " +
+            "  GROUP BY account_id, created_at::date " +
+            "), positioned AS ( " +
+            "  SELECT d.*, " +
+            "         d.deposit_total + d.transfer_in_total - d.withdrawal_total - d.transfer_out_total AS net, " +
+            "         a.balance - COALESCE(SUM(d.deposit_total + d.transfer_in_total - d.withdrawal_total - d.transfer_out_total) " +
+            "             OVER (PARTITION BY d.account_id ORDER BY d.day DESC " +
+            "                   ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0) AS closing_balance " +
+            "  FROM daily d JOIN accounts a ON a.account_id = d.account_id " +
+            ") " +
+            "INSERT INTO daily_account_rollups " +
+            "(account_id, day, opening_balance, closing_balance, " +
+            " deposit_count, deposit_total, withdrawal_count, withdrawal_total, " +
+            " transfer_in_count, transfer_in_total, transfer_out_count, transfer_out_total) " +
+            "SELECT account_id, day, closing_balance - net, closing_balance, " +
+            "       deposit_count, deposit_total, withdrawal_count, withdrawal_total, " +
+            "       transfer_in_count, transfer_in_total, transfer_out_count, transfer_out_total " +
+            "FROM positioned " +
+            "ON CONFLICT (account_id, day) DO UPDATE SET " +
+            "  opening_balance    = EXCLUDED.opening_balance, " +
+            "  closing_balance    = EXCLUDED.closing_balance, " +
+            "  deposit_count      = EXCLUDED.deposit_count, " +
+            "  deposit_total      = EXCLUDED.deposit_total, " +
+            "  withdrawal_count   = EXCLUDED.withdrawal_count, " +
+            "  withdrawal_total   = EXCLUDED.withdrawal_total, " +
+            "  transfer_in_count  = EXCLUDED.transfer_in_count, " +
+            "  transfer_in_total  = EXCLUDED.transfer_in_total, " +
+            "  transfer_out_count = EXCLUDED.transfer_out_count, " +
+            "  transfer_out_total = EXCLUDED.transfer_out_total";
+
+    // 1) Fold one ledger row into today's rollup (same connection as the ledger write)
+    public boolean applyTransaction(Connection conn, int accountId, String transactionType,
+                                    BigDecimal amount, BigDecimal balanceAfter) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(APPLY_SQL)) {
+            bindApply(stmt, accountId, transactionType, amount, balanceAfter);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    // 2b) Same as applyTransaction for many ledger rows, as one JDBC batch.
+    //     balancesAfter.get(i) is the account balance right after txs.get(i).
+    public void applyTransactions(Connection conn, List<Transaction> txs,
+                                  List<BigDecimal> balancesAfter) throws SQLException {
+        if (txs.isEmpty()) return;
+        try (PreparedStatement stmt = conn.prepareStatement(APPLY_SQL)) {
+            for (int i = 0; i < txs.size(); i++) {
+                Transaction tx = txs.get(i);
+                bindApply(stmt, tx.getAccountId(), tx.getTransactionType(), tx.getAmount(), balancesAfter.get(i));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void bindApply(PreparedStatement stmt, int accountId, String transactionType,
+                           BigDecimal amount, BigDecimal balanceAfter) throws SQLException {
+        boolean credit = "DEPOSIT".equals(transactionType) || "TRANSFER_IN".equals(transactionType);
+        BigDecimal balanceBefore = credit ? balanceAfter.subtract(amount) : balanceAfter.add(amount);
+
+        stmt.setInt(1, accountId);
+        stmt.setBigDecimal(2, balanceBefore);
+        stmt.setBigDecimal(3, balanceAfter);
+        bindBucket(stmt, 4, "DEPOSIT".equals(transactionType), amount);
+        bindBucket(stmt, 6, "WITHDRAWAL".equals(transactionType), amount);
+        bindBucket(stmt, 8, "TRANSFER_IN".equals(transactionType), amount);
+        bindBucket(stmt, 10, "TRANSFER_OUT".equals(transactionType), amount);
+    }
+
+    private void bindBucket(PreparedStatement stmt, int index, boolean matches, BigDecimal amount) throws SQLException {
+        stmt.setInt(index, matches ? 1 : 0);
+        stmt.setBigDecimal(index + 1, matches ? amount : BigDecimal.ZERO);
+    }
+
+    // 2) Read one account's rollups for [from, to], oldest first
+    public List<DailyRollup> getRollups(int accountId, LocalDate from, LocalDate to) {
+        String sql = "SELECT account_id, day, opening_balance, closing_balance, " +
+                     "deposit_count, deposit_total, withdrawal_count, withdrawal_total, " +
+                     "transfer_in_count, transfer_in_total, transfer_out_count, transfer_out_total " +
+                     "FROM daily_account_rollups " +
+                     "WHERE account_id = ? AND day BETWEEN ? AND ? " +
+                     "ORDER BY day";
+
+        List<DailyRollup> rollups = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getReadConnectionForAccount(accountId);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, accountId);
+            stmt.setDate(2, Date.valueOf(from));
+            stmt.setDate(3, Date.valueOf(to));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rollups.add(new DailyRollup(
+                            rs.getInt("account_id"),
+                            rs.getDate("day").toLocalDate(),
+                            rs.getBigDecimal("opening_balance"),
+                            rs.getBigDecimal("closing_balance"),
+                            rs.getInt("deposit_count"),
+                            rs.getBigDecimal("deposit_total"),
+                            rs.getInt("withdrawal_count"),
+                            rs.getBigDecimal("withdrawal_total"),
+                            rs.getInt("transfer_in_count"),
+                            rs.getBigDecimal("transfer_in_total"),
+                            rs.getInt("transfer_out_count"),
+                            rs.getBigDecimal("transfer_out_total")
+                    ));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.out.println("ERROR FETCHING ROLLUPS:");
+            e.printStackTrace();
+        }
+
+        return rollups;
+    }
+
+    // 2b) Debit totals of one account's rollup for a day, by transaction type
+    //     (seeds daily limit counters; a primary-key read on the caller's transaction)
+    public Map<String, BigDecimal> getTotalsByType(Connection conn, int accountId, LocalDate day) throws SQLException {
+        String sql = "SELECT withdrawal_total, transfer_out_total FROM daily_account_rollups " +
+                     "WHERE account_id = ? AND day = ?";
+
+        Map<String, BigDecimal> totals = new HashMap<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, accountId);
+            stmt.setDate(2, Date.valueOf(day));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    totals.put("WITHDRAWAL", rs.getBigDecimal("withdrawal_total"));
+                    totals.put("TRANSFER_OUT", rs.getBigDecimal("transfer_out_total"));
+                }
+            }
+        }
+        return totals;
+    }
+
+    // 3) Recompute all rollups for an account id range; returns rows written
+    public int backfill(Connection conn, IdRange range) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(BACKFILL_SQL)) {
+            stmt.setInt(1, range.getFromId());
+            stmt.setInt(2, range.getToId());
+            return stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.sharma.bank.dao;
+
+import com.sharma.bank.model.ScheduledTransfer;
+import com.sharma.bank.util.DBConnection;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+// Persistent standing orders. due_bucket is next_run_at as an epoch minute:
+// workers scan the partial index on (due_bucket, schedule_id) instead of a
+// timestamp range, so a month-start spike of identical due times is one
+// contiguous index range that SKIP LOCKED can hand out in slices.
+public class ScheduledTransferDAO {
+
+    private static final String COLUMNS =
+            "schedule_id, from_account_id, to_account_id, amount, description, repeat_interval, " +
+            "next_run_at, status, attempts, last_error, last_run_at, created_at";
+
+    public static long bucketOf(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond() / 60;
+    }
+
+    // 1) Create a schedule; sets the generated id on success
+    public boolean createScheduledTransfer(ScheduledTransfer st) {
+        String sql = "INSERT INTO scheduled_transfers " +
+                     "(from_account_id, to_account_id, amount, description, repeat_interval, next_run_at, due_bucket) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING schedule_id, created_at";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, st.getFromAccountId());
+                stmt.setInt(2, st.getToAccountId());
+                stmt.setBigDecimal(3, st.getAmount());
+                stmt.setString(4, st.getDescription());
+                stmt.setString(5, st.getRepeatInterval());
+                stmt.setTimestamp(6, Timestamp.valueOf(st.getNextRunAt()));
+                stmt.setLong(7, bucketOf(st.getNextRunAt()));
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        st.setScheduleId(rs.getLong("schedule_id"));
+                        st.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                        return true;
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            System.out.println("ERROR CREATING SCHEDULED TRANSFER:");
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    // 2) Claim up to 'limit' due schedules. Rows stay locked until the caller
+    //    commits; rows locked by other workers are skipped, not waited on.
+    //    The bucket predicate drives the index scan; next_run_at keeps the rest
+    //    of the current minute from running early.
+    public List<ScheduledTransfer> claimDue(Connection conn, LocalDateTime now, int limit) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM scheduled_transfers " +
+                     "WHERE status = 'ACTIVE' AND due_bucket <= ? AND next_run_at <= ? " +
+                     "ORDER BY due_bucket, schedule_id " +
+                     "LIMIT ? FOR UPDATE SKIP LOCKED";
+
+        List<ScheduledTransfer> claimed = new ArrayList<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, bucketOf(now));
+            stmt.setTimestamp(2, Timestamp.valueOf(now));
+            stmt.setInt(3, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    claimed.add(mapScheduledTransfer(rs));
+                }
+            }
+        }
+        return claimed;
+    }
+
+    // 3) Write back next_run_at / status / attempts for a claimed batch, as one JDBC batch
+    public void updateAfterRun(Connection conn, List<ScheduledTransfer> schedules) throws SQLException {
+        if (schedules.isEmpty()) return;
+
+        String sql = "UPDATE scheduled_transfers SET next_run_at = ?, due_bucket = ?, status = ?, " +
+                     "attempts = ?, last_error = ?, last_run_at = ? WHERE schedule_id = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (ScheduledTransfer st : schedules) {
+                stmt.setTimestamp(1, Timestamp.valueOf(st.getNextRunAt()));
+                stmt.setLong(2, bucketOf(st.getNextRunAt()));
+                stmt.setString(3, st.getStatus());
+                stmt.setInt(4, st.getAttempts());
+                stmt.setString(5, st.getLastError());
+                stmt.setTimestamp(6, st.getLastRunAt() == null ? null : Timestamp.valueOf(st.getLastRunAt()));
+                stmt.setLong(7, st.getScheduleId());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // 4) Schedules paying out of one account, soonest first (for the UI)
+    public List<ScheduledTransfer> getActiveByAccountId(int accountId) {
+        String sql = "SELECT " + COLUMNS + " FROM scheduled_transfers " +
+                     "WHERE from_account_id = ? AND status = 'ACTIVE' " +
+                     "ORDER BY next_run_at";
+
+        List<ScheduledTransfer> list = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, accountId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        list.add(mapScheduledTransfer(rs));
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            System.out.println("ERROR FETCHING SCHEDULED TRANSFERS:");
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    // 5) Cancel a schedule that has not finished yet
+    public boolean cancel(long scheduleId) {
+        String sql = "UPDATE scheduled_transfers SET status = 'CANCELLED' " +
+                     "WHERE schedule_id = ? AND status = 'ACTIVE'";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setLong(1, scheduleId);
+                return stmt.executeUpdate() > 0;
+            }
+
+        } catch (SQLException e) {
+            System.out.println("ERROR CANCELLING SCHEDULED TRANSFER:");
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    private ScheduledTransfer mapScheduledTransfer(ResultSet rs) throws SQLException {
+        ScheduledTransfer st = new ScheduledTransfer(
+                rs.getInt("from_account_id"),
+                rs.getInt("to_account_id"),
+                rs.getBigDecimal("amount"),
+                rs.getString("description"),
+                rs.getString("repeat_interval"),
+                rs.getTimestamp("next_run_at").toLocalDateTime()
+        );
+        st.setScheduleId(rs.getLong("schedule_id"));
+        st.setStatus(rs.getString("status"));
+        st.setAttempts(rs.getInt("attempts"));
+        st.setLastError(rs.getString("last_error"));
+        Timestamp lastRun = rs.getTimestamp("last_run_at");
+        st.setLastRunAt(lastRun == null ? null : lastRun.toLocalDateTime());
+        st.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        return st;
+    }
+}
@@ -0,0 +1,199 @@
+package com.sharma.bank.dao;
+
+import com.sharma.bank.model.Transaction;
+import com.sharma.bank.util.ColumnarArchive;
+import com.sharma.bank.util.DBConnection;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Cold transaction history that TransactionArchiveJob moved out of the database:
+// one ColumnarArchive file (.bktx) per archived monthly partition, listed in
+// transaction_archives. TransactionDAO falls through to this for date ranges
+// that are no longer online.
+//
+// Files are memory-mapped once and kept open; the archive list is re-read
+// from the database at most once a minute.
+public class TransactionArchive {
+
+    private static final long REFRESH_MILLIS = 60_000;
+
+    private static final TransactionArchive SHARED = new TransactionArchive();
+
+    public static TransactionArchive shared() {
+        return SHARED;
+    }
+
+    private final PartitionDAO partitionDAO = new PartitionDAO();
+    private final Map<Path, ColumnarArchive.Reader> readers = new ConcurrentHashMap<>();
+    private final Path dir;
+
+    private volatile List<PartitionDAO.ArchiveEntry> entries;       // oldest first
+    private volatile long loadedAtMillis;
+
+    public TransactionArchive() {
+        this(Paths.get(System.getProperty("bank.archive.dir", "archive")));
+    }
+
+    public TransactionArchive(Path dir) {
+        this.dir = dir;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    // Forget the cached archive list (after the job archived something)
+    public void refresh() {
+        loadedAtMillis = 0;
+    }
+
+    private List<PartitionDAO.ArchiveEntry> entries() throws SQLException {
+        List<PartitionDAO.ArchiveEntry> list = entries;
+        if (list == null || System.currentTimeMillis() - loadedAtMillis > REFRESH_MILLIS) {
+            try (Connection conn = DBConnection.getReadConnection()) {
+                list = partitionDAO.getArchives(conn);
+            }
+            entries = list;
+            loadedAtMillis = System.currentTimeMillis();
+        }
+        return list;
+    }
+
+    // Everything before this instant may be archived; null when nothing is
+    public LocalDateTime archivedUntil() throws SQLException {
+        List<PartitionDAO.ArchiveEntry> list = entries();
+        return list.isEmpty() ? null : list.get(list.size() - 1).getTo();
+    }
+
+    // ===========================
+    // READING
+    // ===========================
+    // Archived rows of one account with from <= created_at < to (null = unbounded), newest first
+    public List<Transaction> getTransactions(int accountId, LocalDateTime from, LocalDateTime to) throws SQLException, IOException {
+        List<Transaction> result = new ArrayList<>();
+        List<PartitionDAO.ArchiveEntry> list = entries();
+
+        for (int i = list.size() - 1; i >= 0; i--) {
+            PartitionDAO.ArchiveEntry e = list.get(i);
+            if (to != null && e.getFrom() != null && !e.getFrom().isBefore(to)) continue;
+            if (from != null && !e.getTo().isAfter(from)) break;      // older files are before the range
+            result.addAll(newestFirst(read(e, accountId, from, to)));
+        }
+        return result;
+    }
+
+    // Keyset page continuing strictly after (beforeCreatedAt, beforeId) in
+    // newest-first order; null cursor = start from the newest archived row
+    public List<Transaction> getPageBefore(int accountId, LocalDateTime beforeCreatedAt,
+                                           int beforeTransactionId, int limit) throws SQLException, IOException {
+        List<Transaction> page = new ArrayList<>(limit);
+        List<PartitionDAO.ArchiveEntry> list = entries();
+
+        for (int i = list.size() - 1; i >= 0 && page.size() < limit; i--) {
+            PartitionDAO.ArchiveEntry e = list.get(i);
+            if (beforeCreatedAt != null && e.getFrom() != null && e.getFrom().isAfter(beforeCreatedAt)) continue;
+
+            LocalDateTime to = beforeCreatedAt == null ? null : beforeCreatedAt.plusNanos(1_000);
+            for (Transaction tx : newestFirst(read(e, accountId, null, to))) {
+                if (beforeCreatedAt != null && !isBefore(tx, beforeCreatedAt, beforeTransactionId)) continue;
+                page.add(tx);
+                if (page.size() == limit) break;
+            }
+        }
+        return page;
+    }
+
+    // Archived rows of one account in [from, to) (null = unbounded), oldest
+    // first, streamed file by file without collecting them (exports)
+    public void forEach(int accountId, LocalDateTime from, LocalDateTime to,
+                        Consumer<Transaction> action) throws SQLException, IOException {
+        for (PartitionDAO.ArchiveEntry e : entries()) {
+            if (from != null && !e.getTo().isAfter(from)) continue;
+            if (to != null && e.getFrom() != null && !e.getFrom().isBefore(to)) break;
+
+            reader(e).forEach(accountId, from, to, action);
+        }
+    }
+
+    private static boolean isBefore(Transaction tx, LocalDateTime createdAt, int transactionId) {
+        int c = tx.getCreatedAt().compareTo(createdAt);
+        return c < 0 || (c == 0 && tx.getTransactionId() < transactionId);
+    }
+
+    private static List<Transaction> newestFirst(List<Transaction> oldestFirst) {
+        oldestFirst.sort(Comparator.comparing(Transaction::getCreatedAt)
+                .thenComparingInt(Transaction::getTransactionId)
+                .reversed());
+        return oldestFirst;
+    }
+
+    private List<Transaction> read(PartitionDAO.ArchiveEntry e, int accountId,
+                                   LocalDateTime from, LocalDateTime to) throws IOException {
+        return reader(e).read(accountId, from, to);
+    }
+
+    private ColumnarArchive.Reader reader(PartitionDAO.ArchiveEntry e) throws IOException {
+        Path file = dir.resolve(e.getFileName());
+        ColumnarArchive.Reader reader = readers.get(file);
+        if (reader == null) {
+            reader = ColumnarArchive.open(file);
+            readers.putIfAbsent(file, reader);
+        }
+        return reader;
+    }
+
+    // ===========================
+    // WRITING
+    // ===========================
+    // Streams a result set (ordered by account_id, created_at, transaction_id)
+    // into a new columnar archive; returns the number of rows written.
+    // Written under a temp name and fsync'd, then renamed into place; the
+    // directory is fsync'd too, so the rename survives a crash before the
+    // caller drops the rows from the database.
+    public static long write(Path file, ResultSet rs) throws IOException, SQLException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long rows;
+
+        try (ColumnarArchive.Writer writer = ColumnarArchive.create(tmp)) {
+            while (rs.next()) {
+                writer.add(new Transaction(
+                        rs.getInt("transaction_id"),
+                        rs.getInt("account_id"),
+                        rs.getBigDecimal("amount"),
+                        rs.getString("transaction_type"),
+                        rs.getString("description"),
+                        rs.getTimestamp("created_at").toLocalDateTime()
+                ));
+            }
+            rows = writer.getRowCount();
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(file.toAbsolutePath().getParent());
+        return rows;
+    }
+
+    // Windows can't open a directory as a channel (NTFS journals the rename itself)
+    private static void forceDirectory(Path dir) throws IOException {
+        if (System.getProperty("os.name", "").startsWith("Windows")) return;
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        }
+    }
+}
@@ -1,16 +1,33 @@
 package com.sharma.bank.dao;
 
 import com.sharma.bank.model.Transaction;
+import com.sharma.bank.model.TransactionSearch;
 import com.sharma.bank.util.DBConnection;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class TransactionDAO {
 
+    private static final int STREAM_FETCH_SIZE = 1_000;
+    private static final int SEARCH_CANDIDATES = 2_000;
+
+    // Must match idx_transactions_account_search (V6) for the index to be used
+    private static final String SEARCH_VECTOR = "to_tsvector('simple', coalesce(description, ''))";
+
+    // Months that TransactionArchiveJob moved out of the database
+    private final TransactionArchive archive = TransactionArchive.shared();
+
+    // First pages are read over and over; writes below invalidate the account
+    private final HistoryPageCache pageCache = HistoryPageCache.shared();
+
     // 1) Insert a new transaction into the DB
     public boolean createTransaction(Transaction transaction) {
         String sql = "INSERT INTO transactions " +
@@ -26,6 +43,7 @@ public class TransactionDAO {
             stmt.setString(4, transaction.getDescription());
 
             int rows = stmt.executeUpdate();
+            pageCache.invalidate(transaction.getAccountId());
             return rows > 0;
 
         } catch (SQLException e) {
@@ -45,7 +63,7 @@ public class TransactionDAO {
 
         List<Transaction> transactions = new ArrayList<>();
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnectionForAccount(accountId);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, accountId);
@@ -77,9 +95,332 @@ public class TransactionDAO {
             e.printStackTrace();
         }
 
+        // Archived months are all older than anything still online
+        transactions.addAll(readArchive(accountId, null, null));
+        return transactions;
+    }
+
+    // 2b) One page of an account's history, newest first (keyset pagination).
+    //     Pass null/0 for the first page, then the created_at + transaction_id of
+    //     the last row of the previous page. Cost does not grow with page depth.
+    //     The extra plain created_at bound lets PostgreSQL prune newer monthly
+    //     partitions (it can't prune on the row comparison alone). A page that
+    //     runs off the end of the online rows continues into the archive.
+    //     Pages are served from HistoryPageCache when possible.
+    public List<Transaction> getTransactionsPage(int accountId, LocalDateTime beforeCreatedAt,
+                                                 int beforeTransactionId, int limit) {
+        if (!pageCache.isEnabled()) {
+            return loadTransactionsPage(accountId, beforeCreatedAt, beforeTransactionId, limit, -1);
+        }
+        List<Transaction> cached = pageCache.get(accountId, beforeCreatedAt, beforeTransactionId, limit);
+        if (cached != null) {
+            return cached;
+        }
+        return loadTransactionsPage(accountId, beforeCreatedAt, beforeTransactionId, limit,
+                pageCache.stamp(accountId));
+    }
+
+    // stamp < 0: don't cache the result
+    private List<Transaction> loadTransactionsPage(int accountId, LocalDateTime beforeCreatedAt,
+                                                   int beforeTransactionId, int limit, long stamp) {
+        String sql = "SELECT transaction_id, account_id, amount, transaction_type, " +
+                     "description, created_at " +
+                     "FROM transactions " +
+                     "WHERE account_id = ? " +
+                     (beforeCreatedAt == null ? "" : "AND created_at <= ? AND (created_at, transaction_id) < (?, ?) ") +
+                     "ORDER BY created_at DESC, transaction_id DESC " +
+                     "LIMIT ?";
+
+        List<Transaction> transactions = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getReadConnectionForAccount(accountId);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            stmt.setInt(i++, accountId);
+            if (beforeCreatedAt != null) {
+                stmt.setTimestamp(i++, Timestamp.valueOf(beforeCreatedAt));
+                stmt.setTimestamp(i++, Timestamp.valueOf(beforeCreatedAt));
+                stmt.setInt(i++, beforeTransactionId);
+            }
+            stmt.setInt(i, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapTransaction(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.out.println("ERROR FETCHING TRANSACTION PAGE:");
+            e.printStackTrace();
+            return transactions;
+        }
+
+        if (transactions.size() < limit) {
+            LocalDateTime cursorAt = beforeCreatedAt;
+            int cursorId = beforeTransactionId;
+            if (!transactions.isEmpty()) {
+                Transaction last = transactions.get(transactions.size() - 1);
+                cursorAt = last.getCreatedAt();
+                cursorId = last.getTransactionId();
+            }
+            List<Transaction> archived = readArchivePage(accountId, cursorAt, cursorId, limit - transactions.size());
+            if (archived == null) {
+                return transactions;
+            }
+            transactions.addAll(archived);
+        }
+        if (stamp >= 0) {
+            pageCache.put(accountId, beforeCreatedAt, beforeTransactionId, limit, transactions, stamp);
+        }
+        return transactions;
+    }
+
+    // 2c) An account's history for [from, to), newest first. Only the monthly
+    //     partitions overlapping the range are scanned; ranges reaching back
+    //     past the online months are read from the archive files.
+    public List<Transaction> getTransactionsBetween(int accountId, LocalDateTime from, LocalDateTime to) {
+        String sql = "SELECT transaction_id, account_id, amount, transaction_type, " +
+                     "description, created_at " +
+                     "FROM transactions " +
+                     "WHERE account_id = ? AND created_at >= ? AND created_at < ? " +
+                     "ORDER BY created_at DESC, transaction_id DESC";
+
+        List<Transaction> transactions = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getReadConnectionForAccount(accountId);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, accountId);
+            stmt.setTimestamp(2, Timestamp.valueOf(from));
+            stmt.setTimestamp(3, Timestamp.valueOf(to));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapTransaction(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.out.println("ERROR FETCHING TRANSACTIONS BETWEEN DATES:");
+            e.printStackTrace();
+        }
+
+        transactions.addAll(readArchive(accountId, from, to));
         return transactions;
     }
 
+    // 2d) Rows of an account created at or after 'since', newest first. For
+    //     delta refreshes: callers pass their newest created_at minus a margin
+    //     (rows of a still-open transaction get an earlier created_at than
+    //     their commit) and skip transaction ids they already have.
+    public List<Transaction> getTransactionsSince(int accountId, LocalDateTime since) {
+        String sql = "SELECT transaction_id, account_id, amount, transaction_type, " +
+                     "description, created_at " +
+                     "FROM transactions " +
+                     "WHERE account_id = ? AND created_at >= ? " +
+                     "ORDER BY created_at DESC, transaction_id DESC";
+
+        List<Transaction> transactions = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getReadConnectionForAccount(accountId);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, accountId);
+            stmt.setTimestamp(2, Timestamp.valueOf(since));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapTransaction(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.out.println("ERROR FETCHING NEW TRANSACTIONS:");
+            e.printStackTrace();
+        }
+
+        return transactions;
+    }
+
+    // 2e) Stream an account's history for [from, to) (null = unbounded), oldest
+    //     first, optionally only some transaction types (null/empty = all), for
+    //     exports. Archived months come first, then the online rows through a
+    //     server-side cursor, so memory stays flat however long the history is.
+    //     Returns the number of rows handed to the action. Unlike the reads
+    //     above this throws: a silently truncated export is worse than none.
+    public long streamTransactions(int accountId, LocalDateTime from, LocalDateTime to,
+                                   Set<String> types, Consumer<Transaction> action) throws SQLException, IOException {
+        boolean allTypes = types == null || types.isEmpty();
+        long[] rows = { 0 };
+
+        archive.forEach(accountId, from, to, tx -> {
+            if (allTypes || types.contains(tx.getTransactionType())) {
+                action.accept(tx);
+                rows[0]++;
+            }
+        });
+
+        String sql = "SELECT transaction_id, account_id, amount, transaction_type, " +
+                     "description, created_at " +
+                     "FROM transactions " +
+                     "WHERE account_id = ? " +
+                     (from == null ? "" : "AND created_at >= ? ") +
+                     (to == null ? "" : "AND created_at < ? ") +
+                     (allTypes ? "" : "AND transaction_type = ANY (?) ") +
+                     "ORDER BY created_at, transaction_id";
+
+        try (Connection conn = DBConnection.getReadConnectionForAccount(accountId)) {
+            conn.setAutoCommit(false);       // PostgreSQL only honours fetchSize inside a transaction
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setFetchSize(STREAM_FETCH_SIZE);
+
+                int i = 1;
+                stmt.setInt(i++, accountId);
+                if (from != null) stmt.setTimestamp(i++, Timestamp.valueOf(from));
+                if (to != null) stmt.setTimestamp(i++, Timestamp.valueOf(to));
+                if (!allTypes) stmt.setArray(i, conn.createArrayOf("varchar", types.toArray()));
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        action.accept(mapTransaction(rs));
+                        rows[0]++;
+                    }
+                }
+            } finally {
+                conn.rollback();             // read-only; just end the transaction
+            }
+        }
+        return rows[0];
+    }
+
+    // 2f) Search the online history of some accounts (see TransactionSearch).
+    //     With text: matches of every word (prefix match, "ren" finds "Rent"),
+    //     best ranked first, using the (account_id, tsvector) GIN index. Only the
+    //     SEARCH_CANDIDATES newest matches are ranked, so a word that occurs in
+    //     most of a big account's rows still answers quickly. Without text: the
+    //     filtered history, newest first. Archived months are not searched.
+    public List<Transaction> searchTransactions(TransactionSearch search, int offset, int limit) {
+        List<Transaction> transactions = new ArrayList<>();
+        List<Integer> accountIds = search.getAccountIds();
+        if (accountIds == null || accountIds.isEmpty()) {
+            return transactions;
+        }
+
+        String tsQuery = toTsQuery(search.getText());
+        boolean anyType = search.getTypes() == null || search.getTypes().isEmpty();
+
+        StringBuilder where = new StringBuilder("WHERE account_id = ANY (?) ");
+        if (tsQuery != null) where.append("AND ").append(SEARCH_VECTOR).append(" @@ to_tsquery('simple', ?) ");
+        if (search.getMinAmount() != null) where.append("AND amount >= ? ");
+        if (search.getMaxAmount() != null) where.append("AND amount <= ? ");
+        if (search.getFrom() != null) where.append("AND created_at >= ? ");
+        if (search.getTo() != null) where.append("AND created_at < ? ");
+        if (!anyType) where.append("AND transaction_type = ANY (?) ");
+
+        String columns = "transaction_id, account_id, amount, transaction_type, description, created_at";
+        String sql;
+        if (tsQuery == null) {
+            sql = "SELECT " + columns + " FROM transactions " + where +
+                  "ORDER BY created_at DESC, transaction_id DESC LIMIT ? OFFSET ?";
+        } else {
+            sql = "SELECT " + columns + " FROM (" +
+                  "SELECT " + columns + ", ts_rank_cd(" + SEARCH_VECTOR + ", to_tsquery('simple', ?)) AS rank " +
+                  "FROM transactions " + where +
+                  "ORDER BY created_at DESC, transaction_id DESC LIMIT " + SEARCH_CANDIDATES +
+                  ") m ORDER BY rank DESC, created_at DESC, transaction_id DESC LIMIT ? OFFSET ?";
+        }
+
+        try (Connection conn = accountIds.size() == 1
+                ? DBConnection.getReadConnectionForAccount(accountIds.get(0))
+                : DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            if (tsQuery != null) stmt.setString(i++, tsQuery);
+            stmt.setArray(i++, conn.createArrayOf("integer", accountIds.toArray()));
+            if (tsQuery != null) stmt.setString(i++, tsQuery);
+            if (search.getMinAmount() != null) stmt.setBigDecimal(i++, search.getMinAmount());
+            if (search.getMaxAmount() != null) stmt.setBigDecimal(i++, search.getMaxAmount());
+            if (search.getFrom() != null) stmt.setTimestamp(i++, Timestamp.valueOf(search.getFrom()));
+            if (search.getTo() != null) stmt.setTimestamp(i++, Timestamp.valueOf(search.getTo()));
+            if (!anyType) stmt.setArray(i++, conn.createArrayOf("varchar", search.getTypes().toArray()));
+            stmt.setInt(i++, limit);
+            stmt.setInt(i, offset);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapTransaction(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.out.println("ERROR SEARCHING TRANSACTIONS:");
+            e.printStackTrace();
+        }
+
+        return transactions;
+    }
+
+    // User input -> "word1:* & word2:*", keeping only letters and digits so no
+    // tsquery operator ever reaches PostgreSQL; null when nothing is left
+    static String toTsQuery(String text) {
+        if (text == null) return null;
+
+        StringBuilder query = new StringBuilder();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            if (query.length() > 0) query.append(" & ");
+            query.append(word).append(":*");
+        }
+        return query.length() == 0 ? null : query.toString();
+    }
+
+    // Archived rows newest first; empty when nothing in range was archived
+    private List<Transaction> readArchive(int accountId, LocalDateTime from, LocalDateTime to) {
+        try {
+            LocalDateTime archivedUntil = archive.archivedUntil();
+            if (archivedUntil == null || (from != null && !archivedUntil.isAfter(from))) {
+                return new ArrayList<>();
+            }
+            return archive.getTransactions(accountId, from, to);
+
+        } catch (SQLException | IOException e) {
+            System.out.println("ERROR READING TRANSACTION ARCHIVE:");
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    // Null when the archive could not be read (the page is then left uncached)
+    private List<Transaction> readArchivePage(int accountId, LocalDateTime beforeCreatedAt,
+                                              int beforeTransactionId, int limit) {
+        try {
+            if (archive.archivedUntil() == null) {
+                return new ArrayList<>();
+            }
+            return archive.getPageBefore(accountId, beforeCreatedAt, beforeTransactionId, limit);
+
+        } catch (SQLException | IOException e) {
+            System.out.println("ERROR READING TRANSACTION ARCHIVE:");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private Transaction mapTransaction(ResultSet rs) throws SQLException {
+        return new Transaction(
+                rs.getInt("transaction_id"),
+                rs.getInt("account_id"),
+                rs.getBigDecimal("amount"),
+                rs.getString("transaction_type"),
+                rs.getString("description"),
+                rs.getTimestamp("created_at").toLocalDateTime()
+        );
+    }
+
     
     // Overload: create transaction using an existing Connection (for transfers)
     public boolean createTransaction(Connection conn, Transaction tx) throws SQLException {
@@ -94,7 +435,31 @@ public class TransactionDAO {
             stmt.setString(4, tx.getDescription());
 
             int rows = stmt.executeUpdate();
+            pageCache.invalidate(tx.getAccountId());
             return rows > 0;
         }
     }
+
+    // Overload: insert many transactions as one JDBC batch on an existing Connection
+    public void createTransactions(Connection conn, List<Transaction> txs) throws SQLException {
+        if (txs.isEmpty()) return;
+
+        String sql = "INSERT INTO transactions " +
+                     "(account_id, amount, transaction_type, description) " +
+                     "VALUES (?, ?, ?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Transaction tx : txs) {
+                stmt.setInt(1, tx.getAccountId());
+                stmt.setBigDecimal(2, tx.getAmount());
+                stmt.setString(3, tx.getTransactionType());
+                stmt.setString(4, tx.getDescription());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        for (Transaction tx : txs) {
+            pageCache.invalidate(tx.getAccountId());
+        }
+    }
 }
@@ -2,12 +2,19 @@ package com.sharma.bank.dao;
 
 import com.sharma.bank.model.User;
 import com.sharma.bank.util.DBConnection;
-import org.mindrot.jbcrypt.BCrypt;
+import com.sharma.bank.util.PasswordHasher;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 public class UserDAO {
 
@@ -15,34 +22,108 @@ public class UserDAO {
     // 1) Create / register user
     // ------------------------
     public boolean createUser(User user) {
-        String sql = "INSERT INTO users (full_name, email, password_hash) VALUES (?, ?, ?)";
+        // Hash plain password using BCrypt before storing
+        return createUser(user, PasswordHasher.hash(user.getPasswordHash()));
+    }
+
+    // Overload: store an already computed hash (hashing done by the caller)
+    public boolean createUser(User user, String hashedPassword) {
+        return insertUser(user, hashedPassword) > 0;
+    }
+
+    // Insert unless the email (case-insensitive) is taken, in one round trip.
+    // Returns the new user_id, 0 if the email already exists, -1 on error.
+    // On success the generated id and created_at are set on the passed user.
+    public int insertUser(User user, String hashedPassword) {
+        String sql = "INSERT INTO users (full_name, email, password_hash) " +
+                     "SELECT ?, ?, ? " +
+                     "WHERE NOT EXISTS (SELECT 1 FROM users WHERE lower(email) = lower(?)) " +
+                     "RETURNING user_id, created_at";
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            // Set full_name and email
             stmt.setString(1, user.getFullName());
             stmt.setString(2, user.getEmail());
-
-            // Hash plain password using BCrypt before storing
-            String hashedPassword = BCrypt.hashpw(user.getPasswordHash(), BCrypt.gensalt());
             stmt.setString(3, hashedPassword);
+            stmt.setString(4, user.getEmail());
 
-            int rowsInserted = stmt.executeUpdate();
-            return rowsInserted > 0;   // true if at least 1 row inserted
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return 0;   // email already registered
+                }
+                user.setUserId(rs.getInt("user_id"));
+                user.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                return user.getUserId();
+            }
 
         } catch (SQLException e) {
+            if ("23505".equals(e.getSQLState())) {
+                return 0;       // lost a race with a concurrent signup (unique index)
+            }
             System.out.println("Error inserting user:");
             e.printStackTrace();
-            return false;
+            return -1;
         }
     }
 
+    // Overload: insert many users with one multi-row INSERT on an existing Connection.
+    // hashes.get(i) is the BCrypt hash for users.get(i). Generated ids and
+    // created_at are written back onto the User objects (matched by email).
+    public void createUsers(Connection conn, List<User> users, List<String> hashes) throws SQLException {
+        if (users.isEmpty()) return;
+
+        StringBuilder sql = new StringBuilder("INSERT INTO users (full_name, email, password_hash) VALUES ");
+        for (int i = 0; i < users.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        }
+        sql.append(" RETURNING user_id, email, created_at");
+
+        Map<String, User> byEmail = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int p = 1;
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                stmt.setString(p++, user.getFullName());
+                stmt.setString(p++, user.getEmail());
+                stmt.setString(p++, hashes.get(i));
+                byEmail.put(user.getEmail(), user);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    User user = byEmail.get(rs.getString("email"));
+                    user.setUserId(rs.getInt("user_id"));
+                    user.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                }
+            }
+        }
+    }
+
+    // Which of these emails are already registered (lower-cased), in one query
+    public Set<String> findExistingEmails(Connection conn, Collection<String> emails) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        if (emails.isEmpty()) return existing;
+
+        String sql = "SELECT lower(email) FROM users WHERE lower(email) = ANY (?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            String[] lowered = emails.stream().map(e -> e.toLowerCase(Locale.ROOT)).toArray(String[]::new);
+            stmt.setArray(1, conn.createArrayOf("text", lowered));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString(1));
+                }
+            }
+        }
+        return existing;
+    }
+
     // ------------------------
     // 2) Fetch user by email
     // ------------------------
     public User getUserByEmail(String email) {
-        String sql = "SELECT user_id, full_name, email, password_hash, created_at FROM users WHERE email = ?";
+        String sql = "SELECT user_id, full_name, email, password_hash, created_at FROM users WHERE lower(email) = lower(?)";
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -70,16 +151,62 @@ public class UserDAO {
         return null; // user not found
     }
 
+    // Fetch user by id (password hash is not loaded)
+    public User getUserById(int userId) {
+        String sql = "SELECT user_id, full_name, email, created_at FROM users WHERE user_id = ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new User(
+                            rs.getInt("user_id"),
+                            rs.getString("full_name"),
+                            rs.getString("email"),
+                            null,
+                            rs.getTimestamp("created_at").toLocalDateTime()
+                    );
+                }
+            }
+
+        } catch (SQLException e) {
+            System.out.println("Error fetching user by id:");
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
     // ------------------------
     // 3) Check login
     // ------------------------
     public boolean login(String email, String password) {
         User user = getUserByEmail(email);
-        if (user == null) {
-            return false;   // no such email
-        }
 
-        // Compare plain password with stored hash
-        return BCrypt.checkpw(password, user.getPasswordHash());
+        // Unknown emails still pay for one BCrypt check (same timing as a real user)
+        return PasswordHasher.verify(password, user == null ? null : user.getPasswordHash());
+    }
+
+    // ------------------------
+    // 4) Replace a stored hash (used when the BCrypt cost changes)
+    // ------------------------
+    public boolean updatePasswordHash(int userId, String newHash) {
+        String sql = "UPDATE users SET password_hash = ? WHERE user_id = ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, newHash);
+            stmt.setInt(2, userId);
+            return stmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.out.println("Error updating password hash:");
+            e.printStackTrace();
+            return false;
+        }
     }
 }
@@ -7,11 +7,12 @@ public class Account
 {
     private int accountId;          // matches accounts.account_id
     private int userId;             // FK -> users.user_id
-    private String accountNumber;   // e.g., "AC-1731881234567"
+    private String accountNumber;   // e.g., "AC-0000000100008"
     private String accountType;     // e.g., "SAVINGS", "CURRENT"
     private BigDecimal balance;     // money, exact
     private String status;          // ACTIVE, CLOSED, FROZEN
     private LocalDateTime createdAt;
+    private long version;           // accounts.version, bumped on every balance/status update
     
     public Account(){}
     
@@ -93,4 +94,12 @@ public class Account
         this.createdAt = createdAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.sharma.bank.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One row of daily_account_rollups: what happened to an account on one day
+public class DailyRollup {
+
+    private int accountId;
+    private LocalDate day;
+    private BigDecimal openingBalance;
+    private BigDecimal closingBalance;
+
+    private int depositCount;
+    private BigDecimal depositTotal;
+    private int withdrawalCount;
+    private BigDecimal withdrawalTotal;
+    private int transferInCount;
+    private BigDecimal transferInTotal;
+    private int transferOutCount;
+    private BigDecimal transferOutTotal;
+
+    public DailyRollup() {}
+
+    public DailyRollup(int accountId, LocalDate day,
+                       BigDecimal openingBalance, BigDecimal closingBalance,
+                       int depositCount, BigDecimal depositTotal,
+                       int withdrawalCount, BigDecimal withdrawalTotal,
+                       int transferInCount, BigDecimal transferInTotal,
+                       int transferOutCount, BigDecimal transferOutTotal) {
+        this.accountId = accountId;
+        this.day = day;
+        this.openingBalance = openingBalance;
+        this.closingBalance = closingBalance;
+        this.depositCount = depositCount;
+        this.depositTotal = depositTotal;
+        this.withdrawalCount = withdrawalCount;
+        this.withdrawalTotal = withdrawalTotal;
+        this.transferInCount = transferInCount;
+        this.transferInTotal = transferInTotal;
+        this.transferOutCount = transferOutCount;
+        this.transferOutTotal = transferOutTotal;
+    }
+
+    // Money that came in (deposits + incoming transfers)
+    public BigDecimal getIncome() {
+        return depositTotal.add(transferInTotal);
+    }
+
+    // Money that went out (withdrawals + outgoing transfers)
+    public BigDecimal getSpend() {
+        return withdrawalTotal.add(transferOutTotal);
+    }
+
+    public int getTransactionCount() {
+        return depositCount + withdrawalCount + transferInCount + transferOutCount;
+    }
+
+    // Getters and setters
+
+    public int getAccountId() { return accountId; }
+    public void setAccountId(int accountId) { this.accountId = accountId; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public BigDecimal getOpeningBalance() { return openingBalance; }
+    public void setOpeningBalance(BigDecimal openingBalance) { this.openingBalance = openingBalance; }
+
+    public BigDecimal getClosingBalance() { return closingBalance; }
+    public void setClosingBalance(BigDecimal closingBalance) { this.closingBalance = closingBalance; }
+
+    public int getDepositCount() { return depositCount; }
+    public void setDepositCount(int depositCount) { this.depositCount = depositCount; }
+
+    public BigDecimal getDepositTotal() { return depositTotal; }
+    public void setDepositTotal(BigDecimal depositTotal) { this.depositTotal = depositTotal; }
+
+    public int getWithdrawalCount() { return withdrawalCount; }
+    public void setWithdrawalCount(int withdrawalCount) { this.withdrawalCount = withdrawalCount; }
+
+    public BigDecimal getWithdrawalTotal() { return withdrawalTotal; }
+    public void setWithdrawalTotal(BigDecimal withdrawalTotal) { this.withdrawalTotal = withdrawalTotal; }
+
+    public int getTransferInCount() { return transferInCount; }
+    public void setTransferInCount(int transferInCount) { this.transferInCount = transferInCount; }
+
+    public BigDecimal getTransferInTotal() { return transferInTotal; }
+    public void setTransferInTotal(BigDecimal transferInTotal) { this.transferInTotal = transferInTotal; }
+
+    public int getTransferOutCount() { return transferOutCount; }
+    public void setTransferOutCount(int transferOutCount) { this.transferOutCount = transferOutCount; }
+
+    public BigDecimal getTransferOutTotal() { return transferOutTotal; }
+    public void setTransferOutTotal(BigDecimal transferOutTotal) { this.transferOutTotal = transferOutTotal; }
+}
@@ -0,0 +1,85 @@
+package com.sharma.bank.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One row of interest_accruals: the interest one account earned on one day.
+// Interest is computed exactly; only whole cents are credited and the
+// sub-cent remainder is carried into the next day's accrual.
+public class InterestAccrual {
+
+    private int accountId;
+    private LocalDate accrualDate;
+    private BigDecimal balance;       // balance the interest was computed on
+    private BigDecimal carryIn;       // sub-cent remainder from the previous accrual
+    private BigDecimal interest;      // exact interest for the day (before carry)
+    private BigDecimal credited;      // whole cents posted to the ledger
+    private BigDecimal carryOut;      // remainder kept for the next accrual
+
+    public InterestAccrual() {}
+
+    public InterestAccrual(int accountId, LocalDate accrualDate, BigDecimal balance, BigDecimal carryIn) {
+        this.accountId = accountId;
+        this.accrualDate = accrualDate;
+        this.balance = balance;
+        this.carryIn = carryIn;
+    }
+
+    // Getters and setters
+
+    public int getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(int accountId) {
+        this.accountId = accountId;
+    }
+
+    public LocalDate getAccrualDate() {
+        return accrualDate;
+    }
+
+    public void setAccrualDate(LocalDate accrualDate) {
+        this.accrualDate = accrualDate;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public BigDecimal getCarryIn() {
+        return carryIn;
+    }
+
+    public void setCarryIn(BigDecimal carryIn) {
+        this.carryIn = carryIn;
+    }
+
+    public BigDecimal getInterest() {
+        return interest;
+    }
+
+    public void setInterest(BigDecimal interest) {
+        this.interest = interest;
+    }
+
+    public BigDecimal getCredited() {
+        return credited;
+    }
+
+    public void setCredited(BigDecimal credited) {
+        this.credited = credited;
+    }
+
+    public BigDecimal getCarryOut() {
+        return carryOut;
+    }
+
+    public void setCarryOut(BigDecimal carryOut) {
+        this.carryOut = carryOut;
+    }
+}
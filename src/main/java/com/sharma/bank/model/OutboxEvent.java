@@ -0,0 +1,73 @@
+package com.sharma.bank.model;
+
+import java.time.LocalDateTime;
+
+// One row of ledger_outbox: a committed ledger change for downstream consumers
+public class OutboxEvent {
+
+    private long eventId;
+    private int accountId;
+    private String eventType;         // transaction type, e.g. "DEPOSIT", "TRANSFER_OUT"
+    private String payload;           // JSON
+    private LocalDateTime createdAt;
+
+    public OutboxEvent() {}
+
+    // Constructor for creating a NEW event (before DB gives us ID + createdAt)
+    public OutboxEvent(int accountId, String eventType, String payload) {
+        this.accountId = accountId;
+        this.eventType = eventType;
+        this.payload = payload;
+    }
+
+    // Constructor for reading an existing event FROM DB
+    public OutboxEvent(long eventId, int accountId, String eventType, String payload, LocalDateTime createdAt) {
+        this.eventId = eventId;
+        this.accountId = accountId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and setters
+
+    public long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(long eventId) {
+        this.eventId = eventId;
+    }
+
+    public int getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(int accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,151 @@
+package com.sharma.bank.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// A future-dated or recurring transfer (standing order)
+public class ScheduledTransfer {
+
+    private long scheduleId;
+    private int fromAccountId;
+    private int toAccountId;
+    private BigDecimal amount;
+    private String description;
+    private String repeatInterval;    // "NONE", "DAILY", "WEEKLY", "MONTHLY"
+    private LocalDateTime nextRunAt;
+    private String status;            // "ACTIVE", "COMPLETED", "FAILED", "CANCELLED"
+    private int attempts;             // failed tries for the current occurrence
+    private String lastError;
+    private LocalDateTime lastRunAt;
+    private LocalDateTime createdAt;
+
+    public ScheduledTransfer() {}
+
+    // Constructor for creating a NEW schedule (before DB gives us ID + createdAt)
+    public ScheduledTransfer(int fromAccountId,
+                             int toAccountId,
+                             BigDecimal amount,
+                             String description,
+                             String repeatInterval,
+                             LocalDateTime nextRunAt) {
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+        this.description = description;
+        this.repeatInterval = repeatInterval;
+        this.nextRunAt = nextRunAt;
+        this.status = "ACTIVE";
+    }
+
+    // Next occurrence after 'from' for a recurring schedule, or null for one-off ones
+    public static LocalDateTime advance(String repeatInterval, LocalDateTime from) {
+        switch (repeatInterval == null ? "NONE" : repeatInterval) {
+            case "DAILY":   return from.plusDays(1);
+            case "WEEKLY":  return from.plusWeeks(1);
+            case "MONTHLY": return from.plusMonths(1);
+            default:        return null;
+        }
+    }
+
+    public boolean isRecurring() {
+        return repeatInterval != null && !"NONE".equals(repeatInterval);
+    }
+
+    // Getters and setters
+
+    public long getScheduleId() {
+        return scheduleId;
+    }
+
+    public void setScheduleId(long scheduleId) {
+        this.scheduleId = scheduleId;
+    }
+
+    public int getFromAccountId() {
+        return fromAccountId;
+    }
+
+    public void setFromAccountId(int fromAccountId) {
+        this.fromAccountId = fromAccountId;
+    }
+
+    public int getToAccountId() {
+        return toAccountId;
+    }
+
+    public void setToAccountId(int toAccountId) {
+        this.toAccountId = toAccountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getRepeatInterval() {
+        return repeatInterval;
+    }
+
+    public void setRepeatInterval(String repeatInterval) {
+        this.repeatInterval = repeatInterval;
+    }
+
+    public LocalDateTime getNextRunAt() {
+        return nextRunAt;
+    }
+
+    public void setNextRunAt(LocalDateTime nextRunAt) {
+        this.nextRunAt = nextRunAt;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getLastRunAt() {
+        return lastRunAt;
+    }
+
+    public void setLastRunAt(LocalDateTime lastRunAt) {
+        this.lastRunAt = lastRunAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,81 @@
+package com.sharma.bank.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+// Filters for TransactionDAO.searchTransactions; null/empty fields don't filter
+public class TransactionSearch {
+
+    private List<Integer> accountIds;   // required: whose history to search
+    private String text;                // words in the description, prefix-matched
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private LocalDateTime from;         // inclusive
+    private LocalDateTime to;           // exclusive
+    private Set<String> types;          // e.g. "DEPOSIT", "TRANSFER_OUT"
+
+    public TransactionSearch() {}
+
+    public TransactionSearch(List<Integer> accountIds, String text) {
+        this.accountIds = accountIds;
+        this.text = text;
+    }
+
+    public List<Integer> getAccountIds() {
+        return accountIds;
+    }
+
+    public void setAccountIds(List<Integer> accountIds) {
+        this.accountIds = accountIds;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public void setMinAmount(BigDecimal minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(BigDecimal maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public Set<String> getTypes() {
+        return types;
+    }
+
+    public void setTypes(Set<String> types) {
+        this.types = types;
+    }
+}
@@ -0,0 +1,292 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.util.DBConnection;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Income vs spend, net flow and balance trend for all of a user's accounts.
+// Reads daily_account_rollups (one row per account per active day) in a single
+// query, caches the result per user and window, and drops the cache entry as
+// soon as BankingService commits a transaction on one of the user's accounts.
+public class AnalyticsService {
+
+    public enum Window {
+        LAST_7_DAYS("7d", 7, false),
+        LAST_30_DAYS("30d", 30, false),
+        LAST_YEAR("1y", 365, true);
+
+        private final String label;
+        private final int days;
+        private final boolean monthly;   // bucket by month instead of by day
+
+        Window(String label, int days, boolean monthly) {
+            this.label = label;
+            this.days = days;
+            this.monthly = monthly;
+        }
+
+        public String getLabel() { return label; }
+        public int getDays() { return days; }
+
+        @Override
+        public String toString() { return label; }
+    }
+
+    private static final String ANALYTICS_SQL =
+            "WITH acc AS ( " +
+            "  SELECT account_id, balance FROM accounts WHERE user_id = ? " +
+            "), days AS ( " +
+            "  SELECT r.day, " +
+            "         SUM(r.deposit_total + r.transfer_in_total)     AS income, " +
+            "         SUM(r.withdrawal_total + r.transfer_out_total) AS spend " +
+            "  FROM daily_account_rollups r JOIN acc ON acc.account_id = r.account_id " +
+            "  WHERE r.day >= ? " +
+            "  GROUP BY r.day " +
+            ") " +
+            "SELECT t.current_total, t.account_ids, d.day, d.income, d.spend " +
+            "FROM (SELECT COALESCE(SUM(balance), 0) AS current_total, " +
+            "             array_agg(account_id) AS account_ids FROM acc) t " +
+            "LEFT JOIN days d ON true " +
+            "ORDER BY d.day";
+
+    private static final DateTimeFormatter DAY_LABEL = DateTimeFormatter.ofPattern("EEE");
+    private static final DateTimeFormatter DATE_LABEL = DateTimeFormatter.ofPattern("MM-dd");
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("MMM yy");
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "analytics-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<String, Snapshot> cache = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> accountOwners = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so an in-flight load can't re-cache stale data
+    private final Map<Integer, AtomicLong> userGenerations = new ConcurrentHashMap<>();
+
+    // ===========================
+    // LOAD (ASYNC, CACHED)
+    // ===========================
+    public CompletableFuture<Snapshot> loadAsync(int userId, Window window) {
+        Snapshot cached = cache.get(key(userId, window));
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return CompletableFuture.supplyAsync(() -> load(userId, window), executor);
+    }
+
+    public Snapshot load(int userId, Window window) {
+        String key = key(userId, window);
+        Snapshot cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = generation(userId).get();
+        Snapshot snapshot = query(userId, window);
+        if (snapshot != null && generation(userId).get() == generation) {
+            cache.put(key, snapshot);
+        }
+        return snapshot;
+    }
+
+    // ===========================
+    // INVALIDATION
+    // ===========================
+    public void invalidateUser(int userId) {
+        generation(userId).incrementAndGet();
+        for (Window w : Window.values()) {
+            cache.remove(key(userId, w));
+        }
+    }
+
+    // Called after BankingService commits a write on this account
+    public void invalidateAccount(int accountId) {
+        Integer owner = accountOwners.get(accountId);
+        if (owner != null) {
+            invalidateUser(owner);
+            return;
+        }
+        // Account we haven't seen yet (e.g. just opened) - be safe
+        for (AtomicLong gen : userGenerations.values()) {
+            gen.incrementAndGet();
+        }
+        cache.clear();
+    }
+
+    private AtomicLong generation(int userId) {
+        return userGenerations.computeIfAbsent(userId, id -> new AtomicLong());
+    }
+
+    private String key(int userId, Window window) {
+        return userId + ":" + window.name();
+    }
+
+    // ===========================
+    // QUERY + BUCKETING
+    // ===========================
+    private Snapshot query(int userId, Window window) {
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(window.getDays() - 1L);
+        if (window.monthly) {
+            from = from.with(TemporalAdjusters.firstDayOfMonth());
+        }
+
+        BigDecimal currentTotal = BigDecimal.ZERO;
+        Map<LocalDate, BigDecimal[]> byDay = new LinkedHashMap<>();
+
+        try (Connection conn = DBConnection.getReadConnectionForUser(userId);
+             PreparedStatement stmt = conn.prepareStatement(ANALYTICS_SQL)) {
+
+            stmt.setInt(1, userId);
+            stmt.setDate(2, Date.valueOf(from));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                boolean first = true;
+                while (rs.next()) {
+                    if (first) {
+                        currentTotal = rs.getBigDecimal("current_total");
+                        rememberOwner(userId, rs.getArray("account_ids"));
+                        first = false;
+                    }
+                    Date day = rs.getDate("day");
+                    if (day != null) {
+                        byDay.put(day.toLocalDate(), new BigDecimal[] {
+                                rs.getBigDecimal("income"),
+                                rs.getBigDecimal("spend")
+                        });
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            System.out.println("ERROR LOADING ANALYTICS:");
+            e.printStackTrace();
+            return null;
+        }
+
+        return buildSnapshot(userId, window, from, today, currentTotal, byDay);
+    }
+
+    private void rememberOwner(int userId, Array accountIds) throws SQLException {
+        if (accountIds == null) return;
+        for (Object id : (Object[]) accountIds.getArray()) {
+            accountOwners.put(((Number) id).intValue(), userId);
+        }
+    }
+
+    private Snapshot buildSnapshot(int userId, Window window, LocalDate from, LocalDate today,
+                                   BigDecimal currentTotal, Map<LocalDate, BigDecimal[]> byDay) {
+        List<Point> points = new ArrayList<>();
+        BigDecimal totalIncome = BigDecimal.ZERO;
+        BigDecimal totalSpend = BigDecimal.ZERO;
+
+        LocalDate bucketStart = from;
+        while (!bucketStart.isAfter(today)) {
+            LocalDate bucketEnd = window.monthly
+                    ? bucketStart.with(TemporalAdjusters.lastDayOfMonth())
+                    : bucketStart;
+            if (bucketEnd.isAfter(today)) bucketEnd = today;
+
+            BigDecimal income = BigDecimal.ZERO;
+            BigDecimal spend = BigDecimal.ZERO;
+            for (LocalDate d = bucketStart; !d.isAfter(bucketEnd); d = d.plusDays(1)) {
+                BigDecimal[] row = byDay.get(d);
+                if (row != null) {
+                    income = income.add(row[0]);
+                    spend = spend.add(row[1]);
+                }
+            }
+
+            String label = window.monthly ? bucketStart.format(MONTH_LABEL)
+                    : window == Window.LAST_7_DAYS ? bucketStart.format(DAY_LABEL)
+                    : bucketStart.format(DATE_LABEL);
+
+            points.add(new Point(label, bucketStart, income, spend, BigDecimal.ZERO));
+            totalIncome = totalIncome.add(income);
+            totalSpend = totalSpend.add(spend);
+            bucketStart = bucketEnd.plusDays(1);
+        }
+
+        // Walk backwards from today's balance to get each bucket's closing balance
+        BigDecimal balance = currentTotal;
+        for (int i = points.size() - 1; i >= 0; i--) {
+            Point p = points.get(i);
+            p.balance = balance;
+            balance = balance.subtract(p.getNet());
+        }
+
+        return new Snapshot(userId, window, Collections.unmodifiableList(points),
+                totalIncome, totalSpend, currentTotal);
+    }
+
+    // One x-axis bucket (a day, or a month for the 1y window)
+    public static class Point {
+        private final String label;
+        private final LocalDate start;
+        private final BigDecimal income;
+        private final BigDecimal spend;
+        private BigDecimal balance;
+
+        Point(String label, LocalDate start, BigDecimal income, BigDecimal spend, BigDecimal balance) {
+            this.label = label;
+            this.start = start;
+            this.income = income;
+            this.spend = spend;
+            this.balance = balance;
+        }
+
+        public String getLabel() { return label; }
+        public LocalDate getStart() { return start; }
+        public BigDecimal getIncome() { return income; }
+        public BigDecimal getSpend() { return spend; }
+        public BigDecimal getNet() { return income.subtract(spend); }
+        public BigDecimal getBalance() { return balance; }
+    }
+
+    public static class Snapshot {
+        private final int userId;
+        private final Window window;
+        private final List<Point> points;
+        private final BigDecimal totalIncome;
+        private final BigDecimal totalSpend;
+        private final BigDecimal currentBalance;
+
+        Snapshot(int userId, Window window, List<Point> points,
+                 BigDecimal totalIncome, BigDecimal totalSpend, BigDecimal currentBalance) {
+            this.userId = userId;
+            this.window = window;
+            this.points = points;
+            this.totalIncome = totalIncome;
+            this.totalSpend = totalSpend;
+            this.currentBalance = currentBalance;
+        }
+
+        public int getUserId() { return userId; }
+        public Window getWindow() { return window; }
+        public List<Point> getPoints() { return points; }
+        public BigDecimal getTotalIncome() { return totalIncome; }
+        public BigDecimal getTotalSpend() { return totalSpend; }
+        public BigDecimal getNetFlow() { return totalIncome.subtract(totalSpend); }
+        public BigDecimal getCurrentBalance() { return currentBalance; }
+    }
+}
@@ -0,0 +1,204 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.dao.UserDAO;
+import com.sharma.bank.model.User;
+import com.sharma.bank.util.PasswordHasher;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Login and signup with all BCrypt work on a dedicated, bounded pool.
+//
+// - At most bank.auth.hashThreads hashes run at once (default: half the cores),
+//   so a login burst can't take every core away from transaction processing.
+// - At most bank.auth.hashQueue requests wait; beyond that callers get BUSY
+//   immediately instead of piling up.
+// - Each email gets bank.auth.maxAttempts tries per minute (default 5).
+// - A successful login re-hashes the password if the configured cost changed.
+public class AuthService {
+
+    public enum Status { SUCCESS, INVALID_CREDENTIALS, RATE_LIMITED, BUSY, EMAIL_TAKEN, ERROR }
+
+    public static class LoginResult {
+        private final Status status;
+        private final User user;                        // password hash already cleared
+        private final SessionManager.Session session;
+
+        LoginResult(Status status, User user, SessionManager.Session session) {
+            this.status = status;
+            this.user = user;
+            this.session = session;
+        }
+
+        public Status getStatus() { return status; }
+        public User getUser() { return user; }
+        public SessionManager.Session getSession() { return session; }
+        public boolean isSuccess() { return status == Status.SUCCESS; }
+    }
+
+    private static final int HASH_THREADS =
+            Integer.getInteger("bank.auth.hashThreads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int HASH_QUEUE = Integer.getInteger("bank.auth.hashQueue", 64);
+    private static final int MAX_ATTEMPTS = Integer.getInteger("bank.auth.maxAttempts", 5);
+    private static final long ATTEMPT_WINDOW_MILLIS = 60_000;
+
+    // Shared by every AuthService instance in the JVM
+    private static final ThreadPoolExecutor HASH_POOL = new ThreadPoolExecutor(
+            HASH_THREADS, HASH_THREADS,
+            30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(HASH_QUEUE),
+            r -> {
+                Thread t = new Thread(r, "bcrypt-worker");
+                t.setDaemon(true);
+                t.setPriority(Thread.NORM_PRIORITY - 1);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+    private static final Map<String, AttemptWindow> ATTEMPTS = new ConcurrentHashMap<>();
+
+    static {
+        // Load PasswordHasher (and build its dummy hash) before the first login
+        PasswordHasher.configuredCost();
+    }
+
+    private final UserDAO userDAO;
+    private final SessionManager sessions;
+    private final UserCache userCache;
+
+    public AuthService() {
+        this(new SessionManager());
+    }
+
+    public AuthService(SessionManager sessions) {
+        this.userDAO = new UserDAO();
+        this.sessions = sessions;
+        this.userCache = UserCache.shared();
+    }
+
+    // ===========================
+    // LOGIN
+    // ===========================
+    public CompletableFuture<LoginResult> login(String email, String password) {
+        String key = normalizeEmail(email);
+        if (!tryAcquireAttempt(key)) {
+            return CompletableFuture.completedFuture(new LoginResult(Status.RATE_LIMITED, null, null));
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> verifyLogin(key, email, password), HASH_POOL);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(new LoginResult(Status.BUSY, null, null));
+        }
+    }
+
+    private LoginResult verifyLogin(String key, String email, String password) {
+        try {
+            User user = userDAO.getUserByEmail(email);
+            String storedHash = user == null ? null : user.getPasswordHash();
+
+            if (!PasswordHasher.verify(password, storedHash)) {
+                return new LoginResult(Status.INVALID_CREDENTIALS, null, null);
+            }
+
+            if (PasswordHasher.needsRehash(storedHash)) {
+                userDAO.updatePasswordHash(user.getUserId(), PasswordHasher.hash(password));
+            }
+
+            // The hash is not needed past this point
+            user.setPasswordHash(null);
+            userCache.put(user);
+
+            ATTEMPTS.remove(key);
+            return new LoginResult(Status.SUCCESS, user, sessions.create(user.getUserId()));
+
+        } catch (RuntimeException e) {
+            System.out.println("ERROR DURING LOGIN:");
+            e.printStackTrace();
+            return new LoginResult(Status.ERROR, null, null);
+        }
+    }
+
+    // ===========================
+    // SIGNUP
+    // ===========================
+    // user.getPasswordHash() carries the PLAIN password here (same as UserDAO.createUser)
+    public CompletableFuture<Status> register(User user) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                String hash = PasswordHasher.hash(user.getPasswordHash());
+                user.setPasswordHash(null);
+
+                int userId = userDAO.insertUser(user, hash);
+                if (userId == 0) return Status.EMAIL_TAKEN;
+                return userId > 0 ? Status.SUCCESS : Status.ERROR;
+            }, HASH_POOL);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(Status.BUSY);
+        }
+    }
+
+    // ===========================
+    // SESSIONS
+    // ===========================
+    // User for a live session token, or null. Served from the cache after login.
+    public User currentUser(String token) {
+        SessionManager.Session session = sessions.validate(token);
+        if (session == null) return null;
+
+        User user = userCache.get(session.getUserId());
+        if (user == null) {
+            user = userDAO.getUserById(session.getUserId());
+            userCache.put(user);
+        }
+        return user;
+    }
+
+    public void logout(String token) {
+        sessions.invalidate(token);
+    }
+
+    // ===========================
+    // RATE LIMITING
+    // ===========================
+    private boolean tryAcquireAttempt(String key) {
+        long now = System.currentTimeMillis();
+        if (ATTEMPTS.size() > 10_000) {
+            ATTEMPTS.values().removeIf(w -> now - w.windowStart > ATTEMPT_WINDOW_MILLIS);
+        }
+        AttemptWindow window = ATTEMPTS.computeIfAbsent(key, k -> new AttemptWindow(now));
+        return window.tryAcquire(now);
+    }
+
+    public static String normalizeEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Fixed one-minute window of attempts for one email
+    private static class AttemptWindow {
+        long windowStart;
+        int attempts;
+
+        AttemptWindow(long now) {
+            this.windowStart = now;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            if (now - windowStart > ATTEMPT_WINDOW_MILLIS) {
+                windowStart = now;
+                attempts = 0;
+            }
+            if (attempts >= MAX_ATTEMPTS) {
+                return false;
+            }
+            attempts++;
+            return true;
+        }
+    }
+}
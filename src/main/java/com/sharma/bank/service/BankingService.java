@@ -1,111 +1,331 @@
 package com.sharma.bank.service;
 
 import com.sharma.bank.dao.AccountDAO;
+import com.sharma.bank.dao.BalanceIndex;
+import com.sharma.bank.dao.HistoryPageCache;
+import com.sharma.bank.dao.OutboxDAO;
+import com.sharma.bank.dao.RollupDAO;
 import com.sharma.bank.dao.TransactionDAO;
 import com.sharma.bank.model.Account;
 import com.sharma.bank.model.Transaction;
 import com.sharma.bank.util.DBConnection;
+import com.sharma.bank.util.IntLongMap;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
 
 public class BankingService {
 
     private final AccountDAO accountDAO;
     private final TransactionDAO transactionDAO;
+    private final RollupDAO rollupDAO;
+    private final OutboxDAO outboxDAO;
+    private final FraudRulesEngine fraudRules;
+    private final DailyLimitStore dailyLimits;
+    private final HistoryPageCache historyPages = HistoryPageCache.shared();
+    private final List<IntConsumer> commitListeners = new CopyOnWriteArrayList<>();
 
     public BankingService() {
         this.accountDAO = new AccountDAO();
         this.transactionDAO = new TransactionDAO();
+        this.rollupDAO = new RollupDAO();
+        this.outboxDAO = new OutboxDAO();
+        this.fraudRules = FraudRulesEngine.shared();
+        this.dailyLimits = DailyLimitStore.shared();
+    }
+
+    // Subscribe to every account id touched, called after its DB transaction commits
+    public void addCommitListener(IntConsumer listener) {
+        commitListeners.add(listener);
+    }
+
+    // Outcome of deposit/withdraw/transfer: the committed balances of every
+    // account touched, so callers can update what they show without re-reading
+    public static class Result {
+        private final boolean success;
+        private final String error;                          // null on success
+        private final Map<Integer, BigDecimal> balances;     // accountId -> balance after
+
+        private Result(boolean success, String error, Map<Integer, BigDecimal> balances) {
+            this.success = success;
+            this.error = error;
+            this.balances = balances;
+        }
+
+        static Result ok(Map<Integer, BigDecimal> balances) {
+            return new Result(true, null, Collections.unmodifiableMap(balances));
+        }
+
+        static Result failed(String error) {
+            return new Result(false, error, Collections.emptyMap());
+        }
+
+        public boolean isSuccess() { return success; }
+        public String getError() { return error; }
+        public Map<Integer, BigDecimal> getBalances() { return balances; }
+    }
+
+    // Post-commit bookkeeping for a debit (withdrawal or outgoing transfer)
+    void recordDebit(int accountId, String transactionType, BigDecimal amount) {
+        fraudRules.record(accountId, transactionType, amount);
+    }
+
+    // Pre-commit rules check; returns a refusal reason or null
+    private String checkDebit(int accountId, String transactionType, BigDecimal amount) {
+        FraudRulesEngine.Decision decision = fraudRules.evaluate(accountId, transactionType, amount);
+        if (decision.isDenied()) {
+            return decision.reason();
+        }
+        if (decision.getOutcome() == FraudRulesEngine.Outcome.FLAG) {
+            System.out.println("⚠️ " + transactionType + " on account " + accountId +
+                    " flagged: " + decision.getMatched());
+        }
+        return null;
+    }
+
+    // Give back daily-limit reservations of a DB transaction that did not commit
+    void releaseHolds(List<DailyLimitStore.Reservation> holds) {
+        for (DailyLimitStore.Reservation hold : holds) {
+            dailyLimits.release(hold);
+        }
+        holds.clear();
+    }
+
+    void notifyCommitted(int... accountIds) {
+        for (int accountId : accountIds) {
+            DBConnection.recordAccountWrite(accountId);
+            historyPages.invalidate(accountId);
+        }
+        for (IntConsumer listener : commitListeners) {
+            for (int accountId : accountIds) {
+                try {
+                    listener.accept(accountId);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
     }
 
     // ===========================
     // DEPOSIT MONEY INTO ACCOUNT
     // ===========================
     public boolean deposit(int accountId, BigDecimal amount, String description) {
+        return depositWithResult(accountId, amount, description).isSuccess();
+    }
+
+    public Result depositWithResult(int accountId, BigDecimal amount, String description) {
 
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             System.out.println("❌ Deposit amount must be positive.");
-            return false;
+            return Result.failed("Deposit amount must be positive.");
         }
 
-        Account account = accountDAO.getAccountById(accountId);
-        if (account == null) {
-            System.out.println("❌ Account not found for id: " + accountId);
-            return false;
-        }
+        Connection conn = null;
 
-        BigDecimal newBalance = account.getBalance().add(amount);
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);  // balance, ledger row and rollup commit together
+
+            // Fast path: credit the cached balance, conditional on the row still
+            // being at the cached version (a status change bumps it too, so the
+            // cached status holds as well). No read, no lock held before the UPDATE.
+            BalanceIndex.Snapshot cached = accountDAO.getCachedAccount(accountId);
+            int userId = 0;
+            String status = null;
+            BigDecimal newBalance = null;
+            long newVersion = -1;
+
+            if (cached != null && notActive(accountId, cached.getStatus()) == null) {
+                userId = cached.getUserId();
+                status = cached.getStatus();
+                newBalance = cached.getBalance().add(amount);
+                newVersion = accountDAO.updateBalance(conn, accountId, newBalance, cached.getVersion());
+            }
 
-        boolean balanceUpdated = accountDAO.updateBalance(accountId, newBalance);
-        if (!balanceUpdated) {
-            System.out.println("❌ Failed to update balance.");
-            return false;
-        }
+            // Not cached, or the cache was behind: lock the row and credit what it holds
+            if (newVersion < 0) {
+                Account account = accountDAO.getAccountByIdForUpdate(conn, accountId);
+                if (account == null) {
+                    System.out.println("❌ Account not found for id: " + accountId);
+                    conn.rollback();
+                    return Result.failed("Account not found.");
+                }
+                String refusal = notActive(accountId, account.getStatus());
+                if (refusal != null) {
+                    System.out.println("❌ " + refusal);
+                    conn.rollback();
+                    return Result.failed(refusal);
+                }
+                userId = account.getUserId();
+                status = account.getStatus();
+                newBalance = account.getBalance().add(amount);
+                newVersion = accountDAO.updateBalance(conn, accountId, newBalance, account.getVersion());
+            }
 
-        Transaction tx = new Transaction(
-                accountId,
-                amount,
-                "DEPOSIT",
-                description
-        );
+            if (newVersion < 0) {
+                System.out.println("❌ Failed to update balance.");
+                conn.rollback();
+                return Result.failed("Failed to update balance.");
+            }
+
+            Transaction tx = new Transaction(
+                    accountId,
+                    amount,
+                    "DEPOSIT",
+                    description
+            );
+
+            boolean txCreated = transactionDAO.createTransaction(conn, tx);
+            if (!txCreated) {
+                System.out.println("❌ Failed to log deposit transaction.");
+                conn.rollback();
+                return Result.failed("Failed to log deposit transaction.");
+            }
+
+            rollupDAO.applyTransaction(conn, accountId, "DEPOSIT", amount, newBalance);
+            outboxDAO.appendTransaction(conn, tx, newBalance);
+
+            long[] stamps = accountDAO.cacheStamps();
+            conn.commit();
+            accountDAO.cacheCommitted(accountId, userId, newBalance, status, newVersion, stamps);
+            DBConnection.recordUserWrite(userId);
+            notifyCommitted(accountId);
+
+            System.out.println("✅ Deposit successful. New balance: " + newBalance);
+            return Result.ok(Map.of(accountId, newBalance));
 
-        boolean txCreated = transactionDAO.createTransaction(tx);
-        if (!txCreated) {
-            System.out.println("⚠️ Balance updated but transaction log failed.");
-            return false;
+        } catch (SQLException e) {
+            System.out.println("ERROR DURING DEPOSIT:");
+            e.printStackTrace();
+            rollbackQuietly(conn);
+            return Result.failed("System error during deposit.");
+        } finally {
+            closeQuietly(conn);
         }
+    }
 
-        System.out.println("✅ Deposit successful. New balance: " + newBalance);
-        return true;
+    // Money only moves on ACTIVE accounts: null if it may, else the refusal
+    static String notActive(int accountId, String status) {
+        return "ACTIVE".equals(status) ? null : "Account not active: " + accountId;
     }
 
     // ===========================
     // WITHDRAW MONEY FROM ACCOUNT
     // ===========================
     public boolean withdraw(int accountId, BigDecimal amount, String description) {
+        return withdrawWithResult(accountId, amount, description).isSuccess();
+    }
+
+    public Result withdrawWithResult(int accountId, BigDecimal amount, String description) {
 
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             System.out.println("❌ Withdrawal amount must be positive.");
-            return false;
+            return Result.failed("Withdrawal amount must be positive.");
         }
 
-        Account account = accountDAO.getAccountById(accountId);
-        if (account == null) {
-            System.out.println("❌ Account not found for id: " + accountId);
-            return false;
-        }
+        Connection conn = null;
+        DailyLimitStore.Reservation hold = null;
+        boolean committed = false;
 
-        BigDecimal currentBalance = account.getBalance();
-        if (currentBalance.compareTo(amount) < 0) {
-            System.out.println("❌ Insufficient funds. Current balance: " + currentBalance);
-            return false;
-        }
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);  // balance, ledger row and rollup commit together
 
-        BigDecimal newBalance = currentBalance.subtract(amount);
+            // Row lock: concurrent debits of this account queue up behind us
+            Account account = accountDAO.getAccountByIdForUpdate(conn, accountId);
+            if (account == null) {
+                System.out.println("❌ Account not found for id: " + accountId);
+                conn.rollback();
+                return Result.failed("Account not found.");
+            }
+            String inactive = notActive(accountId, account.getStatus());
+            if (inactive != null) {
+                System.out.println("❌ " + inactive);
+                conn.rollback();
+                return Result.failed(inactive);
+            }
 
-        boolean balanceUpdated = accountDAO.updateBalance(accountId, newBalance);
-        if (!balanceUpdated) {
-            System.out.println("❌ Failed to update balance.");
-            return false;
-        }
+            BigDecimal currentBalance = account.getBalance();
+            if (currentBalance.compareTo(amount) < 0) {
+                System.out.println("❌ Insufficient funds. Current balance: " + currentBalance);
+                conn.rollback();
+                return Result.failed("Insufficient funds.");
+            }
 
-        Transaction tx = new Transaction(
-                accountId,
-                amount,
-                "WITHDRAWAL",
-                description
-        );
+            String refusal = checkDebit(accountId, "WITHDRAWAL", amount);
+            if (refusal != null) {
+                System.out.println("❌ " + refusal);
+                conn.rollback();
+                return Result.failed(refusal);
+            }
 
-        boolean txCreated = transactionDAO.createTransaction(tx);
-        if (!txCreated) {
-            System.out.println("⚠️ Balance updated but transaction log failed.");
-            return false;
-        }
+            hold = dailyLimits.tryReserve(conn, account, DailyLimitStore.Kind.WITHDRAWAL, amount);
+            if (hold == null) {
+                System.out.println("❌ Daily withdrawal limit reached for account " + accountId);
+                conn.rollback();
+                return Result.failed("Daily withdrawal limit reached.");
+            }
+
+            BigDecimal newBalance = currentBalance.subtract(amount);
+
+            // The row is locked, so the version can't have moved since the read
+            long newVersion = accountDAO.updateBalance(conn, accountId, newBalance, account.getVersion());
+            if (newVersion < 0) {
+                System.out.println("❌ Failed to update balance.");
+                conn.rollback();
+                return Result.failed("Failed to update balance.");
+            }
+
+            Transaction tx = new Transaction(
+                    accountId,
+                    amount,
+                    "WITHDRAWAL",
+                    description
+            );
+
+            boolean txCreated = transactionDAO.createTransaction(conn, tx);
+            if (!txCreated) {
+                System.out.println("❌ Failed to log withdrawal transaction.");
+                conn.rollback();
+                return Result.failed("Failed to log withdrawal transaction.");
+            }
+
+            rollupDAO.applyTransaction(conn, accountId, "WITHDRAWAL", amount, newBalance);
+            outboxDAO.appendTransaction(conn, tx, newBalance);
 
-        System.out.println("✅ Withdrawal successful. New balance: " + newBalance);
-        return true;
+            long[] stamps = accountDAO.cacheStamps();
+            conn.commit();
+            committed = true;
+            accountDAO.cacheCommitted(accountId, account.getUserId(), newBalance, account.getStatus(), newVersion,
+                    stamps);
+            recordDebit(accountId, "WITHDRAWAL", amount);
+            notifyCommitted(accountId);
+
+            System.out.println("✅ Withdrawal successful. New balance: " + newBalance);
+            return Result.ok(Map.of(accountId, newBalance));
+
+        } catch (SQLException e) {
+            System.out.println("ERROR DURING WITHDRAWAL:");
+            e.printStackTrace();
+            rollbackQuietly(conn);
+            return Result.failed("System error during withdrawal.");
+        } finally {
+            if (!committed) {
+                dailyLimits.release(hold);
+            }
+            closeQuietly(conn);
+        }
     }
 
     // ===========================
@@ -113,110 +333,325 @@ public class BankingService {
     // ===========================
     public boolean transfer(int fromAccountId, int toAccountId,
                             BigDecimal amount, String description) {
+        return transferWithResult(fromAccountId, toAccountId, amount, description).isSuccess();
+    }
+
+    public Result transferWithResult(int fromAccountId, int toAccountId,
+                                     BigDecimal amount, String description) {
 
         if (fromAccountId == toAccountId) {
             System.out.println("❌ Cannot transfer to the same account.");
-            return false;
+            return Result.failed("Cannot transfer to the same account.");
         }
 
         if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             System.out.println("❌ Transfer amount must be positive.");
-            return false;
+            return Result.failed("Transfer amount must be positive.");
         }
 
         Connection conn = null;
+        List<DailyLimitStore.Reservation> holds = new ArrayList<>(1);
+        Map<Integer, BigDecimal> balances = new LinkedHashMap<>();
 
         try {
             conn = DBConnection.getConnection();
             conn.setAutoCommit(false);  // start manual transaction
 
-            // Load both accounts using the same connection
-            Account fromAccount = accountDAO.getAccountById(conn, fromAccountId);
-            Account toAccount   = accountDAO.getAccountById(conn, toAccountId);
-
-            if (fromAccount == null) {
-                System.out.println("❌ Source account not found: " + fromAccountId);
+            String failure = applyTransfer(conn, fromAccountId, toAccountId, amount, description, holds, balances);
+            if (failure != null) {
+                System.out.println("❌ " + failure);
                 conn.rollback();
-                return false;
+                return Result.failed(failure);
             }
 
-            if (toAccount == null) {
-                System.out.println("❌ Destination account not found: " + toAccountId);
-                conn.rollback();
-                return false;
+            conn.commit();
+            holds.clear();
+            accountDAO.invalidateCommitted(fromAccountId, toAccountId);
+            recordDebit(fromAccountId, "TRANSFER_OUT", amount);
+            notifyCommitted(fromAccountId, toAccountId);
+
+            System.out.println("✅ Transfer successful. " + amount +
+                    " moved from account " + fromAccountId + " to account " + toAccountId);
+
+            return Result.ok(balances);
+
+        } catch (SQLException e) {
+            System.out.println("ERROR DURING TRANSFER:");
+            e.printStackTrace();
+            rollbackQuietly(conn);
+            return Result.failed("System error during transfer.");
+        } finally {
+            releaseHolds(holds);
+            closeQuietly(conn);
+        }
+    }
+
+    // Moves money inside the caller's DB transaction; the caller commits.
+    // Returns null on success or the reason it was refused (nothing written).
+    // Both rows are locked lowest id first so concurrent transfers can't deadlock.
+    // The daily-limit reservation is added to 'holds'; release them on rollback.
+    //
+    // Scheduled transfers are exempt from the velocity rules, like batch
+    // transfers: the customer authorized them up front, and the scheduler
+    // runs them in bursts (up to bank.scheduler.batchSize at once), so the
+    // rules neither check nor count them (no recordDebit after commit).
+    // Daily limits still apply.
+    String applyScheduledTransfer(Connection conn, int fromAccountId, int toAccountId, BigDecimal amount,
+                                  String description, List<DailyLimitStore.Reservation> holds) throws SQLException {
+        return applyTransfer(conn, fromAccountId, toAccountId, amount, description, holds, new LinkedHashMap<>(), false);
+    }
+
+    // Same for a customer's own transfer (velocity checked), also putting both
+    // new balances into 'balances' on success
+    String applyTransfer(Connection conn, int fromAccountId, int toAccountId, BigDecimal amount,
+                         String description, List<DailyLimitStore.Reservation> holds,
+                         Map<Integer, BigDecimal> balances) throws SQLException {
+        return applyTransfer(conn, fromAccountId, toAccountId, amount, description, holds, balances, true);
+    }
+
+    private String applyTransfer(Connection conn, int fromAccountId, int toAccountId, BigDecimal amount,
+                                 String description, List<DailyLimitStore.Reservation> holds,
+                                 Map<Integer, BigDecimal> balances, boolean checkVelocity) throws SQLException {
+
+        if (fromAccountId == toAccountId) {
+            return "Cannot transfer to the same account.";
+        }
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            return "Transfer amount must be positive.";
+        }
+
+        Account first = accountDAO.getAccountByIdForUpdate(conn, Math.min(fromAccountId, toAccountId));
+        Account second = accountDAO.getAccountByIdForUpdate(conn, Math.max(fromAccountId, toAccountId));
+        Account fromAccount = fromAccountId < toAccountId ? first : second;
+        Account toAccount   = fromAccountId < toAccountId ? second : first;
+
+        if (fromAccount == null || !"ACTIVE".equals(fromAccount.getStatus())) {
+            return "Source account not found or not active: " + fromAccountId;
+        }
+        if (toAccount == null || !"ACTIVE".equals(toAccount.getStatus())) {
+            return "Destination account not found or not active: " + toAccountId;
+        }
+
+        BigDecimal fromBalance = fromAccount.getBalance();
+        if (fromBalance.compareTo(amount) < 0) {
+            return "Insufficient funds in source account. Balance: " + fromBalance;
+        }
+
+        if (checkVelocity) {
+            String refusal = checkDebit(fromAccountId, "TRANSFER_OUT", amount);
+            if (refusal != null) {
+                return refusal;
             }
+        }
+
+        DailyLimitStore.Reservation hold =
+                dailyLimits.tryReserve(conn, fromAccount, DailyLimitStore.Kind.TRANSFER, amount);
+        if (hold == null) {
+            return "Daily transfer limit reached for account " + fromAccountId;
+        }
+        holds.add(hold);
+
+        BigDecimal newFromBalance = fromBalance.subtract(amount);
+        BigDecimal newToBalance   = toAccount.getBalance().add(amount);
+
+        boolean fromUpdated = accountDAO.updateBalance(conn, fromAccountId, newFromBalance);
+        boolean toUpdated   = accountDAO.updateBalance(conn, toAccountId, newToBalance);
+        if (!fromUpdated || !toUpdated) {
+            throw new SQLException("Failed to update one or both account balances.");
+        }
+
+        Transaction withdrawTx = new Transaction(
+                fromAccountId,
+                amount,
+                "TRANSFER_OUT",
+                description + " (to " + toAccount.getAccountNumber() + ")"
+        );
+
+        Transaction depositTx = new Transaction(
+                toAccountId,
+                amount,
+                "TRANSFER_IN",
+                description + " (from " + fromAccount.getAccountNumber() + ")"
+        );
+
+        boolean tx1 = transactionDAO.createTransaction(conn, withdrawTx);
+        boolean tx2 = transactionDAO.createTransaction(conn, depositTx);
+        if (!tx1 || !tx2) {
+            throw new SQLException("Failed to log one or both transfer transactions.");
+        }
 
-            BigDecimal fromBalance = fromAccount.getBalance();
-            if (fromBalance.compareTo(amount) < 0) {
-                System.out.println("❌ Insufficient funds in source account. Balance: " + fromBalance);
+        rollupDAO.applyTransaction(conn, fromAccountId, "TRANSFER_OUT", amount, newFromBalance);
+        rollupDAO.applyTransaction(conn, toAccountId, "TRANSFER_IN", amount, newToBalance);
+        outboxDAO.appendTransactions(conn, List.of(withdrawTx, depositTx), List.of(newFromBalance, newToBalance));
+        balances.put(fromAccountId, newFromBalance);
+        balances.put(toAccountId, newToBalance);
+        return null;
+    }
+
+    // ===========================
+    // BATCH TRANSFER (PAYROLL)
+    // ===========================
+    // One source, many destinations, ONE DB transaction. The source row is
+    // locked once, the destinations are locked in a single ordered query, and
+    // balances and both ledger sides are written as JDBC batches.
+    public BatchTransfer.Result batchTransfer(int fromAccountId, List<BatchTransfer.Item> items,
+                                              BatchTransfer.Mode mode) {
+
+        List<BatchTransfer.ItemResult> results = new ArrayList<>(items.size());
+        Set<Integer> destinationIds = new HashSet<>();
+        for (BatchTransfer.Item item : items) {
+            results.add(new BatchTransfer.ItemResult(item));
+            destinationIds.add(item.getToAccountId());
+        }
+
+        if (items.isEmpty()) {
+            return new BatchTransfer.Result(false, "Batch is empty", results, BigDecimal.ZERO, null);
+        }
+
+        Connection conn = null;
+
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            // Source and destinations locked together in account_id order, the
+            // same order transfer() and the scheduler use
+            Set<Integer> lockIds = new HashSet<>(destinationIds);
+            lockIds.add(fromAccountId);
+            Map<Integer, Account> destinations = accountDAO.getAccountsByIdsForUpdate(conn, lockIds);
+
+            Account fromAccount = destinations.remove(fromAccountId);
+            if (fromAccount == null || !"ACTIVE".equals(fromAccount.getStatus())) {
                 conn.rollback();
-                return false;
+                return new BatchTransfer.Result(false, "Source account not found or not active: " + fromAccountId,
+                        results, BigDecimal.ZERO, null);
             }
 
-            BigDecimal newFromBalance = fromBalance.subtract(amount);
-            BigDecimal newToBalance   = toAccount.getBalance().add(amount);
-
-            boolean fromUpdated = accountDAO.updateBalance(conn, fromAccountId, newFromBalance);
-            boolean toUpdated   = accountDAO.updateBalance(conn, toAccountId, newToBalance);
+            // 1) Validate every item and keep a running total against the source balance
+            BigDecimal available = fromAccount.getBalance();
+            BigDecimal total = BigDecimal.ZERO;
+            boolean anyRejected = false;
+
+            for (BatchTransfer.ItemResult r : results) {
+                BatchTransfer.Item item = r.getItem();
+                Account to = destinations.get(item.getToAccountId());
+
+                if (item.getAmount() == null || item.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                    r.reject("Amount must be positive");
+                } else if (item.getAmount().stripTrailingZeros().scale() > 2) {
+                    r.reject("Amount must be in whole cents");
+                } else if (item.getToAccountId() == fromAccountId) {
+                    r.reject("Cannot transfer to the same account");
+                } else if (to == null) {
+                    r.reject("Destination account not found");
+                } else if (!"ACTIVE".equals(to.getStatus())) {
+                    r.reject("Destination account is not active");
+                } else if (total.add(item.getAmount()).compareTo(available) > 0) {
+                    r.reject("Insufficient funds in source account");
+                } else {
+                    total = total.add(item.getAmount());
+                    continue;
+                }
+                anyRejected = true;
+            }
 
-            if (!fromUpdated || !toUpdated) {
-                System.out.println("❌ Failed to update one or both account balances.");
+            if (mode == BatchTransfer.Mode.ALL_OR_NOTHING && anyRejected) {
+                conn.rollback();
+                return new BatchTransfer.Result(false, "Batch rejected: one or more items are invalid",
+                        results, BigDecimal.ZERO, null);
+            }
+            if (total.signum() == 0) {
                 conn.rollback();
-                return false;
+                return new BatchTransfer.Result(false, "No valid items in batch", results, BigDecimal.ZERO, null);
             }
 
-            Transaction withdrawTx = new Transaction(
-                    fromAccountId,
-                    amount,
-                    "TRANSFER_OUT",
-                    description + " (to " + toAccount.getAccountNumber() + ")"
-            );
+            // 2) Walk the accepted items in order, tracking every balance after each step.
+            //    Credits per destination are summed in cents (exact: amounts are whole cents).
+            Map<Integer, BigDecimal> newBalances = new LinkedHashMap<>();
+            IntLongMap creditedCents = new IntLongMap(destinations.size());
+            List<Transaction> ledger = new ArrayList<>();
+            List<BigDecimal> balancesAfter = new ArrayList<>();
+            BigDecimal fromBalance = available;
+
+            for (BatchTransfer.ItemResult r : results) {
+                if (r.getStatus() == BatchTransfer.ItemStatus.REJECTED) continue;
+
+                BatchTransfer.Item item = r.getItem();
+                Account to = destinations.get(item.getToAccountId());
+                String description = item.getDescription() == null ? "Transfer" : item.getDescription();
+
+                fromBalance = fromBalance.subtract(item.getAmount());
+                long credited = creditedCents.add(to.getAccountId(), item.getAmount().movePointRight(2).longValueExact());
+                BigDecimal toBalance = to.getBalance().add(BigDecimal.valueOf(credited, 2));
+                newBalances.put(to.getAccountId(), toBalance);
+
+                ledger.add(new Transaction(fromAccountId, item.getAmount(), "TRANSFER_OUT",
+                        description + " (to " + to.getAccountNumber() + ")"));
+                balancesAfter.add(fromBalance);
+                ledger.add(new Transaction(to.getAccountId(), item.getAmount(), "TRANSFER_IN",
+                        description + " (from " + fromAccount.getAccountNumber() + ")"));
+                balancesAfter.add(toBalance);
+            }
+            newBalances.put(fromAccountId, fromBalance);
 
-            Transaction depositTx = new Transaction(
-                    toAccountId,
-                    amount,
-                    "TRANSFER_IN",
-                    description + " (from " + fromAccount.getAccountNumber() + ")"
-            );
+            // 3) Batched writes: balances, ledger rows, rollups
+            accountDAO.updateBalances(conn, newBalances);
+            transactionDAO.createTransactions(conn, ledger);
+            rollupDAO.applyTransactions(conn, ledger, balancesAfter);
+            outboxDAO.appendTransactions(conn, ledger, balancesAfter);
 
-            boolean tx1 = transactionDAO.createTransaction(conn, withdrawTx);
-            boolean tx2 = transactionDAO.createTransaction(conn, depositTx);
+            conn.commit();
 
-            if (!tx1 || !tx2) {
-                System.out.println("❌ Failed to log one or both transfer transactions.");
-                conn.rollback();
-                return false;
+            for (BatchTransfer.ItemResult r : results) {
+                if (r.getStatus() != BatchTransfer.ItemStatus.REJECTED) {
+                    r.status = BatchTransfer.ItemStatus.APPLIED;
+                }
             }
 
-            conn.commit();
+            int[] touched = new int[newBalances.size()];
+            int i = 0;
+            for (int accountId : newBalances.keySet()) {
+                touched[i++] = accountId;
+            }
+            accountDAO.invalidateCommitted(touched);
+            notifyCommitted(touched);
 
-            System.out.println("✅ Transfer successful. " + amount +
-                    " moved from " + fromAccount.getAccountNumber() +
-                    " to " + toAccount.getAccountNumber());
-            System.out.println("   New balances -> FROM: " + newFromBalance +
-                    " | TO: " + newToBalance);
+            System.out.println("✅ Batch transfer committed: " + total + " to " + (touched.length - 1) +
+                    " accounts from " + fromAccount.getAccountNumber() + ". New balance: " + fromBalance);
 
-            return true;
+            return new BatchTransfer.Result(true, null, results, total, fromBalance);
 
         } catch (SQLException e) {
-            System.out.println("ERROR DURING TRANSFER:");
+            System.out.println("ERROR DURING BATCH TRANSFER:");
             e.printStackTrace();
-            try {
-                if (conn != null) {
-                    conn.rollback();
-                }
-            } catch (SQLException ex) {
-                ex.printStackTrace();
+            rollbackQuietly(conn);
+            for (BatchTransfer.ItemResult r : results) {
+                r.status = BatchTransfer.ItemStatus.NOT_APPLIED;
             }
-            return false;
+            return new BatchTransfer.Result(false, "Database error: " + e.getMessage(),
+                    results, BigDecimal.ZERO, null);
         } finally {
+            closeQuietly(conn);
+        }
+    }
+
+    private void rollbackQuietly(Connection conn) {
+        try {
             if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
+                conn.rollback();
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private void closeQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true);
+                conn.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
             }
         }
     }
@@ -0,0 +1,85 @@
+package com.sharma.bank.service;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+// Request/result types for BankingService.batchTransfer (one source, many destinations)
+public final class BatchTransfer {
+
+    private BatchTransfer() {
+    }
+
+    public enum Mode {
+        ALL_OR_NOTHING,     // any bad item (or not enough money for all) rejects the whole batch
+        PER_ITEM            // bad items are skipped, the rest are applied
+    }
+
+    public enum ItemStatus { APPLIED, REJECTED, NOT_APPLIED }
+
+    public static class Item {
+        private final int toAccountId;
+        private final BigDecimal amount;
+        private final String description;
+
+        public Item(int toAccountId, BigDecimal amount, String description) {
+            this.toAccountId = toAccountId;
+            this.amount = amount;
+            this.description = description;
+        }
+
+        public int getToAccountId() { return toAccountId; }
+        public BigDecimal getAmount() { return amount; }
+        public String getDescription() { return description; }
+    }
+
+    public static class ItemResult {
+        private final Item item;
+        ItemStatus status = ItemStatus.NOT_APPLIED;
+        String reason;
+
+        ItemResult(Item item) {
+            this.item = item;
+        }
+
+        void reject(String reason) {
+            this.status = ItemStatus.REJECTED;
+            this.reason = reason;
+        }
+
+        public Item getItem() { return item; }
+        public ItemStatus getStatus() { return status; }
+        public String getReason() { return reason; }     // null unless REJECTED
+    }
+
+    public static class Result {
+        private final boolean committed;
+        private final String error;                      // batch-level failure, or null
+        private final List<ItemResult> items;
+        private final BigDecimal totalApplied;
+        private final BigDecimal sourceBalanceAfter;     // null if nothing was committed
+
+        Result(boolean committed, String error, List<ItemResult> items,
+               BigDecimal totalApplied, BigDecimal sourceBalanceAfter) {
+            this.committed = committed;
+            this.error = error;
+            this.items = Collections.unmodifiableList(items);
+            this.totalApplied = totalApplied;
+            this.sourceBalanceAfter = sourceBalanceAfter;
+        }
+
+        public boolean isCommitted() { return committed; }
+        public String getError() { return error; }
+        public List<ItemResult> getItems() { return items; }
+        public BigDecimal getTotalApplied() { return totalApplied; }
+        public BigDecimal getSourceBalanceAfter() { return sourceBalanceAfter; }
+
+        public int getAppliedCount() {
+            int n = 0;
+            for (ItemResult r : items) {
+                if (r.status == ItemStatus.APPLIED) n++;
+            }
+            return n;
+        }
+    }
+}
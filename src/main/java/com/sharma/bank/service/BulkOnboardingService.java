@@ -0,0 +1,358 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.dao.AccountDAO;
+import com.sharma.bank.dao.OutboxDAO;
+import com.sharma.bank.dao.RollupDAO;
+import com.sharma.bank.dao.TransactionDAO;
+import com.sharma.bank.dao.UserDAO;
+import com.sharma.bank.model.Account;
+import com.sharma.bank.model.Transaction;
+import com.sharma.bank.model.User;
+import com.sharma.bank.util.AccountNumberGenerator;
+import com.sharma.bank.util.DBConnection;
+import com.sharma.bank.util.SchemaMigrator;
+import com.sharma.bank.util.PasswordHasher;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+// Creates users and their first account in bulk (e.g. migrating a partner bank).
+//
+// Rows are processed in chunks on ONE connection. Each chunk is a single DB
+// transaction: one multi-row INSERT for users, one for accounts (both with
+// RETURNING) and one batch of opening-balance ledger rows. If a chunk fails,
+// it is retried row by row so one bad row only fails itself.
+//
+// Passwords that are already BCrypt hashes ("$2a$...", as exported by most
+// systems) are stored as-is. Plain passwords are hashed in parallel, but at
+// ~100 ms per hash that dominates the run time, so prefer exported hashes.
+public class BulkOnboardingService {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1_000;
+
+    private static final Pattern EMAIL_PATTERN =
+            Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
+
+    public static class OnboardingRequest {
+        private final String fullName;
+        private final String email;
+        private final String password;        // plain text or an existing BCrypt hash
+        private final String accountType;     // CHEQUING / SAVINGS
+        private final BigDecimal initialBalance;
+
+        public OnboardingRequest(String fullName, String email, String password,
+                                 String accountType, BigDecimal initialBalance) {
+            this.fullName = fullName;
+            this.email = email;
+            this.password = password;
+            this.accountType = accountType;
+            this.initialBalance = initialBalance;
+        }
+
+        public String getFullName() { return fullName; }
+        public String getEmail() { return email; }
+        public String getPassword() { return password; }
+        public String getAccountType() { return accountType; }
+        public BigDecimal getInitialBalance() { return initialBalance; }
+    }
+
+    public static class OnboardingResult {
+        private final long index;              // position in the input
+        private final String email;
+        private boolean success;
+        private int userId;
+        private int accountId;
+        private String accountNumber;
+        private LocalDateTime createdAt;
+        private String error;
+
+        OnboardingResult(long index, String email) {
+            this.index = index;
+            this.email = email;
+        }
+
+        void fail(String message) {
+            this.success = false;
+            this.error = message;
+        }
+
+        public long getIndex() { return index; }
+        public String getEmail() { return email; }
+        public boolean isSuccess() { return success; }
+        public int getUserId() { return userId; }
+        public int getAccountId() { return accountId; }
+        public String getAccountNumber() { return accountNumber; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public String getError() { return error; }
+    }
+
+    // One input row travelling through a chunk
+    private static class Row {
+        final OnboardingRequest request;
+        final OnboardingResult result;
+        String passwordHash;
+
+        Row(long index, OnboardingRequest request) {
+            this.request = request;
+            this.result = new OnboardingResult(index, request.getEmail());
+        }
+    }
+
+    private final UserDAO userDAO = new UserDAO();
+    private final AccountDAO accountDAO = new AccountDAO();
+    private final TransactionDAO transactionDAO = new TransactionDAO();
+    private final RollupDAO rollupDAO = new RollupDAO();
+    private final OutboxDAO outboxDAO = new OutboxDAO();
+    private final int chunkSize;
+
+    public BulkOnboardingService() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public BulkOnboardingService(int chunkSize) {
+        if (chunkSize <= 0 || chunkSize > 10_000) {
+            throw new IllegalArgumentException("chunkSize must be between 1 and 10000");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    // ===========================
+    // ENTRY POINTS
+    // ===========================
+    public List<OnboardingResult> onboard(List<OnboardingRequest> requests) throws SQLException {
+        List<OnboardingResult> results = new ArrayList<>(requests.size());
+        onboard(requests.iterator(), results::add);
+        return results;
+    }
+
+    // Streaming variant: results are handed to the sink chunk by chunk, so the
+    // input can be far larger than memory.
+    public void onboard(Iterator<OnboardingRequest> requests, Consumer<OnboardingResult> sink) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            long index = 0;
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            while (requests.hasNext()) {
+                chunk.add(new Row(index++, requests.next()));
+                if (chunk.size() == chunkSize) {
+                    processChunk(conn, chunk, sink);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(conn, chunk, sink);
+            }
+        }
+    }
+
+    // ===========================
+    // ONE CHUNK
+    // ===========================
+    private void processChunk(Connection conn, List<Row> chunk, Consumer<OnboardingResult> sink) throws SQLException {
+        List<Row> valid = validate(chunk);
+        rejectDuplicates(conn, valid);
+        hashPasswords(valid);
+
+        try {
+            insertRows(conn, valid);
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            if (valid.size() == 1) {
+                valid.get(0).result.fail("Database error: " + e.getMessage());
+            } else {
+                // Isolate the bad row(s): retry one row per transaction
+                for (Row row : valid) {
+                    try {
+                        insertRows(conn, List.of(row));
+                        conn.commit();
+                    } catch (SQLException rowError) {
+                        conn.rollback();
+                        row.result.fail("Database error: " + rowError.getMessage());
+                    }
+                }
+            }
+        }
+
+        for (Row row : chunk) {
+            sink.accept(row.result);
+        }
+    }
+
+    private List<Row> validate(List<Row> chunk) {
+        List<Row> valid = new ArrayList<>(chunk.size());
+        Set<String> seenInChunk = new HashSet<>();
+
+        for (Row row : chunk) {
+            OnboardingRequest r = row.request;
+            String type = r.getAccountType() == null ? "" : r.getAccountType().trim().toUpperCase(Locale.ROOT);
+
+            if (r.getFullName() == null || r.getFullName().trim().length() < 2) {
+                row.result.fail("Invalid full name");
+            } else if (r.getEmail() == null || !EMAIL_PATTERN.matcher(r.getEmail().trim()).matches()) {
+                row.result.fail("Invalid email");
+            } else if (r.getPassword() == null || r.getPassword().isEmpty()) {
+                row.result.fail("Missing password");
+            } else if (!type.equals("CHEQUING") && !type.equals("SAVINGS")) {
+                row.result.fail("Unknown account type: " + r.getAccountType());
+            } else if (r.getInitialBalance() == null || r.getInitialBalance().signum() < 0) {
+                row.result.fail("Initial balance must be zero or positive");
+            } else if (!seenInChunk.add(AuthService.normalizeEmail(r.getEmail()))) {
+                row.result.fail("Duplicate email in input");
+            } else {
+                valid.add(row);
+            }
+        }
+        return valid;
+    }
+
+    private void rejectDuplicates(Connection conn, List<Row> valid) throws SQLException {
+        List<String> emails = new ArrayList<>(valid.size());
+        for (Row row : valid) {
+            emails.add(row.request.getEmail().trim());
+        }
+
+        Set<String> existing = userDAO.findExistingEmails(conn, emails);
+        if (existing.isEmpty()) return;
+
+        valid.removeIf(row -> {
+            if (existing.contains(AuthService.normalizeEmail(row.request.getEmail()))) {
+                row.result.fail("Email already registered");
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void hashPasswords(List<Row> valid) {
+        valid.parallelStream().forEach(row -> {
+            String pw = row.request.getPassword();
+            boolean alreadyHashed = pw.length() == 60 && PasswordHasher.costOf(pw) > 0;
+            row.passwordHash = alreadyHashed ? pw : PasswordHasher.hash(pw);
+        });
+    }
+
+    private void insertRows(Connection conn, List<Row> rows) throws SQLException {
+        if (rows.isEmpty()) return;
+
+        // 1) users
+        List<User> users = new ArrayList<>(rows.size());
+        List<String> hashes = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            users.add(new User(row.request.getFullName().trim(), row.request.getEmail().trim(), null));
+            hashes.add(row.passwordHash);
+        }
+        userDAO.createUsers(conn, users, hashes);
+
+        // 2) accounts
+        List<Account> accounts = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            OnboardingRequest r = rows.get(i).request;
+            accounts.add(new Account(
+                    users.get(i).getUserId(),
+                    AccountNumberGenerator.shared().next(),
+                    r.getAccountType().trim().toUpperCase(Locale.ROOT),
+                    r.getInitialBalance(),
+                    "ACTIVE"
+            ));
+        }
+        accountDAO.createAccounts(conn, accounts);
+
+        // 3) opening balances go through the ledger so reconciliation and rollups agree
+        List<Transaction> openings = new ArrayList<>();
+        List<BigDecimal> balancesAfter = new ArrayList<>();
+        for (Account account : accounts) {
+            if (account.getBalance().signum() > 0) {
+                openings.add(new Transaction(account.getAccountId(), account.getBalance(), "DEPOSIT", "Opening balance"));
+                balancesAfter.add(account.getBalance());
+            }
+        }
+        transactionDAO.createTransactions(conn, openings);
+        rollupDAO.applyTransactions(conn, openings, balancesAfter);
+        outboxDAO.appendTransactions(conn, openings, balancesAfter);
+
+        for (int i = 0; i < rows.size(); i++) {
+            OnboardingResult result = rows.get(i).result;
+            result.success = true;
+            result.error = null;
+            result.userId = users.get(i).getUserId();
+            result.accountId = accounts.get(i).getAccountId();
+            result.accountNumber = accounts.get(i).getAccountNumber();
+            result.createdAt = accounts.get(i).getCreatedAt();
+        }
+    }
+
+    // Missing or malformed columns become nulls and are reported as row failures
+    private static OnboardingRequest parseCsvLine(String line) {
+        String[] c = line.split(",", -1);
+        BigDecimal balance = null;
+        if (c.length > 4) {
+            try {
+                balance = new BigDecimal(c[4].trim());
+            } catch (NumberFormatException ignored) {
+                // stays null
+            }
+        }
+        return new OnboardingRequest(
+                c[0],
+                c.length > 1 ? c[1] : null,
+                c.length > 2 ? c[2] : null,
+                c.length > 3 ? c[3] : null,
+                balance);
+    }
+
+    // Usage: BulkOnboardingService <file.csv> [chunkSize]
+    // CSV columns (with header): full_name,email,password,account_type,initial_balance
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: BulkOnboardingService <file.csv> [chunkSize]");
+            System.exit(1);
+        }
+        int chunkSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CHUNK_SIZE;
+
+        long start = System.nanoTime();
+        long[] counts = new long[2];    // [ok, failed]
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            SchemaMigrator.migrateOnce();
+            reader.readLine();  // header
+            Iterator<OnboardingRequest> rows = reader.lines()
+                    .filter(line -> !line.isBlank())
+                    .map(BulkOnboardingService::parseCsvLine)
+                    .iterator();
+
+            new BulkOnboardingService(chunkSize).onboard(rows, result -> {
+                if (result.isSuccess()) {
+                    counts[0]++;
+                } else {
+                    counts[1]++;
+                    System.out.println("❌ row " + result.getIndex() + " (" + result.getEmail() + "): " + result.getError());
+                }
+            });
+
+        } catch (IOException | SQLException | RuntimeException e) {
+            System.out.println("Onboarding aborted:");
+            e.printStackTrace();
+            System.exit(1);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("✅ Onboarded " + counts[0] + " customers, " + counts[1] + " failed, in " + elapsedMillis + " ms");
+    }
+}
@@ -0,0 +1,212 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.dao.RollupDAO;
+import com.sharma.bank.model.Account;
+import com.sharma.bank.util.IntObjectMap;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Per-account daily withdrawal and transfer limits, enforced from memory.
+//
+// Each account's usage for today lives in one of 64 lock stripes, seeded with a
+// primary-key read of today's daily_account_rollups row (kept in the same
+// transaction as every debit). Callers hold the account's row lock
+// (SELECT ... FOR UPDATE) while reserving, so two debits of one account never
+// race and the seed sees every committed debit.
+//
+// Other processes (API nodes, the standalone scheduler, other desktop
+// clients) debit the same accounts, so a counter is only trusted while the
+// locked row is still at the accounts.version this process left it at. Any
+// other write - here or elsewhere - bumps the version and the next debit
+// re-seeds; a run of debits from one process stays a map lookup.
+//
+// A reservation is counted immediately and must be released if the DB
+// transaction rolls back; release drops the counter so it is re-seeded.
+//
+// Limits per account type, in dollars (negative = no limit):
+//     -Dbank.limits.chequing.withdrawal=3000   -Dbank.limits.chequing.transfer=10000
+//     -Dbank.limits.savings.withdrawal=1000    -Dbank.limits.savings.transfer=5000
+public class DailyLimitStore {
+
+    public enum Kind {
+        WITHDRAWAL("WITHDRAWAL"),
+        TRANSFER("TRANSFER_OUT");
+
+        final String transactionType;
+
+        Kind(String transactionType) {
+            this.transactionType = transactionType;
+        }
+    }
+
+    private static final int STRIPES = 64;
+    private static final int SWEEP_THRESHOLD = 4_096;     // per stripe
+
+    private static final Map<String, BigDecimal> DEFAULT_LIMITS = Map.of(
+            "chequing.withdrawal", new BigDecimal("3000"),
+            "chequing.transfer", new BigDecimal("10000"),
+            "savings.withdrawal", new BigDecimal("1000"),
+            "savings.transfer", new BigDecimal("5000"));
+
+    private static final DailyLimitStore SHARED = new DailyLimitStore(LocalDate::now);
+
+    public static DailyLimitStore shared() {
+        return SHARED;
+    }
+
+    // Today's usage for one account, in cents
+    private static final class DayCounter {
+        final LocalDate day;
+        long version;                   // accounts.version the counts are valid at
+        long withdrawnCents;
+        long transferredCents;
+
+        DayCounter(LocalDate day, long version) {
+            this.day = day;
+            this.version = version;
+        }
+
+        long used(Kind kind) {
+            return kind == Kind.WITHDRAWAL ? withdrawnCents : transferredCents;
+        }
+
+        void add(Kind kind, long cents) {
+            if (kind == Kind.WITHDRAWAL) {
+                withdrawnCents += cents;
+            } else {
+                transferredCents += cents;
+            }
+        }
+    }
+
+    // Handle for one counted debit; pass it to release() if the DB transaction rolls back
+    public static final class Reservation {
+        private final int accountId;
+        private final LocalDate day;
+        private final Kind kind;
+        private final long cents;
+
+        Reservation(int accountId, LocalDate day, Kind kind, long cents) {
+            this.accountId = accountId;
+            this.day = day;
+            this.kind = kind;
+            this.cents = cents;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final IntObjectMap<DayCounter>[] stripes = new IntObjectMap[STRIPES];
+    private final RollupDAO rollupDAO = new RollupDAO();
+    private final Supplier<LocalDate> today;
+
+    public DailyLimitStore(Supplier<LocalDate> today) {
+        this.today = today;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new IntObjectMap<>();
+        }
+    }
+
+    private IntObjectMap<DayCounter> stripe(int accountId) {
+        return stripes[accountId & (STRIPES - 1)];
+    }
+
+    // Limit in cents for an account type, or -1 for none
+    static long limitCents(String accountType, Kind kind) {
+        String key = (accountType == null ? "" : accountType.toLowerCase(Locale.ROOT)) + "."
+                + kind.name().toLowerCase(Locale.ROOT);
+        String configured = System.getProperty("bank.limits." + key);
+        BigDecimal limit = configured != null ? new BigDecimal(configured) : DEFAULT_LIMITS.get(key);
+        if (limit == null || limit.signum() < 0) return -1;
+        return toCents(limit);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // 1) Count a debit against today's limit, or return null if it would exceed it.
+    //    conn must be the transaction that holds the account's row lock, and
+    //    account the row as read under that lock; the caller then updates the
+    //    row exactly once for this debit.
+    public Reservation tryReserve(Connection conn, Account account, Kind kind, BigDecimal amount) throws SQLException {
+        long limit = limitCents(account.getAccountType(), kind);
+        long cents = toCents(amount);
+        LocalDate day = today.get();
+        int accountId = account.getAccountId();
+        long version = account.getVersion();
+
+        IntObjectMap<DayCounter> stripe = stripe(accountId);
+        DayCounter counter;
+        synchronized (stripe) {
+            counter = stripe.get(accountId);
+        }
+
+        if (counter == null || !counter.day.equals(day) || counter.version != version) {
+            // Row lock held: nobody else can debit the account until we commit
+            counter = seed(conn, accountId, day, version);
+            synchronized (stripe) {
+                if (stripe.size() > SWEEP_THRESHOLD) {
+                    stripe.removeValuesIf(c -> !c.day.equals(day));
+                }
+                stripe.put(accountId, counter);
+            }
+        }
+
+        synchronized (stripe) {
+            if (limit >= 0 && counter.used(kind) + cents > limit) {
+                return null;
+            }
+            counter.add(kind, cents);
+            // The balance update for this debit bumps the row once (V8 trigger)
+            counter.version = version + 1;
+        }
+        return new Reservation(accountId, day, kind, cents);
+    }
+
+    // 2) Undo a reservation whose DB transaction did not commit. The row is
+    //    back at an older version, so the counter is dropped and re-seeded.
+    public void release(Reservation r) {
+        if (r == null) return;
+        IntObjectMap<DayCounter> stripe = stripe(r.accountId);
+        synchronized (stripe) {
+            stripe.remove(r.accountId);
+        }
+    }
+
+    // Remaining allowance today for the UI, or null when the account has no limit
+    // (as of this process's last debit of the account)
+    public BigDecimal remaining(Account account, Kind kind) {
+        long limit = limitCents(account.getAccountType(), kind);
+        if (limit < 0) return null;
+
+        long used = 0;
+        IntObjectMap<DayCounter> stripe = stripe(account.getAccountId());
+        synchronized (stripe) {
+            DayCounter counter = stripe.get(account.getAccountId());
+            if (counter != null && counter.day.equals(today.get())) {
+                used = counter.used(kind);
+            }
+        }
+        return BigDecimal.valueOf(Math.max(0, limit - used), 2);
+    }
+
+    private DayCounter seed(Connection conn, int accountId, LocalDate day, long version) throws SQLException {
+        Map<String, BigDecimal> totals = rollupDAO.getTotalsByType(conn, accountId, day);
+
+        DayCounter counter = new DayCounter(day, version);
+        for (Kind kind : Kind.values()) {
+            BigDecimal total = totals.get(kind.transactionType);
+            if (total != null) {
+                counter.add(kind, toCents(total));
+            }
+        }
+        return counter;
+    }
+}
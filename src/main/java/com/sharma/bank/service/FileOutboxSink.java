@@ -0,0 +1,49 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.model.OutboxEvent;
+import com.sharma.bank.util.Json;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Appends events as JSON lines to a local file, fsync'd per batch.
+// Local stand-in for a broker; also handy as an audit trail.
+public class FileOutboxSink implements OutboxSink, AutoCloseable {
+
+    private final FileChannel channel;
+
+    public FileOutboxSink(Path file) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) throws IOException {
+        StringBuilder sb = new StringBuilder(events.size() * 200);
+        for (OutboxEvent e : events) {
+            sb.append(Json.object()
+                    .put("eventId", e.getEventId())
+                    .put("accountId", e.getAccountId())
+                    .put("eventType", e.getEventType())
+                    .put("createdAt", e.getCreatedAt() == null ? null : e.getCreatedAt().toString())
+                    .put("payload", Json.raw(e.getPayload())))
+              .append('\n');
+        }
+
+        ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,430 @@
+package com.sharma.bank.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Velocity rules checked before a withdrawal or outgoing transfer commits.
+//
+// Every active account keeps count + amount per time bucket in fixed ring
+// buffers (1m = 12 x 5s, 1h = 12 x 5min, 24h = 24 x 1h), so memory per account
+// is constant and a window sum is at most 24 array reads. Accounts idle for
+// 24h are evicted. evaluate() only reads; record() is called after commit.
+//
+// Rules are one per line:
+//
+//     <deny|flag> <WITHDRAWAL|TRANSFER_OUT|ANY> <count|amount> <1m|1h|24h> <>|>=> <number>
+//
+//     deny ANY        count  1m  > 5        # more than 5 debits in a minute
+//     flag WITHDRAWAL amount 24h > 5000     # log, but let it through
+//
+// A rule matches when the window total INCLUDING the transaction being checked
+// crosses the threshold. '#' starts a comment.
+public class FraudRulesEngine {
+
+    public enum Action { FLAG, DENY }
+
+    public enum Outcome { ALLOW, FLAG, DENY }
+
+    // Types with their own counters; ANY in a rule means the sum of both
+    private static final String[] TYPES = { "WITHDRAWAL", "TRANSFER_OUT" };
+
+    private static final long SECOND = 1_000;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long IDLE_EVICT_MILLIS = 24 * HOUR;
+
+    // ===========================
+    // WINDOWS
+    // ===========================
+    enum Window {
+        ONE_MINUTE("1m", 5 * SECOND, 12, 0),
+        ONE_HOUR("1h", 5 * MINUTE, 12, 12),
+        ONE_DAY("24h", HOUR, 24, 24);
+
+        static final int TOTAL_BUCKETS = 48;
+
+        final String label;
+        final long bucketMillis;
+        final int buckets;
+        final int offset;       // first slot of this window in the shared arrays
+
+        Window(String label, long bucketMillis, int buckets, int offset) {
+            this.label = label;
+            this.bucketMillis = bucketMillis;
+            this.buckets = buckets;
+            this.offset = offset;
+        }
+
+        static Window parse(String s) {
+            for (Window w : values()) {
+                if (w.label.equalsIgnoreCase(s)) return w;
+            }
+            return null;
+        }
+    }
+
+    // Ring buffers for one (account, type): slot = offset + epoch % buckets
+    private static final class Counters {
+        final long[] epochs = new long[Window.TOTAL_BUCKETS];
+        final int[] counts = new int[Window.TOTAL_BUCKETS];
+        final long[] cents = new long[Window.TOTAL_BUCKETS];
+
+        Counters() {
+            Arrays.fill(epochs, -1);
+        }
+
+        void add(long now, long amountCents) {
+            for (Window w : Window.values()) {
+                long epoch = now / w.bucketMillis;
+                int slot = w.offset + (int) (epoch % w.buckets);
+                if (epochs[slot] != epoch) {
+                    epochs[slot] = epoch;
+                    counts[slot] = 0;
+                    cents[slot] = 0;
+                }
+                counts[slot]++;
+                cents[slot] += amountCents;
+            }
+        }
+
+        long sum(Window w, long now, boolean amount) {
+            long current = now / w.bucketMillis;
+            long total = 0;
+            for (int i = w.offset; i < w.offset + w.buckets; i++) {
+                long e = epochs[i];
+                if (e > current - w.buckets && e <= current) {
+                    total += amount ? cents[i] : counts[i];
+                }
+            }
+            return total;
+        }
+    }
+
+    private static final class AccountState {
+        final Counters[] byType = { new Counters(), new Counters() };
+        volatile long lastSeen;
+    }
+
+    // ===========================
+    // RULES
+    // ===========================
+    public static final class Rule {
+        final Action action;
+        final int typeIndex;        // -1 = ANY
+        final boolean amount;       // false = count
+        final Window window;
+        final boolean inclusive;    // >= instead of >
+        final long threshold;       // count, or amount in cents
+        final String text;
+
+        Rule(Action action, int typeIndex, boolean amount, Window window,
+             boolean inclusive, long threshold, String text) {
+            this.action = action;
+            this.typeIndex = typeIndex;
+            this.amount = amount;
+            this.window = window;
+            this.inclusive = inclusive;
+            this.threshold = threshold;
+            this.text = text;
+        }
+
+        public Action getAction() { return action; }
+        public String getText() { return text; }
+
+        boolean matches(long value) {
+            return inclusive ? value >= threshold : value > threshold;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    public static List<Rule> parseRules(String source) {
+        List<Rule> rules = new ArrayList<>();
+        String[] lines = source.split("\r?\n");
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+
+            String[] t = line.split("\\s+");
+            if (t.length != 6) {
+                throw new IllegalArgumentException("Rule line " + (i + 1) + ": expected 6 words: " + line);
+            }
+
+            Action action;
+            switch (t[0].toLowerCase(Locale.ROOT)) {
+                case "deny": action = Action.DENY; break;
+                case "flag": action = Action.FLAG; break;
+                default: throw new IllegalArgumentException("Rule line " + (i + 1) + ": unknown action " + t[0]);
+            }
+
+            int typeIndex = indexOfType(t[1].toUpperCase(Locale.ROOT));
+            if (typeIndex == -2) {
+                throw new IllegalArgumentException("Rule line " + (i + 1) + ": unknown type " + t[1]);
+            }
+
+            boolean amount;
+            switch (t[2].toLowerCase(Locale.ROOT)) {
+                case "count": amount = false; break;
+                case "amount": amount = true; break;
+                default: throw new IllegalArgumentException("Rule line " + (i + 1) + ": unknown metric " + t[2]);
+            }
+
+            Window window = Window.parse(t[3]);
+            if (window == null) {
+                throw new IllegalArgumentException("Rule line " + (i + 1) + ": unknown window " + t[3]);
+            }
+
+            boolean inclusive;
+            switch (t[4]) {
+                case ">": inclusive = false; break;
+                case ">=": inclusive = true; break;
+                default: throw new IllegalArgumentException("Rule line " + (i + 1) + ": unknown operator " + t[4]);
+            }
+
+            long threshold;
+            try {
+                threshold = amount ? toCents(new BigDecimal(t[5])) : Long.parseLong(t[5]);
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new IllegalArgumentException("Rule line " + (i + 1) + ": bad number " + t[5]);
+            }
+
+            rules.add(new Rule(action, typeIndex, amount, window, inclusive, threshold, line));
+        }
+        return rules;
+    }
+
+    private static int indexOfType(String type) {
+        if ("ANY".equals(type)) return -1;
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equals(type)) return i;
+        }
+        return -2;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // ===========================
+    // DECISION
+    // ===========================
+    public static final class Decision {
+        static final Decision ALLOW = new Decision(Outcome.ALLOW, Collections.emptyList());
+
+        private final Outcome outcome;
+        private final List<Rule> matched;
+
+        Decision(Outcome outcome, List<Rule> matched) {
+            this.outcome = outcome;
+            this.matched = matched;
+        }
+
+        public Outcome getOutcome() { return outcome; }
+        public List<Rule> getMatched() { return matched; }
+        public boolean isDenied() { return outcome == Outcome.DENY; }
+
+        // Human readable reason for a DENY/FLAG
+        public String reason() {
+            return matched.isEmpty() ? "" : "Blocked by rule: " + matched.get(0).getText();
+        }
+    }
+
+    // Evaluation latency, exported as counters plus a log2 histogram of nanos
+    public static final class Metrics {
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder denied = new LongAdder();
+        private final LongAdder flagged = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(64);
+
+        void record(long nanos, Outcome outcome) {
+            evaluations.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            histogram.incrementAndGet(64 - Long.numberOfLeadingZeros(Math.max(1, nanos)));
+            if (outcome == Outcome.DENY) denied.increment();
+            if (outcome == Outcome.FLAG) flagged.increment();
+        }
+
+        public long getEvaluations() { return evaluations.sum(); }
+        public long getDenied() { return denied.sum(); }
+        public long getFlagged() { return flagged.sum(); }
+        public long getMaxNanos() { return maxNanos.get(); }
+
+        public long getMeanNanos() {
+            long n = getEvaluations();
+            return n == 0 ? 0 : totalNanos.sum() / n;
+        }
+
+        // Upper bound (power of two) of the bucket holding the given percentile
+        public long getPercentileNanos(double percentile) {
+            long n = getEvaluations();
+            if (n == 0) return 0;
+            long target = (long) Math.ceil(n * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < 64; i++) {
+                seen += histogram.get(i);
+                if (seen >= target) return 1L << i;
+            }
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("evaluations=%d denied=%d flagged=%d mean=%dns p99<=%dns max=%dns",
+                    getEvaluations(), getDenied(), getFlagged(), getMeanNanos(),
+                    getPercentileNanos(99), getMaxNanos());
+        }
+    }
+
+    // ===========================
+    // ENGINE
+    // ===========================
+    private static final FraudRulesEngine SHARED = new FraudRulesEngine(loadConfiguredRules(), System::currentTimeMillis);
+
+    public static FraudRulesEngine shared() {
+        return SHARED;
+    }
+
+    private final Map<Integer, AccountState> accounts = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private final Metrics metrics = new Metrics();
+    private volatile List<Rule> rules;
+    private volatile long lastEvictMillis;
+
+    public FraudRulesEngine(List<Rule> rules, LongSupplier clock) {
+        this.rules = List.copyOf(rules);
+        this.clock = clock;
+        this.lastEvictMillis = clock.getAsLong();
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = List.copyOf(rules);
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public int activeAccounts() {
+        return accounts.size();
+    }
+
+    // 1) Pre-commit: would this debit break a rule? Nothing is recorded.
+    public Decision evaluate(int accountId, String transactionType, BigDecimal amount) {
+        long start = System.nanoTime();
+        int typeIndex = indexOfType(transactionType);
+        List<Rule> current = rules;
+        Decision decision = Decision.ALLOW;
+
+        if (typeIndex >= 0 && !current.isEmpty()) {
+            long now = clock.getAsLong();
+            long cents = toCents(amount);
+            AccountState state = accounts.get(accountId);
+            List<Rule> matched = null;
+            boolean deny = false;
+
+            for (Rule rule : current) {
+                if (rule.typeIndex != -1 && rule.typeIndex != typeIndex) continue;
+
+                long value = (rule.amount ? cents : 1) + windowTotal(state, rule, now);
+                if (rule.matches(value)) {
+                    if (matched == null) matched = new ArrayList<>(2);
+                    if (rule.action == Action.DENY) {
+                        matched.add(0, rule);
+                        deny = true;
+                    } else {
+                        matched.add(rule);
+                    }
+                }
+            }
+            if (matched != null) {
+                decision = new Decision(deny ? Outcome.DENY : Outcome.FLAG, matched);
+            }
+        }
+
+        metrics.record(System.nanoTime() - start, decision.getOutcome());
+        return decision;
+    }
+
+    private long windowTotal(AccountState state, Rule rule, long now) {
+        if (state == null) return 0;
+        synchronized (state) {
+            if (rule.typeIndex >= 0) {
+                return state.byType[rule.typeIndex].sum(rule.window, now, rule.amount);
+            }
+            long total = 0;
+            for (Counters c : state.byType) {
+                total += c.sum(rule.window, now, rule.amount);
+            }
+            return total;
+        }
+    }
+
+    // 2) Post-commit: count a debit that actually happened
+    public void record(int accountId, String transactionType, BigDecimal amount) {
+        int typeIndex = indexOfType(transactionType);
+        if (typeIndex < 0) return;
+
+        long now = clock.getAsLong();
+        AccountState state = accounts.computeIfAbsent(accountId, id -> new AccountState());
+        synchronized (state) {
+            state.byType[typeIndex].add(now, toCents(amount));
+            state.lastSeen = now;
+        }
+        evictIdle(now);
+    }
+
+    // Windows are at most 24h, so an account idle that long has nothing left to count
+    private void evictIdle(long now) {
+        if (now - lastEvictMillis < MINUTE) return;
+        lastEvictMillis = now;
+        accounts.values().removeIf(s -> now - s.lastSeen > IDLE_EVICT_MILLIS);
+    }
+
+    // Rules from -Dbank.fraud.rules=<file>, else the bundled fraud-rules.txt
+    private static List<Rule> loadConfiguredRules() {
+        String path = System.getProperty("bank.fraud.rules");
+        try {
+            if (path != null) {
+                return parseRules(Files.readString(Paths.get(path), StandardCharsets.UTF_8));
+            }
+            try (InputStream in = FraudRulesEngine.class.getResourceAsStream("/fraud-rules.txt")) {
+                if (in == null) return Collections.emptyList();
+                return parseRules(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("ERROR LOADING FRAUD RULES (no rules active):");
+            e.printStackTrace();
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.dao.AccountDAO;
+import com.sharma.bank.dao.TransactionDAO;
+import com.sharma.bank.model.Account;
+import com.sharma.bank.model.Transaction;
+import com.sharma.bank.util.SchemaMigrator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Streaming CSV / OFX export of one account's history, for customers and
+// auditors. Rows go straight from the DAO cursor (and the archive files) to a
+// buffered Writer - nothing is collected - so ten years of a busy account
+// export in constant memory.
+//
+// Range is [from, to) (null = unbounded); types filters on transaction_type
+// (null/empty = all). Amounts are signed in both formats: credits (DEPOSIT,
+// TRANSFER_IN) positive, debits negative.
+public class HistoryExporter {
+
+    public enum Format {
+        CSV("csv"), OFX("ofx");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    // Called every PROGRESS_EVERY rows and once at the end. fraction is how much
+    // of the date range has been covered (0..1). Throw to abort the export.
+    public interface Progress {
+        void update(long rows, double fraction);
+    }
+
+    private static final int PROGRESS_EVERY = 1_000;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final TransactionDAO transactionDAO = new TransactionDAO();
+
+    // Export into a file (replaced if it exists); returns the number of rows
+    public long export(Account account, LocalDateTime from, LocalDateTime to, Set<String> types,
+                       Format format, Path file, Progress progress) throws SQLException, IOException {
+        try (Writer out = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_BYTES)) {
+            return export(account, from, to, types, format, out, progress);
+        }
+    }
+
+    public long export(Account account, LocalDateTime from, LocalDateTime to, Set<String> types,
+                       Format format, Writer out, Progress progress) throws SQLException, IOException {
+        LocalDateTime start = from != null ? from : account.getCreatedAt();
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        double spanSeconds = Math.max(1, Duration.between(start == null ? end : start, end).getSeconds());
+
+        RowWriter writer = format == Format.CSV ? new CsvWriter(out) : new OfxWriter(out, account, start, end);
+        writer.begin();
+
+        long[] rows = { 0 };
+        try {
+            transactionDAO.streamTransactions(account.getAccountId(), from, to, types, tx -> {
+                try {
+                    writer.row(tx);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++rows[0] % PROGRESS_EVERY == 0 && progress != null && start != null) {
+                    double covered = Duration.between(start, tx.getCreatedAt()).getSeconds() / spanSeconds;
+                    progress.update(rows[0], Math.min(1, Math.max(0, covered)));
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.end();
+        out.flush();
+        if (progress != null) {
+            progress.update(rows[0], 1);
+        }
+        return rows[0];
+    }
+
+    static BigDecimal signedAmount(Transaction tx) {
+        String type = tx.getTransactionType();
+        boolean debit = "WITHDRAWAL".equals(type) || "TRANSFER_OUT".equals(type);
+        return debit ? tx.getAmount().negate() : tx.getAmount();
+    }
+
+    // ===========================
+    // FORMATS
+    // ===========================
+    interface RowWriter {
+        void begin() throws IOException;
+        void row(Transaction tx) throws IOException;
+        void end() throws IOException;
+    }
+
+    // RFC 4180: fields with commas, quotes or line breaks are quoted
+    static final class CsvWriter implements RowWriter {
+        private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+        private final Writer out;
+
+        CsvWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            out.write("transaction_id,date,type,amount,description\r\n");
+        }
+
+        @Override
+        public void row(Transaction tx) throws IOException {
+            out.write(Integer.toString(tx.getTransactionId()));
+            out.write(',');
+            out.write(TIME.format(tx.getCreatedAt()));
+            out.write(',');
+            out.write(field(tx.getTransactionType()));
+            out.write(',');
+            out.write(signedAmount(tx).toPlainString());
+            out.write(',');
+            out.write(field(tx.getDescription()));
+            out.write("\r\n");
+        }
+
+        @Override
+        public void end() {
+        }
+
+        static String field(String s) {
+            if (s == null) return "";
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+                return s;
+            }
+            return "\"" + s.replace("\"", "\"\"") + "\"";
+        }
+    }
+
+    // OFX 2.x (XML) bank statement that Quicken / GnuCash / accounting tools import.
+    // The ledger balance is the account's balance when the export started.
+    static final class OfxWriter implements RowWriter {
+        private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+        private final Writer out;
+        private final Account account;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        OfxWriter(Writer out, Account account, LocalDateTime start, LocalDateTime end) {
+            this.out = out;
+            this.account = account;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            String now = TIME.format(LocalDateTime.now());
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+            out.write("<?OFX OFXHEADER=\"200\" VERSION=\"220\" SECURITY=\"NONE\" OLDFILEUID=\"NONE\" NEWFILEUID=\"NONE\"?>\n");
+            out.write("<OFX>\n");
+            out.write("<SIGNONMSGSRSV1><SONRS><STATUS><CODE>0</CODE><SEVERITY>INFO</SEVERITY></STATUS>");
+            out.write("<DTSERVER>" + now + "</DTSERVER><LANGUAGE>ENG</LANGUAGE></SONRS></SIGNONMSGSRSV1>\n");
+            out.write("<BANKMSGSRSV1><STMTTRNRS><TRNUID>0</TRNUID>");
+            out.write("<STATUS><CODE>0</CODE><SEVERITY>INFO</SEVERITY></STATUS>\n");
+            out.write("<STMTRS><CURDEF>CAD</CURDEF>\n");
+            out.write("<BANKACCTFROM><BANKID>LUNARONE</BANKID><ACCTID>" + text(account.getAccountNumber()) + "</ACCTID>");
+            out.write("<ACCTTYPE>" + ("SAVINGS".equalsIgnoreCase(account.getAccountType()) ? "SAVINGS" : "CHECKING") + "</ACCTTYPE>");
+            out.write("</BANKACCTFROM>\n");
+            out.write("<BANKTRANLIST><DTSTART>" + (start == null ? now : TIME.format(start)) + "</DTSTART>");
+            out.write("<DTEND>" + TIME.format(end) + "</DTEND>\n");
+        }
+
+        @Override
+        public void row(Transaction tx) throws IOException {
+            BigDecimal amount = signedAmount(tx);
+            out.write("<STMTTRN><TRNTYPE>");
+            out.write(amount.signum() < 0 ? "DEBIT" : "CREDIT");
+            out.write("</TRNTYPE><DTPOSTED>");
+            out.write(TIME.format(tx.getCreatedAt()));
+            out.write("</DTPOSTED><TRNAMT>");
+            out.write(amount.toPlainString());
+            out.write("</TRNAMT><FITID>");
+            out.write(Integer.toString(tx.getTransactionId()));
+            out.write("</FITID><NAME>");
+            out.write(text(tx.getTransactionType()));
+            out.write("</NAME>");
+            if (tx.getDescription() != null && !tx.getDescription().isEmpty()) {
+                out.write("<MEMO>");
+                out.write(text(tx.getDescription()));
+                out.write("</MEMO>");
+            }
+            out.write("</STMTTRN>\n");
+        }
+
+        @Override
+        public void end() throws IOException {
+            BigDecimal balance = account.getBalance() == null ? BigDecimal.ZERO : account.getBalance();
+            out.write("</BANKTRANLIST>\n");
+            out.write("<LEDGERBAL><BALAMT>" + balance.toPlainString() + "</BALAMT>");
+            out.write("<DTASOF>" + TIME.format(LocalDateTime.now()) + "</DTASOF></LEDGERBAL>\n");
+            out.write("</STMTRS></STMTTRNRS></BANKMSGSRSV1>\n");
+            out.write("</OFX>\n");
+        }
+
+        static String text(String s) {
+            StringBuilder sb = new StringBuilder(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '&': sb.append("&amp;"); break;
+                    case '<': sb.append("&lt;"); break;
+                    case '>': sb.append("&gt;"); break;
+                    case '\r':
+                    case '\n': sb.append(' '); break;
+                    default: sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    // Usage: HistoryExporter <accountId> <csv|ofx> <file> [fromDate] [toDate] [TYPE,TYPE...]
+    // Dates are yyyy-MM-dd and inclusive; "-" leaves a bound open.
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: HistoryExporter <accountId> <csv|ofx> <file> [fromDate] [toDate] [TYPE,TYPE...]");
+            System.exit(2);
+        }
+
+        int accountId = Integer.parseInt(args[0]);
+        Format format = Format.valueOf(args[1].toUpperCase());
+        Path file = Paths.get(args[2]);
+        LocalDateTime from = args.length > 3 && !"-".equals(args[3]) ? LocalDate.parse(args[3]).atStartOfDay() : null;
+        LocalDateTime to = args.length > 4 && !"-".equals(args[4]) ? LocalDate.parse(args[4]).plusDays(1).atStartOfDay() : null;
+        Set<String> types = args.length > 5 ? new LinkedHashSet<>(Arrays.asList(args[5].toUpperCase().split(","))) : null;
+
+        long start = System.nanoTime();
+        try {
+            SchemaMigrator.migrateOnce();
+            Account account = new AccountDAO().getAccountById(accountId);
+            if (account == null) {
+                System.out.println("❌ No account " + accountId);
+                System.exit(1);
+            }
+
+            long rows = new HistoryExporter().export(account, from, to, types, format, file,
+                    (n, fraction) -> {
+                        if (n % 100_000 == 0) System.out.printf("... %,d rows (%.0f%%)%n", n, fraction * 100);
+                    });
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("✅ Exported " + rows + " transactions to " + file + " in " + elapsedMillis + " ms");
+        } catch (SQLException | IOException e) {
+            System.out.println("Export failed:");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
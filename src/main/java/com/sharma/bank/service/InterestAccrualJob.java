@@ -0,0 +1,188 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.dao.AccountDAO;
+import com.sharma.bank.dao.InterestDAO;
+import com.sharma.bank.dao.OutboxDAO;
+import com.sharma.bank.dao.RollupDAO;
+import com.sharma.bank.dao.TransactionDAO;
+import com.sharma.bank.model.InterestAccrual;
+import com.sharma.bank.model.Transaction;
+import com.sharma.bank.util.DBConnection;
+import com.sharma.bank.util.IdRange;
+import com.sharma.bank.util.IntSet;
+import com.sharma.bank.util.SchemaMigrator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Nightly interest for ACTIVE SAVINGS accounts with a positive balance.
+//
+// The accounts table is cut into id ranges that run in parallel, one DB
+// transaction per range: lock the eligible rows, compute the day's interest,
+// insert the per-day markers, then credit balances, ledger and rollups as
+// batches for the accounts whose marker was new. Rerunning a day (after a
+// crash, or by mistake) credits nobody twice.
+//
+// Daily interest = balance * annualRate / days-in-year, kept to 12 decimal
+// places. Only whole cents are credited; the remainder is carried forward so
+// nothing is lost to rounding over the year.
+public class InterestAccrualJob {
+
+    public static final int INTEREST_SCALE = 12;
+
+    private final InterestDAO interestDAO = new InterestDAO();
+    private final AccountDAO accountDAO = new AccountDAO();
+    private final TransactionDAO transactionDAO = new TransactionDAO();
+    private final RollupDAO rollupDAO = new RollupDAO();
+    private final OutboxDAO outboxDAO = new OutboxDAO();
+    private final BigDecimal annualRate;
+    private final int parallelism;
+    private final int chunkSize;
+
+    public InterestAccrualJob(BigDecimal annualRate, int parallelism, int chunkSize) {
+        if (annualRate == null || annualRate.signum() < 0) {
+            throw new IllegalArgumentException("annualRate must be zero or positive");
+        }
+        if (parallelism <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("parallelism and chunkSize must be positive");
+        }
+        this.annualRate = annualRate;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    // Fills interest, credited and carryOut on an accrual that has balance and carryIn
+    static void accrue(InterestAccrual a, BigDecimal annualRate) {
+        int daysInYear = a.getAccrualDate().lengthOfYear();
+        BigDecimal interest = a.getBalance()
+                .multiply(annualRate)
+                .divide(BigDecimal.valueOf(daysInYear), INTEREST_SCALE, RoundingMode.HALF_EVEN);
+
+        BigDecimal total = interest.add(a.getCarryIn());
+        BigDecimal credited = total.setScale(2, RoundingMode.DOWN);
+
+        a.setInterest(interest);
+        a.setCredited(credited);
+        a.setCarryOut(total.subtract(credited));
+    }
+
+    // Returns the number of accounts credited
+    public long run(LocalDate day) throws SQLException {
+        SchemaMigrator.migrateOnce();
+
+        IdRange all;
+        try (Connection conn = DBConnection.getConnection()) {
+            all = IdRange.bounds(conn, "accounts", "account_id");
+        }
+        if (all == null) {
+            return 0;
+        }
+
+        List<IdRange> chunks = all.split(chunkSize);
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        long start = System.nanoTime();
+        long credited = 0;
+
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (IdRange chunk : chunks) {
+                results.add(pool.submit(() -> accrueChunk(chunk, day)));
+            }
+            for (Future<Integer> f : results) {
+                credited += f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interest accrual interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlEx) {
+                throw sqlEx;
+            }
+            throw new SQLException("Interest accrual failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("✅ Interest for " + day + " credited to " + credited + " accounts over " +
+                chunks.size() + " ranges in " + elapsedMillis + " ms");
+        return credited;
+    }
+
+    private int accrueChunk(IdRange chunk, LocalDate day) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                IntSet credited = new IntSet();
+                accrueChunk(conn, chunk, day, credited);
+                conn.commit();
+                accountDAO.invalidateCommitted(credited.toArray());
+                return credited.size();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Adds the accounts it credits to 'credited'
+    private void accrueChunk(Connection conn, IdRange chunk, LocalDate day, IntSet credited) throws SQLException {
+        List<InterestAccrual> accruals = interestDAO.lockEligible(conn, chunk, day);
+        if (accruals.isEmpty()) return;
+
+        for (InterestAccrual a : accruals) {
+            accrue(a, annualRate);
+        }
+
+        IntSet fresh = interestDAO.insertAccruals(conn, day, annualRate, accruals);
+
+        Map<Integer, BigDecimal> newBalances = new LinkedHashMap<>();
+        List<Transaction> credits = new ArrayList<>();
+        List<BigDecimal> balancesAfter = new ArrayList<>();
+
+        for (InterestAccrual a : accruals) {
+            if (!fresh.contains(a.getAccountId()) || a.getCredited().signum() == 0) continue;
+
+            BigDecimal newBalance = a.getBalance().add(a.getCredited());
+            newBalances.put(a.getAccountId(), newBalance);
+            credited.add(a.getAccountId());
+            credits.add(new Transaction(a.getAccountId(), a.getCredited(), "DEPOSIT", "Interest for " + day));
+            balancesAfter.add(newBalance);
+        }
+
+        accountDAO.updateBalances(conn, newBalances);
+        transactionDAO.createTransactions(conn, credits);
+        rollupDAO.applyTransactions(conn, credits, balancesAfter);
+        outboxDAO.appendTransactions(conn, credits, balancesAfter);
+    }
+
+    // Usage: InterestAccrualJob [yyyy-mm-dd] [parallelism] [chunkSize]
+    // The annual rate comes from -Dbank.interest.savingsRate (default 0.02 = 2%).
+    public static void main(String[] args) {
+        LocalDate day = args.length > 0 ? LocalDate.parse(args[0]) : LocalDate.now();
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int chunkSize = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        BigDecimal rate = new BigDecimal(System.getProperty("bank.interest.savingsRate", "0.02"));
+
+        try {
+            new InterestAccrualJob(rate, parallelism, chunkSize).run(day);
+        } catch (SQLException e) {
+            System.out.println("Interest accrual failed:");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
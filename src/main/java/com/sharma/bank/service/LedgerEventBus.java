@@ -0,0 +1,221 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.dao.BalanceIndex;
+import com.sharma.bank.dao.HistoryPageCache;
+import com.sharma.bank.util.DBConnection;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// "Account X changed" push channel for open UI sessions.
+//
+// Fed from two sides:
+//   - publish(accountId), e.g. as a BankingService commit listener, for
+//     changes made in this process (delivered without a DB round trip);
+//   - startListening(): LISTEN ledger_events on a dedicated connection for
+//     changes made anywhere else (API server, scheduler, interest job...). The
+//     V7 trigger on ledger_outbox sends one NOTIFY per account and commit.
+//
+// Subscribers watch a set of accounts and get the changed ones in batches:
+// everything published within minIntervalMillis of the previous delivery is
+// coalesced into the next one, so a burst of transfers costs one refresh per
+// frame, not one per row. Handlers run on the bus thread; keep them short or
+// hand the work off (the UI re-reads there and applies on the FX thread).
+//
+// After the LISTEN connection drops, notifications may have been missed, so
+// every watched account is reported as changed once it is back.
+public class LedgerEventBus {
+
+    public static final String CHANNEL = "ledger_events";
+
+    private static final long RECONNECT_MILLIS = 5_000;
+
+    private static final LedgerEventBus SHARED = new LedgerEventBus();
+
+    public static LedgerEventBus shared() {
+        return SHARED;
+    }
+
+    // accountId -> subscriptions watching it
+    private final Map<Integer, Set<Subscription>> watchers = new ConcurrentHashMap<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean listening = new AtomicBoolean();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ledger-events");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // One subscriber's watched accounts and its pending (not yet delivered) changes
+    public final class Subscription implements AutoCloseable {
+        private final Consumer<Set<Integer>> onChange;
+        private final long minIntervalMillis;
+        private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile Set<Integer> accounts = Set.of();
+        private volatile long lastDeliveryMillis;
+        private volatile boolean closed;
+
+        private Subscription(Consumer<Set<Integer>> onChange, long minIntervalMillis) {
+            this.onChange = onChange;
+            this.minIntervalMillis = minIntervalMillis;
+        }
+
+        // Replace the watched accounts (e.g. after the user opened or closed one)
+        public synchronized void watch(Collection<Integer> accountIds) {
+            if (closed) return;
+            Set<Integer> next = Set.copyOf(accountIds);
+            for (Integer id : accounts) {
+                if (!next.contains(id)) unwatch(id, this);
+            }
+            for (Integer id : next) {
+                watchers.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(this);
+            }
+            accounts = next;
+        }
+
+        public Set<Integer> getAccounts() {
+            return accounts;
+        }
+
+        void changed(int accountId) {
+            if (closed) return;
+            dirty.add(accountId);
+            if (scheduled.compareAndSet(false, true)) {
+                long wait = lastDeliveryMillis + minIntervalMillis - System.currentTimeMillis();
+                scheduler.schedule(this::deliver, Math.max(0, wait), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void deliver() {
+            lastDeliveryMillis = System.currentTimeMillis();
+            scheduled.set(false);
+
+            Set<Integer> batch = new HashSet<>();
+            for (Integer id : dirty) {
+                if (dirty.remove(id)) batch.add(id);
+            }
+            if (batch.isEmpty() || closed) return;
+
+            try {
+                onChange.accept(batch);
+            } catch (RuntimeException e) {
+                System.out.println("ERROR IN LEDGER EVENT SUBSCRIBER:");
+                e.printStackTrace();
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            for (Integer id : accounts) unwatch(id, this);
+            accounts = Set.of();
+            subscriptions.remove(this);
+        }
+    }
+
+    public Subscription subscribe(Collection<Integer> accountIds, long minIntervalMillis,
+                                  Consumer<Set<Integer>> onChange) {
+        Subscription s = new Subscription(onChange, minIntervalMillis);
+        subscriptions.add(s);
+        s.watch(accountIds);
+        return s;
+    }
+
+    private void unwatch(Integer accountId, Subscription s) {
+        watchers.computeIfPresent(accountId, (k, set) -> {
+            set.remove(s);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    public void publish(int accountId) {
+        Set<Subscription> set = watchers.get(accountId);
+        if (set == null) return;
+        for (Subscription s : set) {
+            s.changed(accountId);
+        }
+    }
+
+    // Report everything watched as changed (after missed notifications)
+    private void publishAll() {
+        for (Subscription s : subscriptions) {
+            for (Integer id : s.getAccounts()) {
+                s.changed(id);
+            }
+        }
+    }
+
+    // ===========================
+    // LISTEN / NOTIFY
+    // ===========================
+    // Starts the listener thread once; later calls do nothing
+    public void startListening() {
+        if (!listening.compareAndSet(false, true)) return;
+
+        Thread t = new Thread(this::listenLoop, "ledger-events-listen");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void listenLoop() {
+        boolean reconnect = false;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection conn = DBConnection.getConnection()) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnect) {
+                    System.out.println("✅ Ledger event listener reconnected");
+                    BalanceIndex.shared().invalidateAll();
+                    HistoryPageCache.shared().clear();
+                    publishAll();
+                }
+
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                while (true) {
+                    PGNotification[] notifications = pg.getNotifications(10_000);
+                    if (notifications == null) continue;
+
+                    for (PGNotification n : notifications) {
+                        try {
+                            int accountId = Integer.parseInt(n.getParameter());
+                            // Committed elsewhere: read it from the primary, not from the caches
+                            DBConnection.recordAccountWrite(accountId);
+                            BalanceIndex.shared().invalidate(accountId);
+                            HistoryPageCache.shared().invalidate(accountId);
+                            publish(accountId);
+                        } catch (NumberFormatException e) {
+                            System.out.println("⚠️ Ignoring ledger event with payload: " + n.getParameter());
+                        }
+                    }
+                }
+
+            } catch (SQLException e) {
+                System.out.println("⚠️ Ledger event listener lost its connection, retrying: " + e.getMessage());
+                reconnect = true;
+                try {
+                    Thread.sleep(RECONNECT_MILLIS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+}
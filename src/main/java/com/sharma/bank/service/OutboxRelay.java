@@ -0,0 +1,175 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.dao.OutboxDAO;
+import com.sharma.bank.model.OutboxEvent;
+import com.sharma.bank.util.DBConnection;
+import com.sharma.bank.util.SchemaMigrator;
+
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// Tails ledger_outbox in event_id order and publishes to an OutboxSink.
+//
+// Delivery is at-least-once: a batch is published first and the consumer
+// offset saved afterwards, so a crash in between re-sends that batch.
+//
+// event_id comes from a sequence, and ids are handed out at INSERT time but
+// become visible at COMMIT time. A missing id can therefore be a transaction
+// that is still running, however long it takes (lock waits, big interest or
+// onboarding chunks). The relay stops at the first gap and notes the xmax of
+// a snapshot taken after the read that showed it: the writer that drew the
+// missing id was already running then (outbox rows are appended after the
+// transaction's ledger writes, so it holds a transaction id). Only once the
+// oldest running transaction is past that horizon is the gap re-read and, if
+// still missing, skipped - its writer rolled back. No wall-clock timeout.
+public class OutboxRelay implements Runnable {
+
+    private final OutboxDAO outboxDAO = new OutboxDAO();
+    private final String consumer;
+    private final OutboxSink sink;
+    private final int batchSize;
+    private final long pollMillis;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder gapsSkipped = new LongAdder();
+    private volatile boolean running = true;
+
+    private long offset = -1;             // last published event id; -1 = not loaded yet
+    private long gapId = -1;              // first missing id we are waiting for
+    private long gapHorizon = -1;         // its writer started before this xid; -1 = not taken yet
+
+    public OutboxRelay(String consumer, OutboxSink sink) {
+        this(consumer, sink, 500, 200);
+    }
+
+    public OutboxRelay(String consumer, OutboxSink sink, int batchSize, long pollMillis) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.consumer = consumer;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+    }
+
+    public long getPublished() { return published.sum(); }
+    public long getGapsSkipped() { return gapsSkipped.sum(); }
+    public long getOffset() { return offset; }
+
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                int sent = pollOnce();
+                if (sent < batchSize) {
+                    Thread.sleep(pollMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Sink or DB trouble: nothing was acknowledged, retry the same batch later
+                System.out.println("ERROR IN OUTBOX RELAY (" + consumer + "):");
+                e.printStackTrace();
+                try {
+                    Thread.sleep(Math.max(pollMillis, 1_000));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // One read-publish-acknowledge round; returns how many events were published
+    int pollOnce() throws Exception {
+        try (Connection conn = DBConnection.getConnection()) {
+            if (offset < 0) {
+                offset = outboxDAO.getOffset(conn, consumer);
+            }
+
+            // Oldest running xid before the read: a pending gap whose horizon is
+            // behind it can no longer be filled by anything this read misses
+            long xmin = gapHorizon >= 0 ? outboxDAO.snapshotXmin(conn) : -1;
+
+            List<OutboxEvent> events = outboxDAO.readAfter(conn, offset, batchSize);
+            int ready = contiguousPrefix(events, xmin);
+            if (gapId >= 0 && gapHorizon < 0) {
+                gapHorizon = outboxDAO.snapshotXmax(conn);
+            }
+            if (ready == 0) {
+                return 0;
+            }
+
+            List<OutboxEvent> batch = events.subList(0, ready);
+            sink.publish(batch);
+
+            long last = batch.get(ready - 1).getEventId();
+            outboxDAO.saveOffset(conn, consumer, last);
+            offset = last;
+            published.add(ready);
+            return ready;
+        }
+    }
+
+    // How many leading events can be published without jumping over an id
+    // that may still commit. xmin is the oldest running xid as of before the
+    // read; a gap is skipped only once its horizon is behind it.
+    int contiguousPrefix(List<OutboxEvent> events, long xmin) {
+        long expected = offset + 1;
+        int ready = 0;
+
+        for (OutboxEvent e : events) {
+            long id = e.getEventId();
+            if (id != expected) {
+                if (gapId != expected) {
+                    gapId = expected;
+                    gapHorizon = -1;
+                    return ready;
+                }
+                if (gapHorizon < 0 || xmin < gapHorizon) {
+                    return ready;   // its writer may still be running
+                }
+                gapsSkipped.add(id - expected);
+            }
+            expected = id + 1;
+            ready++;
+        }
+        gapId = -1;
+        gapHorizon = -1;
+        return ready;
+    }
+
+    // Package-private so tests can drive the gap logic without a DB
+    void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    void setGapHorizon(long xid) {
+        this.gapHorizon = xid;
+    }
+
+    // Usage: OutboxRelay <consumer> <output.jsonl>
+    // Streams the ledger to a JSON-lines file until killed.
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: OutboxRelay <consumer> <output.jsonl>");
+            System.exit(1);
+        }
+
+        SchemaMigrator.migrateOnce();
+
+        try (FileOutboxSink sink = new FileOutboxSink(Paths.get(args[1]))) {
+            OutboxRelay relay = new OutboxRelay(args[0], sink);
+            Runtime.getRuntime().addShutdownHook(new Thread(relay::stop));
+            System.out.println("✅ Relaying ledger events for consumer '" + args[0] + "' to " + args[1]);
+            relay.run();
+        }
+    }
+}
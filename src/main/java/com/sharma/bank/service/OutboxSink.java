@@ -0,0 +1,13 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.model.OutboxEvent;
+
+import java.util.List;
+
+// Where OutboxRelay publishes ledger events (message broker, webhook, file ...).
+// publish() must only return once the batch is durably accepted; if it throws,
+// the same events are offered again (at-least-once), so consumers dedupe by event id.
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,32 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.model.OutboxEvent;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// In-process stand-in for a broker: events land in a queue (tests, embedded consumers)
+public class QueueOutboxSink implements OutboxSink {
+
+    private final BlockingQueue<OutboxEvent> queue;
+
+    public QueueOutboxSink() {
+        this(new LinkedBlockingQueue<>());
+    }
+
+    public QueueOutboxSink(BlockingQueue<OutboxEvent> queue) {
+        this.queue = queue;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) throws InterruptedException {
+        for (OutboxEvent e : events) {
+            queue.put(e);
+        }
+    }
+
+    public BlockingQueue<OutboxEvent> getQueue() {
+        return queue;
+    }
+}
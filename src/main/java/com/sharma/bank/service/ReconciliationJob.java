@@ -0,0 +1,259 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.util.DBConnection;
+import com.sharma.bank.util.IdRange;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Nightly check that accounts.balance equals the net of its ledger rows:
+//   DEPOSIT + TRANSFER_IN - WITHDRAWAL - TRANSFER_OUT
+// The account id space is split across a fork-join pool; each leaf pushes a
+// per-range GROUP BY down to PostgreSQL so only one row per account comes back.
+public class ReconciliationJob {
+
+    private static final String RANGE_SQL =
+            "SELECT a.account_id, a.account_number, a.balance, " +
+            "       COALESCE(t.ledger_total, 0) AS ledger_total, " +
+            "       COALESCE(t.tx_count, 0) AS tx_count " +
+            "FROM accounts a " +
+            "LEFT JOIN ( " +
+            "    SELECT account_id, " +
+            "           SUM(CASE WHEN transaction_type IN ('DEPOSIT', 'TRANSFER_IN') THEN amount " +
+            "                    WHEN transaction_type IN ('WITHDRAWAL', 'TRANSFER_OUT') THEN -amount " +
+            "                    ELSE 0 END) AS ledger_total, " +
+            "           COUNT(*) AS tx_count " +
+            "    FROM transactions " +
+            "    WHERE account_id BETWEEN ? AND ? " +
+            "    GROUP BY account_id " +
+            ") t ON t.account_id = a.account_id " +
+            "WHERE a.account_id BETWEEN ? AND ?";
+
+    private final int parallelism;
+    private final int chunkSize;
+
+    public ReconciliationJob() {
+        this(Runtime.getRuntime().availableProcessors(), 20_000);
+    }
+
+    // parallelism = concurrent DB queries, chunkSize = account ids per query
+    public ReconciliationJob(int parallelism, int chunkSize) {
+        if (parallelism <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("parallelism and chunkSize must be positive");
+        }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    // ===========================
+    // RUN OVER ALL ACCOUNTS
+    // ===========================
+    public ReconciliationReport run() throws SQLException {
+        IdRange all;
+        try (Connection conn = DBConnection.getConnection()) {
+            all = IdRange.bounds(conn, "accounts", "account_id");
+        }
+        if (all == null) {
+            return new ReconciliationReport(0, 0, new ArrayList<>(), 0);
+        }
+        return run(all);
+    }
+
+    public ReconciliationReport run(IdRange range) throws SQLException {
+        long start = System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Partial result = pool.invoke(new RangeTask(range));
+            if (result.error != null) {
+                throw result.error;
+            }
+
+            result.mismatches.sort(Comparator.comparingInt(Mismatch::getAccountId));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            return new ReconciliationReport(result.accounts, result.transactions,
+                    result.mismatches, elapsedMillis);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private class RangeTask extends RecursiveTask<Partial> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IdRange range;
+
+        RangeTask(IdRange range) {
+            this.range = range;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (range.size() <= chunkSize) {
+                return reconcileRange(range);
+            }
+
+            IdRange[] halves = range.halves();
+            RangeTask left = new RangeTask(halves[0]);
+            RangeTask right = new RangeTask(halves[1]);
+            left.fork();
+            Partial rightResult = right.compute();
+            return left.join().merge(rightResult);
+        }
+    }
+
+    private Partial reconcileRange(IdRange range) {
+        Partial partial = new Partial();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(RANGE_SQL)) {
+
+            stmt.setInt(1, range.getFromId());
+            stmt.setInt(2, range.getToId());
+            stmt.setInt(3, range.getFromId());
+            stmt.setInt(4, range.getToId());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    BigDecimal balance = rs.getBigDecimal("balance");
+                    BigDecimal ledgerTotal = rs.getBigDecimal("ledger_total");
+
+                    partial.accounts++;
+                    partial.transactions += rs.getLong("tx_count");
+
+                    if (balance.compareTo(ledgerTotal) != 0) {
+                        partial.mismatches.add(new Mismatch(
+                                rs.getInt("account_id"),
+                                rs.getString("account_number"),
+                                balance,
+                                ledgerTotal
+                        ));
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            System.out.println("ERROR RECONCILING RANGE " + range + ":");
+            e.printStackTrace();
+            partial.error = e;
+        }
+
+        return partial;
+    }
+
+    // Running totals for one subtree of the fork-join split
+    private static class Partial {
+        long accounts;
+        long transactions;
+        List<Mismatch> mismatches = new ArrayList<>();
+        SQLException error;
+
+        Partial merge(Partial other) {
+            accounts += other.accounts;
+            transactions += other.transactions;
+            mismatches.addAll(other.mismatches);
+            if (error == null) {
+                error = other.error;
+            }
+            return this;
+        }
+    }
+
+    public static class Mismatch {
+        private final int accountId;
+        private final String accountNumber;
+        private final BigDecimal balance;
+        private final BigDecimal ledgerTotal;
+
+        public Mismatch(int accountId, String accountNumber, BigDecimal balance, BigDecimal ledgerTotal) {
+            this.accountId = accountId;
+            this.accountNumber = accountNumber;
+            this.balance = balance;
+            this.ledgerTotal = ledgerTotal;
+        }
+
+        public int getAccountId() { return accountId; }
+        public String getAccountNumber() { return accountNumber; }
+        public BigDecimal getBalance() { return balance; }
+        public BigDecimal getLedgerTotal() { return ledgerTotal; }
+
+        // Positive = balance is higher than the ledger explains
+        public BigDecimal getDifference() { return balance.subtract(ledgerTotal); }
+    }
+
+    public static class ReconciliationReport {
+        private final long accountsChecked;
+        private final long transactionsScanned;
+        private final List<Mismatch> mismatches;
+        private final long elapsedMillis;
+
+        public ReconciliationReport(long accountsChecked, long transactionsScanned,
+                                    List<Mismatch> mismatches, long elapsedMillis) {
+            this.accountsChecked = accountsChecked;
+            this.transactionsScanned = transactionsScanned;
+            this.mismatches = mismatches;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getAccountsChecked() { return accountsChecked; }
+        public long getTransactionsScanned() { return transactionsScanned; }
+        public List<Mismatch> getMismatches() { return mismatches; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        public boolean isClean() {
+            return mismatches.isEmpty();
+        }
+
+        public double rowsPerSecond() {
+            if (elapsedMillis == 0) return transactionsScanned;
+            return transactionsScanned * 1000.0 / elapsedMillis;
+        }
+
+        public void print() {
+            System.out.println("Reconciliation finished in " + elapsedMillis + " ms");
+            System.out.println("   Accounts checked:     " + accountsChecked);
+            System.out.println("   Transactions scanned: " + transactionsScanned);
+            System.out.printf("   Throughput:           %.0f rows/s%n", rowsPerSecond());
+
+            if (isClean()) {
+                System.out.println("✅ All balances match the ledger.");
+                return;
+            }
+
+            System.out.println("❌ " + mismatches.size() + " account(s) do not match the ledger:");
+            for (Mismatch m : mismatches) {
+                System.out.println("   " + m.getAccountNumber() + " (id " + m.getAccountId() + ")" +
+                        " balance=" + m.getBalance() +
+                        " ledger=" + m.getLedgerTotal() +
+                        " diff=" + m.getDifference());
+            }
+        }
+    }
+
+    // Usage: ReconciliationJob [parallelism] [chunkSize]
+    public static void main(String[] args) {
+        int parallelism = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int chunkSize = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        try {
+            ReconciliationReport report = new ReconciliationJob(parallelism, chunkSize).run();
+            report.print();
+            if (!report.isClean()) {
+                System.exit(2);
+            }
+        } catch (SQLException e) {
+            System.out.println("Reconciliation failed:");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.dao.RollupDAO;
+import com.sharma.bank.util.DBConnection;
+import com.sharma.bank.util.IdRange;
+import com.sharma.bank.util.SchemaMigrator;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Rebuilds daily_account_rollups from the transactions table.
+// Run it once when rollups are introduced, or to repair a range.
+// BankingService keeps the table current afterwards; ranges are rebuilt from
+// a single snapshot, so run it outside business hours to avoid overwriting
+// writes that commit while a range is being rebuilt.
+public class RollupBackfillJob {
+
+    private final RollupDAO rollupDAO = new RollupDAO();
+    private final int parallelism;
+    private final int chunkSize;
+
+    public RollupBackfillJob(int parallelism, int chunkSize) {
+        if (parallelism <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("parallelism and chunkSize must be positive");
+        }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    // Returns the number of rollup rows written
+    public long run() throws SQLException {
+        SchemaMigrator.migrateOnce();
+
+        IdRange all;
+        try (Connection conn = DBConnection.getConnection()) {
+            all = IdRange.bounds(conn, "accounts", "account_id");
+        }
+        if (all == null) {
+            return 0;
+        }
+
+        List<IdRange> chunks = all.split(chunkSize);
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        long start = System.nanoTime();
+        long written = 0;
+
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (IdRange chunk : chunks) {
+                results.add(pool.submit(() -> backfillChunk(chunk)));
+            }
+            for (Future<Integer> f : results) {
+                written += f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Rollup backfill interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlEx) {
+                throw sqlEx;
+            }
+            throw new SQLException("Rollup backfill failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("✅ Rollup backfill wrote " + written + " rows over " +
+                chunks.size() + " ranges in " + elapsedMillis + " ms");
+        return written;
+    }
+
+    private int backfillChunk(IdRange chunk) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            return rollupDAO.backfill(conn, chunk);
+        }
+    }
+
+    // Usage: RollupBackfillJob [parallelism] [chunkSize]
+    public static void main(String[] args) {
+        int parallelism = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int chunkSize = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+        try {
+            new RollupBackfillJob(parallelism, chunkSize).run();
+        } catch (SQLException e) {
+            System.out.println("Rollup backfill failed:");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.sharma.bank.service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Authenticated sessions: an opaque random token mapped to a user id.
+// A session ends after bank.session.idleMinutes without use (default 15)
+// or bank.session.maxHours after login (default 8), whichever comes first.
+public class SessionManager {
+
+    public static class Session {
+        private final String token;
+        private final int userId;
+        private final long createdAtMillis;
+        private volatile long lastSeenMillis;
+
+        Session(String token, int userId, long now) {
+            this.token = token;
+            this.userId = userId;
+            this.createdAtMillis = now;
+            this.lastSeenMillis = now;
+        }
+
+        public String getToken() { return token; }
+        public int getUserId() { return userId; }
+        public long getCreatedAtMillis() { return createdAtMillis; }
+        public long getLastSeenMillis() { return lastSeenMillis; }
+    }
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final long idleTimeoutMillis;
+    private final long absoluteTimeoutMillis;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private volatile long lastPurgeMillis = System.currentTimeMillis();
+
+    public SessionManager() {
+        this(Duration.ofMinutes(Long.getLong("bank.session.idleMinutes", 15)),
+             Duration.ofHours(Long.getLong("bank.session.maxHours", 8)));
+    }
+
+    public SessionManager(Duration idleTimeout, Duration absoluteTimeout) {
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.absoluteTimeoutMillis = absoluteTimeout.toMillis();
+    }
+
+    // 1) Start a session for a user who just proved their password
+    public Session create(int userId) {
+        long now = System.currentTimeMillis();
+        purgeExpired(now);
+
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Session session = new Session(token, userId, now);
+        sessions.put(token, session);
+        return session;
+    }
+
+    // 2) Look up a token; returns null if unknown or expired. Valid use extends the idle timer.
+    public Session validate(String token) {
+        if (token == null) return null;
+        Session session = sessions.get(token);
+        if (session == null) return null;
+
+        long now = System.currentTimeMillis();
+        if (isExpired(session, now)) {
+            sessions.remove(token);
+            return null;
+        }
+        session.lastSeenMillis = now;
+        return session;
+    }
+
+    // 3) Logout
+    public void invalidate(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    public int activeCount() {
+        return sessions.size();
+    }
+
+    private boolean isExpired(Session s, long now) {
+        return now - s.lastSeenMillis > idleTimeoutMillis
+                || now - s.createdAtMillis > absoluteTimeoutMillis;
+    }
+
+    // Full sweep at most once a minute; validate() already drops stale tokens it sees
+    private void purgeExpired(long now) {
+        if (now - lastPurgeMillis < 60_000) return;
+        lastPurgeMillis = now;
+        sessions.values().removeIf(s -> isExpired(s, now));
+    }
+}
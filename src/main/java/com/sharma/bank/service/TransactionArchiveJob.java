@@ -0,0 +1,151 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.dao.PartitionDAO;
+import com.sharma.bank.dao.TransactionArchive;
+import com.sharma.bank.util.ColumnarArchive;
+import com.sharma.bank.util.DBConnection;
+import com.sharma.bank.util.SchemaMigrator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Monthly partition housekeeping for the transactions table, meant to run
+// daily (cron) next to the interest job:
+//
+// 1. Make sure partitions exist for the next bank.db.partitionMonthsAhead months.
+// 2. Every partition that ends before the retention cutoff (default: keep the
+//    current month plus 12 full months online) is exported to a columnar
+//    archive file (ColumnarArchive) in bank.archive.dir, verified by row
+//    count, recorded in transaction_archives and dropped - all in one DB transaction, so a crash
+//    at any point leaves the rows either online or archived, never lost.
+//
+// History older than the cutoff stays readable through TransactionArchive.
+public class TransactionArchiveJob {
+
+    private final PartitionDAO partitionDAO = new PartitionDAO();
+    private final TransactionArchive archive;
+    private final int retainMonths;
+    private final int monthsAhead;
+
+    public TransactionArchiveJob(TransactionArchive archive, int retainMonths, int monthsAhead) {
+        if (retainMonths < 1 || monthsAhead < 0) {
+            throw new IllegalArgumentException("retainMonths must be >= 1 and monthsAhead >= 0");
+        }
+        this.archive = archive;
+        this.retainMonths = retainMonths;
+        this.monthsAhead = monthsAhead;
+    }
+
+    // Partitions wholly before this instant are archived
+    static LocalDateTime cutoff(LocalDate today, int retainMonths) {
+        return today.withDayOfMonth(1).minusMonths(retainMonths).atStartOfDay();
+    }
+
+    // Returns the number of partitions archived
+    public int run(LocalDate today) throws SQLException, IOException {
+        SchemaMigrator.migrateOnce();
+        Files.createDirectories(archive.getDir());
+
+        List<PartitionDAO.TxPartition> partitions;
+        try (Connection conn = DBConnection.getConnection()) {
+            int created = partitionDAO.ensureFuturePartitions(conn, monthsAhead);
+            if (created > 0) {
+                System.out.println("✅ Created " + created + " future transactions partition(s)");
+            }
+            partitions = partitionDAO.listPartitions(conn);
+        }
+
+        LocalDateTime cutoff = cutoff(today, retainMonths);
+        int archived = 0;
+
+        for (PartitionDAO.TxPartition p : partitions) {
+            if (p.getTo().isAfter(cutoff)) break;       // sorted by end: the rest are hot
+            archive(p);
+            archived++;
+        }
+        if (archived > 0) {
+            archive.refresh();
+        }
+        return archived;
+    }
+
+    private void archive(PartitionDAO.TxPartition p) throws SQLException, IOException {
+        long start = System.nanoTime();
+        String fileName = p.getName() + ".bktx";
+        Path file = archive.getDir().resolve(fileName);
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Cold partitions take no writes; the lock makes sure of it until
+                // the drop commits, so the export is exactly what gets dropped
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LOCK TABLE \"" + p.getName() + "\" IN SHARE MODE");
+                }
+
+                // Export with a server-side cursor (needs autocommit off)
+                long written;
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.setFetchSize(10_000);
+                    String sql = "SELECT transaction_id, account_id, amount, transaction_type, created_at, description " +
+                                 "FROM \"" + p.getName() + "\" " +
+                                 "ORDER BY account_id, created_at, transaction_id";
+                    try (ResultSet rs = stmt.executeQuery(sql)) {
+                        written = TransactionArchive.write(file, rs);
+                    }
+                }
+
+                long count = partitionDAO.countRows(conn, p);
+                if (count != written) {
+                    throw new SQLException("Partition " + p.getName() + " export mismatch (" +
+                            written + " exported, " + count + " now)");
+                }
+
+                // The rows are only dropped once the file reads back whole
+                long readable = ColumnarArchive.open(file).getRowCount();
+                if (readable != written) {
+                    throw new IOException("Archive " + file + " reads back " + readable +
+                            " rows, " + written + " written");
+                }
+
+                partitionDAO.retire(conn, p, fileName, written);
+                conn.commit();
+
+                long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                System.out.println("✅ Archived " + p.getName() + ": " + written + " rows to " + file +
+                        " in " + elapsedMillis + " ms");
+
+            } catch (SQLException | IOException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Usage: TransactionArchiveJob [retainMonths] [monthsAhead]
+    // Files go to -Dbank.archive.dir (default ./archive).
+    public static void main(String[] args) {
+        int retainMonths = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        int monthsAhead = args.length > 1 ? Integer.parseInt(args[1]) : Integer.getInteger("bank.db.partitionMonthsAhead", 3);
+
+        try {
+            int archived = new TransactionArchiveJob(TransactionArchive.shared(), retainMonths, monthsAhead)
+                    .run(LocalDate.now());
+            System.out.println("✅ Partition maintenance done, " + archived + " partition(s) archived.");
+        } catch (SQLException | IOException e) {
+            System.out.println("Partition maintenance failed:");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
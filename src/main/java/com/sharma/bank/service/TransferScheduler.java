@@ -0,0 +1,339 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.dao.AccountDAO;
+import com.sharma.bank.dao.ScheduledTransferDAO;
+import com.sharma.bank.model.ScheduledTransfer;
+import com.sharma.bank.util.DBConnection;
+import com.sharma.bank.util.IntSet;
+import com.sharma.bank.util.SchemaMigrator;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Executes due scheduled/recurring transfers.
+//
+// Each worker repeatedly claims a batch of due rows with FOR UPDATE SKIP LOCKED
+// (so any number of workers, in any number of JVMs, share the backlog without
+// blocking each other), locks every account the batch touches in one ordered
+// query, runs the transfers through BankingService in ONE DB transaction and
+// writes the schedules back as a JDBC batch.
+//
+// A batch that hits a database error is rolled back and this worker then
+// claims one schedule at a time until it has stepped past the bad row.
+public class TransferScheduler {
+
+    private static final int MAX_ATTEMPTS = Integer.getInteger("bank.scheduler.maxAttempts", 3);
+    private static final Duration RETRY_DELAY =
+            Duration.ofMinutes(Long.getLong("bank.scheduler.retryMinutes", 60));
+    private static final long ERROR_BACKOFF_MILLIS = 30_000;
+
+    // Throughput and lag (time between next_run_at and actual execution)
+    public static class Metrics {
+        private final long startNanos = System.nanoTime();
+        private final LongAdder executed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder batches = new LongAdder();
+        private final AtomicLong lastLagMillis = new AtomicLong();
+        private final AtomicLong maxLagMillis = new AtomicLong();
+
+        void recordBatch(int ok, int notOk, long lagMillis) {
+            executed.add(ok);
+            failed.add(notOk);
+            batches.increment();
+            lastLagMillis.set(lagMillis);
+            maxLagMillis.accumulateAndGet(lagMillis, Math::max);
+        }
+
+        public long getExecuted() { return executed.sum(); }
+        public long getFailed() { return failed.sum(); }
+        public long getBatches() { return batches.sum(); }
+        public long getLastLagMillis() { return lastLagMillis.get(); }
+        public long getMaxLagMillis() { return maxLagMillis.get(); }
+
+        public double getTransfersPerSecond() {
+            double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+            return seconds <= 0 ? 0 : (getExecuted() + getFailed()) / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("executed=%d failed=%d batches=%d rate=%.1f/s lag=%dms maxLag=%dms",
+                    getExecuted(), getFailed(), getBatches(), getTransfersPerSecond(),
+                    getLastLagMillis(), getMaxLagMillis());
+        }
+    }
+
+    private final BankingService bankingService;
+    private final ScheduledTransferDAO scheduledTransferDAO = new ScheduledTransferDAO();
+    private final AccountDAO accountDAO = new AccountDAO();
+    private final int workers;
+    private final int batchSize;
+    private final long pollMillis;
+    private final Metrics metrics = new Metrics();
+
+    private volatile boolean running;
+    private ExecutorService pool;
+
+    public TransferScheduler(BankingService bankingService) {
+        this(bankingService,
+             Integer.getInteger("bank.scheduler.workers", 4),
+             Integer.getInteger("bank.scheduler.batchSize", 200),
+             Long.getLong("bank.scheduler.pollMillis", 1_000));
+    }
+
+    public TransferScheduler(BankingService bankingService, int workers, int batchSize, long pollMillis) {
+        if (workers <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("workers and batchSize must be positive");
+        }
+        this.bankingService = bankingService;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    // ===========================
+    // LIFECYCLE
+    // ===========================
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+
+        AtomicInteger n = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "transfer-scheduler-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < workers; i++) {
+            pool.submit(this::workLoop);
+        }
+    }
+
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        pool.shutdownNow();
+        try {
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void workLoop() {
+        int singleSteps = 0;    // > 0 while stepping past a batch that failed
+
+        while (running) {
+            try {
+                int size = singleSteps > 0 ? 1 : batchSize;
+                int claimed = runBatch(size);
+                if (singleSteps > 0) singleSteps--;
+
+                if (claimed < size) {
+                    Thread.sleep(pollMillis);
+                }
+            } catch (BatchFailedException e) {
+                if (e.claimed > 1) {
+                    singleSteps = e.claimed;
+                } else {
+                    sleepQuietly(ERROR_BACKOFF_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static class BatchFailedException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final int claimed;
+
+        BatchFailedException(int claimed, Throwable cause) {
+            super(cause);
+            this.claimed = claimed;
+        }
+    }
+
+    // ===========================
+    // ONE BATCH
+    // ===========================
+    // Returns how many schedules were claimed (0 = nothing due)
+    int runBatch(int limit) throws BatchFailedException {
+        Connection conn = null;
+        List<ScheduledTransfer> batch = new ArrayList<>();
+        List<DailyLimitStore.Reservation> holds = new ArrayList<>();
+
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            LocalDateTime now = LocalDateTime.now();
+            batch = scheduledTransferDAO.claimDue(conn, now, limit);
+            if (batch.isEmpty()) {
+                conn.commit();
+                return 0;
+            }
+
+            // Lock all accounts up front in id order: batches never deadlock on each other
+            Set<Integer> accountIds = new HashSet<>();
+            for (ScheduledTransfer st : batch) {
+                accountIds.add(st.getFromAccountId());
+                accountIds.add(st.getToAccountId());
+            }
+            accountDAO.getAccountsByIdsForUpdate(conn, accountIds);
+
+            IntSet touched = new IntSet();
+            List<ScheduledTransfer> succeeded = new ArrayList<>();
+            long lagMillis = 0;
+
+            for (ScheduledTransfer st : batch) {
+                lagMillis = Math.max(lagMillis, Duration.between(st.getNextRunAt(), now).toMillis());
+                String description = st.getDescription() == null ? "Scheduled transfer" : st.getDescription();
+                String failure = bankingService.applyScheduledTransfer(conn,
+                        st.getFromAccountId(), st.getToAccountId(), st.getAmount(), description, holds);
+
+                if (failure == null) {
+                    markSucceeded(st, now);
+                    touched.add(st.getFromAccountId());
+                    touched.add(st.getToAccountId());
+                    succeeded.add(st);
+                } else {
+                    markFailed(st, now, failure);
+                }
+            }
+
+            scheduledTransferDAO.updateAfterRun(conn, batch);
+            conn.commit();
+            holds.clear();
+            accountDAO.invalidateCommitted(touched.toArray());
+            bankingService.notifyCommitted(touched.toArray());
+            metrics.recordBatch(succeeded.size(), batch.size() - succeeded.size(), lagMillis);
+            return batch.size();
+
+        } catch (SQLException e) {
+            System.out.println("ERROR DURING SCHEDULED TRANSFER BATCH:");
+            e.printStackTrace();
+            rollbackQuietly(conn);
+            bankingService.releaseHolds(holds);
+
+            // A single schedule that keeps failing is recorded so it can't block the queue
+            if (batch.size() == 1) {
+                recordFailure(batch.get(0), e.getMessage());
+            }
+            throw new BatchFailedException(batch.size(), e);
+        } finally {
+            closeQuietly(conn);
+        }
+    }
+
+    private void markSucceeded(ScheduledTransfer st, LocalDateTime now) {
+        st.setLastRunAt(now);
+        st.setAttempts(0);
+        st.setLastError(null);
+
+        if (!st.isRecurring()) {
+            st.setStatus("COMPLETED");
+            return;
+        }
+        advancePast(st, now);
+    }
+
+    private void markFailed(ScheduledTransfer st, LocalDateTime now, String error) {
+        st.setLastRunAt(now);
+        st.setAttempts(st.getAttempts() + 1);
+        st.setLastError(error.length() > 255 ? error.substring(0, 255) : error);
+
+        if (st.getAttempts() < MAX_ATTEMPTS) {
+            st.setNextRunAt(now.plus(RETRY_DELAY));
+        } else if (st.isRecurring()) {
+            // Give up on this occurrence only; the standing order carries on
+            st.setAttempts(0);
+            advancePast(st, now);
+        } else {
+            st.setStatus("FAILED");
+        }
+    }
+
+    // Next occurrence after 'now'; missed ones (scheduler was down) are not paid twice
+    private void advancePast(ScheduledTransfer st, LocalDateTime now) {
+        LocalDateTime next = ScheduledTransfer.advance(st.getRepeatInterval(), st.getNextRunAt());
+        while (!next.isAfter(now)) {
+            next = ScheduledTransfer.advance(st.getRepeatInterval(), next);
+        }
+        st.setNextRunAt(next);
+    }
+
+    private void recordFailure(ScheduledTransfer st, String error) {
+        markFailed(st, LocalDateTime.now(), "Database error: " + error);
+        try (Connection conn = DBConnection.getConnection()) {
+            scheduledTransferDAO.updateAfterRun(conn, List.of(st));
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            if (conn != null) {
+                conn.rollback();
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true);
+                conn.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Usage: TransferScheduler [workers] [batchSize]
+    // Runs until killed, printing metrics every 10 seconds.
+    public static void main(String[] args) throws InterruptedException, SQLException {
+        SchemaMigrator.migrateOnce();
+
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        TransferScheduler scheduler = new TransferScheduler(new BankingService(), workers, batchSize, 1_000);
+        Runtime.getRuntime().addShutdownHook(new Thread(scheduler::stop));
+        scheduler.start();
+
+        System.out.println("✅ Transfer scheduler running with " + workers + " workers, batch size " + batchSize);
+        while (true) {
+            Thread.sleep(10_000);
+            System.out.println("Scheduler: " + scheduler.getMetrics());
+        }
+    }
+}
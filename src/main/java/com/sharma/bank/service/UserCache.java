@@ -0,0 +1,69 @@
+package com.sharma.bank.service;
+
+import com.sharma.bank.model.User;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Small LRU of signed-in users, keyed by user id and by normalized email.
+// Entries never carry a password hash - copies are stripped on the way in.
+// Shared by the whole JVM so the UI, AuthService and the HTTP API see one copy.
+public class UserCache {
+
+    private static final int MAX_ENTRIES = Integer.getInteger("bank.userCache.size", 1024);
+
+    private static final UserCache SHARED = new UserCache(MAX_ENTRIES);
+
+    public static UserCache shared() {
+        return SHARED;
+    }
+
+    private final int maxEntries;
+    private final Map<String, Integer> idsByEmail = new HashMap<>();
+    private final LinkedHashMap<Integer, User> usersById;
+
+    public UserCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.usersById = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, User> eldest) {
+                if (size() > UserCache.this.maxEntries) {
+                    idsByEmail.remove(AuthService.normalizeEmail(eldest.getValue().getEmail()));
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized void put(User user) {
+        if (user == null) return;
+        User copy = new User(user.getUserId(), user.getFullName(), user.getEmail(), null, user.getCreatedAt());
+        User previous = usersById.put(copy.getUserId(), copy);
+        if (previous != null) {
+            idsByEmail.remove(AuthService.normalizeEmail(previous.getEmail()));
+        }
+        idsByEmail.put(AuthService.normalizeEmail(copy.getEmail()), copy.getUserId());
+    }
+
+    public synchronized User get(int userId) {
+        return usersById.get(userId);
+    }
+
+    public synchronized User getByEmail(String email) {
+        Integer id = idsByEmail.get(AuthService.normalizeEmail(email));
+        return id == null ? null : usersById.get(id);
+    }
+
+    public synchronized void evict(int userId) {
+        User removed = usersById.remove(userId);
+        if (removed != null) {
+            idsByEmail.remove(AuthService.normalizeEmail(removed.getEmail()));
+        }
+    }
+
+    public synchronized int size() {
+        return usersById.size();
+    }
+}
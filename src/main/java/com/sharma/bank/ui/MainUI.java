@@ -1,14 +1,28 @@
 package com.sharma.bank.ui;
 import com.sharma.bank.dao.AccountDAO;
+import com.sharma.bank.dao.ScheduledTransferDAO;
 import com.sharma.bank.dao.TransactionDAO;
-import com.sharma.bank.dao.UserDAO;
 import com.sharma.bank.model.Account;
+import com.sharma.bank.model.ScheduledTransfer;
 import com.sharma.bank.model.User;
 import com.sharma.bank.model.Transaction;
+import com.sharma.bank.model.TransactionSearch;
+import com.sharma.bank.service.AnalyticsService;
+import com.sharma.bank.service.AuthService;
 import com.sharma.bank.service.BankingService;
+import com.sharma.bank.service.HistoryExporter;
+import com.sharma.bank.service.LedgerEventBus;
+import com.sharma.bank.service.TransferScheduler;
+import com.sharma.bank.util.DBConnection;
+import com.sharma.bank.util.IntObjectMap;
+import com.sharma.bank.util.IntSet;
+import com.sharma.bank.util.SchemaMigrator;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -22,9 +36,19 @@ import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
 import java.math.BigDecimal;
-import java.util.Comparator;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 public class MainUI extends Application 
@@ -57,16 +81,51 @@ public class MainUI extends Application
     private Label pageTitle;
 
     // DAO
-    private final UserDAO userDAO = new UserDAO();
+    private final AuthService authService = new AuthService();
 
     private final AccountDAO accountDAO = new AccountDAO();
     private final TransactionDAO transactionDAO = new TransactionDAO();
+    private final ScheduledTransferDAO scheduledTransferDAO = new ScheduledTransferDAO();
 
     private List<Account> userAccounts;   // accounts of the logged-in user
+    private IntObjectMap<Account> userAccountsById = new IntObjectMap<>();
+
+    // Per-account transaction history already shown, newest first. Reloads only
+    // fetch rows newer than the newest one held (see historyRows)
+    private final Map<Integer, TxHistory> txHistories = new ConcurrentHashMap<>();
+    // Look back this far behind the newest row held: a row's created_at is when
+    // its DB transaction started, so it can commit after later-stamped rows
+    private static final long DELTA_OVERLAP_SECONDS = 30;
+    // A pushed change that brings nothing newer than the newest row held came
+    // from a transaction that may have started before the overlap: re-read
+    // this many of the newest rows instead (see onLedgerChange)
+    private static final int FIRST_PAGE_ROWS = 50;
+
+    // Rows that fit on the one-page PDF statement
+    private static final int STATEMENT_ROWS = 40;
+
+    // Live updates: changes to the user's accounts (from anywhere) are pushed,
+    // coalesced and applied at most PUSH_FPS times a second
+    private static final int PUSH_FPS = Math.max(1, Integer.getInteger("bank.ui.pushFps", 4));
+    private final LedgerEventBus ledgerEvents = LedgerEventBus.shared();
+    private LedgerEventBus.Subscription ledgerSubscription;
+    // Parts of the current page that pushes update in place
+    private final IntObjectMap<Label> balanceLabels = new IntObjectMap<>();
+    private TableView<Account> accountsTableView;
+    private Runnable dashboardTxRedraw;
     
     private final BankingService bankingService = new BankingService();
+    private final AnalyticsService analyticsService = new AnalyticsService();
+    private final HistoryExporter historyExporter = new HistoryExporter();
+    // Runs due standing orders in-process; set -Dbank.scheduler.embedded=false
+    // when dedicated TransferScheduler processes are deployed instead
+    private final TransferScheduler transferScheduler = new TransferScheduler(bankingService, 1, 200, 5_000);
+
+    // Window picked on the dashboard statistics chart
+    private AnalyticsService.Window statsWindow = AnalyticsService.Window.LAST_7_DAYS;
     // Keep logged-in user (use later to load accounts/transactions)
     private User loggedInUser;
+    private String sessionToken;
 
     // Simple email validation
     private static final Pattern EMAIL_PATTERN =
@@ -77,6 +136,25 @@ public class MainUI extends Application
     {
         this.stage = stage;
 
+        try {
+            SchemaMigrator.migrateOnce();
+        } catch (SQLException e) {
+            System.out.println("❌ Schema migration failed; the app may not work correctly:");
+            e.printStackTrace();
+        }
+
+        // Drop cached statistics as soon as a transaction commits
+        bankingService.addCommitListener(analyticsService::invalidateAccount);
+        // Our own commits are pushed directly; LISTEN covers every other process
+        bankingService.addCommitListener(ledgerEvents::publish);
+        if (Boolean.parseBoolean(System.getProperty("bank.events.listen", "true"))) {
+            ledgerEvents.startListening();
+        }
+
+        if (Boolean.parseBoolean(System.getProperty("bank.scheduler.embedded", "true"))) {
+            transferScheduler.start();
+        }
+
         sceneRoot = new StackPane();
         sceneRoot.getStyleClass().add("appRoot");
 
@@ -101,13 +179,20 @@ public class MainUI extends Application
         stage.show();
     }
 
-    private Account findAccountById(Integer accountId) 
+    private void setUserAccounts(List<Account> accounts)
     {
-        if (accountId == null || userAccounts == null) return null;
-        for (Account a : userAccounts) {
-            if (a.getAccountId() == accountId) return a;
+        userAccounts = accounts;
+        IntObjectMap<Account> byId = new IntObjectMap<>(accounts == null ? 0 : accounts.size());
+        if (accounts != null) {
+            for (Account a : accounts) byId.put(a.getAccountId(), a);
         }
-        return null;
+        userAccountsById = byId;
+    }
+
+    private Account findAccountById(Integer accountId) 
+    {
+        if (accountId == null) return null;
+        return userAccountsById.get(accountId);
     }
 
     private Account pickAccountForCard(String... typeKeywords) 
@@ -196,19 +281,8 @@ public class MainUI extends Application
                 return;
             }
 
-            List<Transaction> txs = transactionDAO.getTransactionsByAccountId(selected.getAccountId());
-            txs.sort(Comparator.comparing(Transaction::getCreatedAt).reversed());
-
-            var rows = FXCollections.<TxRow>observableArrayList();
-            for (int i = 0; i < Math.min(10, txs.size()); i++) {
-                Transaction t = txs.get(i);
-                rows.add(new TxRow(
-                        formatTxTime(t.getCreatedAt()),
-                        safe(t.getTransactionType()),
-                        money(t.getAmount()),
-                        safe(t.getDescription())
-                ));
-            }
+            historyRows(selected.getAccountId());
+            var rows = recentRows(selected.getAccountId());
 
             if (rows.isEmpty()) {
                 rows.add(new TxRow("-", "INFO", "$0.00", "No transactions yet"));
@@ -221,6 +295,14 @@ public class MainUI extends Application
         // load once
         reloadTable.run();
 
+        // pushed changes: redraw from the already-merged history, no query
+        dashboardTxRedraw = () -> {
+            Account selected = accountBox.getValue();
+            if (selected != null && txHistories.containsKey(selected.getAccountId())) {
+                table.setItems(recentRows(selected.getAccountId()));
+            }
+        };
+
         // reload when user changes account
         accountBox.valueProperty().addListener((obs, o, n) -> reloadTable.run());
 
@@ -249,12 +331,12 @@ public class MainUI extends Application
             Optional<TxInput> input = showAmountDialog("Deposit", "Enter deposit amount + description");
             if (input.isEmpty()) return;
 
-            boolean ok = bankingService.deposit(selected.getAccountId(), input.get().amount, input.get().description);
-            if (ok) {
-                refreshDashboardData();
-                reloadTable.run();
+            BankingService.Result result =
+                    bankingService.depositWithResult(selected.getAccountId(), input.get().amount, input.get().description);
+            if (result.isSuccess()) {
+                applyBalances(result.getBalances());
             } else {
-                showSimpleAlert("Deposit failed", "Deposit did not complete.");
+                showSimpleAlert("Deposit failed", "Deposit did not complete.\n" + result.getError());
             }
         });
 
@@ -270,12 +352,12 @@ public class MainUI extends Application
             Optional<TxInput> input = showAmountDialog("Withdraw", "Enter withdrawal amount + description");
             if (input.isEmpty()) return;
 
-            boolean ok = bankingService.withdraw(selected.getAccountId(), input.get().amount, input.get().description);
-            if (ok) {
-                refreshDashboardData();
-                reloadTable.run();
+            BankingService.Result result =
+                    bankingService.withdrawWithResult(selected.getAccountId(), input.get().amount, input.get().description);
+            if (result.isSuccess()) {
+                applyBalances(result.getBalances());
             } else {
-                showSimpleAlert("Withdrawal failed", "Not enough funds or system error.");
+                showSimpleAlert("Withdrawal failed", "Withdrawal did not complete.\n" + result.getError());
             }
         });
 
@@ -288,27 +370,23 @@ public class MainUI extends Application
             Optional<TransferInput> input = showTransferDialog();
             if (input.isEmpty()) return;
 
-            boolean ok = bankingService.transfer(
+            if (input.get().isScheduled()) {
+                scheduleTransfer(input.get());
+                return;
+            }
+
+            // The service refuses CLOSED accounts itself (both must be ACTIVE)
+            BankingService.Result result = bankingService.transferWithResult(
                     input.get().fromAccountId,
                     input.get().toAccountId,
                     input.get().amount,
                     input.get().description
             );
-            Account fromFresh = accountDAO.getAccountById(input.get().fromAccountId);
-            Account toFresh = accountDAO.getAccountById(input.get().toAccountId);
-
-            if ((fromFresh != null && "CLOSED".equalsIgnoreCase(fromFresh.getStatus())) ||
-                (toFresh != null && "CLOSED".equalsIgnoreCase(toFresh.getStatus()))) {
-                showSimpleAlert("Account closed", "One of the selected accounts is CLOSED and cannot be used.");
-                refreshDashboardData();
-                return;
-            }
 
-            if (ok) {
-                refreshDashboardData();
-                reloadTable.run();
+            if (result.isSuccess()) {
+                applyBalances(result.getBalances());
             } else {
-                showSimpleAlert("Transfer failed", "Transfer did not complete.");
+                showSimpleAlert("Transfer failed", "Transfer did not complete.\n" + result.getError());
             }
         });
 
@@ -400,24 +478,31 @@ public class MainUI extends Application
             if (pw.length() < 8) { showError(error, "Password must be at least 8 characters."); return; }
             if (!pw.equals(cpw)) { showError(error, "Passwords do not match."); return; }
 
-            User existing = userDAO.getUserByEmail(em);
-            if (existing != null) {
-                showError(error, "An account with this email already exists. Please log in.");
-                return;
-            }
+            // Password hashing runs on the auth pool, not the FX thread
+            createBtn.setDisable(true);
+            authService.register(new User(fn, em, pw)).thenAccept(status -> Platform.runLater(() -> {
+                createBtn.setDisable(false);
 
-            boolean ok = userDAO.createUser(new User(fn, em, pw));
-            if (!ok) {
-                showError(error, "Signup failed. Please try again.");
-                return;
-            }
+                if (status == AuthService.Status.EMAIL_TAKEN) {
+                    showError(error, "An account with this email already exists. Please log in.");
+                    return;
+                }
+                if (status == AuthService.Status.BUSY) {
+                    showError(error, "Signup is busy right now. Please try again in a moment.");
+                    return;
+                }
+                if (status != AuthService.Status.SUCCESS) {
+                    showError(error, "Signup failed. Please try again.");
+                    return;
+                }
 
-            Alert a = new Alert(Alert.AlertType.INFORMATION);
-            a.setHeaderText("Account created ✅");
-            a.setContentText("Your account has been created. Please log in.");
-            a.showAndWait();
+                Alert a = new Alert(Alert.AlertType.INFORMATION);
+                a.setHeaderText("Account created ✅");
+                a.setContentText("Your account has been created. Please log in.");
+                a.showAndWait();
 
-            showPublicPage(PublicPage.LOGIN);
+                showPublicPage(PublicPage.LOGIN);
+            }));
         });
 
         backToLogin.setOnAction(e -> showPublicPage(PublicPage.LOGIN));
@@ -546,49 +631,20 @@ public class MainUI extends Application
                 return;
             }
 
-            // 2) Check user exists (so we can give clear message)
-            User user;
-            try {
-                user = userDAO.getUserByEmail(email);
-            } catch (Exception ex) {
-                // DAO usually catches SQL internally, but just in case:
-                showError(error, "Login failed due to a system error. Please try again.");
-                return;
-            }
-
-            if (user == null) {
-                showError(error, "No account found for this email. Please sign up first.");
-                return;
-            }
-
-            // 3) Verify password
-            boolean ok;
-            try {
-                ok = userDAO.login(email, pass);
-            } catch (Exception ex) {
-                showError(error, "Login failed due to a system error. Please try again.");
-                return;
-            }
-
-            if (!ok) {
-                showError(error, "Incorrect password. Please try again.");
-                return;
-            }
-
-            // ✅ SUCCESS
-            loggedInUser = user;
-
-            // Load accounts for this user right away
-            userAccounts = accountDAO.getAccountsByUserId(loggedInUser.getUserId());
-            if (userAccounts == null || userAccounts.isEmpty()) 
-            {
-                Alert a = new Alert(Alert.AlertType.INFORMATION);
-                a.setHeaderText("No accounts yet");
-                a.setContentText("Your login worked, but you have no bank accounts created yet.\n\nWe’ll add an account-creation UI next.");
-                a.showAndWait();
-            }
-            showDashboard();
-
+            // 2) Verify password off the FX thread (BCrypt is slow on purpose)
+            loginBtn.setDisable(true);
+            authService.login(email, pass).thenAccept(result -> Platform.runLater(() -> {
+                loginBtn.setDisable(false);
+
+                switch (result.getStatus()) {
+                    case SUCCESS -> onLoginSuccess(result);
+                    // Same message for unknown email and wrong password
+                    case INVALID_CREDENTIALS -> showError(error, "Incorrect email or password. Please try again.");
+                    case RATE_LIMITED -> showError(error, "Too many login attempts. Please wait a minute and try again.");
+                    case BUSY -> showError(error, "Login is busy right now. Please try again in a moment.");
+                    default -> showError(error, "Login failed due to a system error. Please try again.");
+                }
+            }));
         });
 
         // Press Enter in password = login
@@ -615,6 +671,24 @@ public class MainUI extends Application
         return root;
     }
 
+    private void onLoginSuccess(AuthService.LoginResult result) {
+        // ✅ SUCCESS
+        loggedInUser = result.getUser();
+        sessionToken = result.getSession().getToken();
+
+        // Load accounts for this user right away
+        setUserAccounts(accountDAO.getAccountsByUserId(loggedInUser.getUserId()));
+        watchLedger();
+        if (userAccounts == null || userAccounts.isEmpty()) 
+        {
+            Alert a = new Alert(Alert.AlertType.INFORMATION);
+            a.setHeaderText("No accounts yet");
+            a.setContentText("Your login worked, but you have no bank accounts created yet.\n\nWe’ll add an account-creation UI next.");
+            a.showAndWait();
+        }
+        showDashboard();
+    }
+
     private Optional<User> showSignupDialog() {
         Dialog<User> dialog = new Dialog<>();
         dialog.setTitle("Sign up");
@@ -775,7 +849,14 @@ public class MainUI extends Application
         Button logout = new Button("Logout");
         logout.getStyleClass().add("ghostBtn");
         logout.setOnAction(e -> {
+            authService.logout(sessionToken);
+            sessionToken = null;
             loggedInUser = null;
+            txHistories.clear();
+            if (ledgerSubscription != null) {
+                ledgerSubscription.close();
+                ledgerSubscription = null;
+            }
             sceneRoot.getChildren().setAll(buildLoginScreen());
         });
 
@@ -871,6 +952,7 @@ public class MainUI extends Application
 
         // ---------- Accounts table ----------
         TableView<Account> accountsTable = new TableView<>();
+        accountsTableView = accountsTable;
         accountsTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         accountsTable.setFixedCellSize(40);
 
@@ -916,6 +998,10 @@ public class MainUI extends Application
             }
 
             String accNumber = accountDAO.generateAccountNumber();
+            if (accNumber == null) {
+                showSimpleAlert("Failed", "Could not reserve an account number. Check DB.");
+                return;
+            }
             Account acc = new Account(
                     loggedInUser.getUserId(),
                     accNumber,
@@ -1015,20 +1101,9 @@ public class MainUI extends Application
                 return;
             }
 
-            List<Transaction> txs = transactionDAO.getTransactionsByAccountId(selected.getAccountId());
-            txs.sort(Comparator.comparing(Transaction::getCreatedAt).reversed());
-
-            var rows = FXCollections.<TxRow>observableArrayList();
-            for (Transaction t : txs) {
-                rows.add(new TxRow(
-                        formatTxTime(t.getCreatedAt()),
-                        safe(t.getTransactionType()),
-                        money(t.getAmount()),
-                        safe(t.getDescription())
-                ));
-            }
-            if (rows.isEmpty()) rows.add(new TxRow("-", "INFO", "$0.00", "No transactions yet"));
-            txTable.setItems(rows);
+            // The shared history list itself: later deltas show up in place
+            txTable.setPlaceholder(new Label("No transactions yet"));
+            txTable.setItems(historyRows(selected.getAccountId()));
         };
 
         reloadTx.run();
@@ -1070,7 +1145,8 @@ public class MainUI extends Application
             if (loggedInUser == null) return;
 
             // load all from DB
-            userAccounts = accountDAO.getAccountsByUserId(loggedInUser.getUserId());
+            setUserAccounts(accountDAO.getAccountsByUserId(loggedInUser.getUserId()));
+            watchLedger();
 
             // filter ACTIVE only for UI lists
             List<Account> active = activeAccountsOnly(userAccounts);
@@ -1108,11 +1184,8 @@ public class MainUI extends Application
             }
 
             // Refresh the latest balance from DB (safe)
-            userAccounts = accountDAO.getAccountsByUserId(loggedInUser.getUserId());
-            Account fresh = null;
-            for (Account a : userAccounts) {
-                if (a.getAccountId() == selected.getAccountId()) { fresh = a; break; }
-            }
+            setUserAccounts(accountDAO.getAccountsByUserId(loggedInUser.getUserId()));
+            Account fresh = findAccountById(selected.getAccountId());
             if (fresh == null) fresh = selected;
 
             if (fresh.getBalance() != null && fresh.getBalance().compareTo(BigDecimal.ZERO) != 0) {
@@ -1170,9 +1243,29 @@ public class MainUI extends Application
             downloadStatementPdf(selected);
         });
 
+        // ---------- CSV / OFX history export ----------
+        Button exportHistory = new Button("Export History");
+        exportHistory.getStyleClass().add("secondaryBtn");
+
+        ProgressBar exportProgress = new ProgressBar();
+        exportProgress.setPrefWidth(120);
+        exportProgress.setVisible(false);
+        exportProgress.setManaged(false);
+
+        exportHistory.setOnAction(e -> {
+            Account selected = accountSelector.getValue();
+            if (selected == null) {
+                showSimpleAlert("No account", "Select an account first.");
+                return;
+            }
+            exportHistory(selected, exportHistory, exportProgress);
+        });
+
         HBox txTopRow = new HBox(12,
             new Label("Account:"), accountSelector,
             new Region(),
+            exportProgress,
+            exportHistory,
             downloadPdf,
             closeAccountBtn
         );
@@ -1180,7 +1273,9 @@ public class MainUI extends Application
         HBox.setHgrow(txTopRow.getChildren().get(2), Priority.ALWAYS);
         txTopRow.setAlignment(Pos.CENTER_LEFT);
 
-        VBox txCard = new VBox(12, txTitle, txTopRow, txTable, cardMapTitle, cardMapRow);
+        Node txSearchBar = buildTxSearchBar(accountSelector, txTable, reloadTx);
+
+        VBox txCard = new VBox(12, txTitle, txTopRow, txSearchBar, txTable, cardMapTitle, cardMapRow);
         txCard.getStyleClass().add("panel");
         txCard.setPadding(new Insets(16));
         VBox.setVgrow(txCard, Priority.ALWAYS);
@@ -1203,6 +1298,223 @@ public class MainUI extends Application
         return wrapper;
     }
 
+    // Search row above the accounts-page transactions table: words in the
+    // description, amount range, dates and type. Results are ranked, 50 per
+    // page, and replace the table until Clear (or another account) is chosen.
+    private Node buildTxSearchBar(ComboBox<Account> accountSelector, TableView<TxRow> txTable, Runnable reloadTx)
+    {
+        final int pageSize = 50;
+
+        TextField textField = new TextField();
+        textField.setPromptText("Search descriptions");
+        TextField minField = new TextField();
+        minField.setPromptText("Min $");
+        minField.setPrefWidth(80);
+        TextField maxField = new TextField();
+        maxField.setPromptText("Max $");
+        maxField.setPrefWidth(80);
+        DatePicker fromPicker = new DatePicker();
+        fromPicker.setPromptText("From");
+        fromPicker.setPrefWidth(120);
+        DatePicker toPicker = new DatePicker();
+        toPicker.setPromptText("To");
+        toPicker.setPrefWidth(120);
+        ComboBox<String> typeBox = new ComboBox<>(FXCollections.observableArrayList(
+                "All types", "DEPOSIT", "WITHDRAWAL", "TRANSFER_IN", "TRANSFER_OUT"));
+        typeBox.setValue("All types");
+
+        Button searchBtn = new Button("Search");
+        searchBtn.getStyleClass().add("secondaryBtn");
+        Button clearBtn = new Button("Clear");
+        Button prevBtn = new Button("<");
+        Button nextBtn = new Button(">");
+        Label pageLabel = new Label();
+        pageLabel.getStyleClass().add("muted");
+        prevBtn.setDisable(true);
+        nextBtn.setDisable(true);
+
+        int[] page = { 0 };
+        TransactionSearch[] current = { null };
+
+        Runnable runPage = () -> {
+            TransactionSearch search = current[0];
+            int offset = page[0] * pageSize;
+            searchBtn.setDisable(true);
+
+            // One extra row tells us whether there is a next page
+            CompletableFuture.supplyAsync(() -> transactionDAO.searchTransactions(search, offset, pageSize + 1))
+                    .thenAccept(found -> Platform.runLater(() -> {
+                        searchBtn.setDisable(false);
+                        if (current[0] != search) return; // cleared or replaced meanwhile
+
+                        var rows = FXCollections.<TxRow>observableArrayList();
+                        for (Transaction t : found.subList(0, Math.min(pageSize, found.size()))) {
+                            rows.add(txRow(t));
+                        }
+                        if (rows.isEmpty()) rows.add(new TxRow("-", "INFO", "$0.00", "No matching transactions"));
+                        txTable.setItems(rows);
+
+                        prevBtn.setDisable(page[0] == 0);
+                        nextBtn.setDisable(found.size() <= pageSize);
+                        pageLabel.setText("Page " + (page[0] + 1));
+                    }));
+        };
+
+        Runnable clear = () -> {
+            current[0] = null;
+            page[0] = 0;
+            prevBtn.setDisable(true);
+            nextBtn.setDisable(true);
+            pageLabel.setText("");
+        };
+
+        searchBtn.setOnAction(e -> {
+            Account selected = accountSelector.getValue();
+            if (selected == null) {
+                showSimpleAlert("No account", "Select an account first.");
+                return;
+            }
+
+            TransactionSearch search = new TransactionSearch(List.of(selected.getAccountId()), textField.getText());
+            try {
+                if (!minField.getText().isBlank()) search.setMinAmount(new BigDecimal(minField.getText().trim()));
+                if (!maxField.getText().isBlank()) search.setMaxAmount(new BigDecimal(maxField.getText().trim()));
+            } catch (NumberFormatException ex) {
+                showSimpleAlert("Invalid amount", "Amounts must be numbers like 25 or 19.99.");
+                return;
+            }
+            if (fromPicker.getValue() != null) search.setFrom(fromPicker.getValue().atStartOfDay());
+            if (toPicker.getValue() != null) search.setTo(toPicker.getValue().plusDays(1).atStartOfDay());
+            if (!"All types".equals(typeBox.getValue())) search.setTypes(Set.of(typeBox.getValue()));
+
+            current[0] = search;
+            page[0] = 0;
+            runPage.run();
+        });
+        textField.setOnAction(e -> searchBtn.fire());
+
+        prevBtn.setOnAction(e -> {
+            if (current[0] == null || page[0] == 0) return;
+            page[0]--;
+            runPage.run();
+        });
+        nextBtn.setOnAction(e -> {
+            if (current[0] == null) return;
+            page[0]++;
+            runPage.run();
+        });
+
+        clearBtn.setOnAction(e -> {
+            textField.clear();
+            minField.clear();
+            maxField.clear();
+            fromPicker.setValue(null);
+            toPicker.setValue(null);
+            typeBox.setValue("All types");
+            clear.run();
+            reloadTx.run();
+        });
+        accountSelector.valueProperty().addListener((obs, o, n) -> clear.run());
+
+        HBox.setHgrow(textField, Priority.ALWAYS);
+        HBox bar = new HBox(8, textField, minField, maxField, fromPicker, toPicker, typeBox,
+                searchBtn, clearBtn, prevBtn, pageLabel, nextBtn);
+        bar.setAlignment(Pos.CENTER_LEFT);
+        return bar;
+    }
+
+    // Asks for format, dates and types, then streams the export to a file on a
+    // background Task; the button is disabled and the bar shows progress meanwhile
+    private void exportHistory(Account account, Button trigger, ProgressBar progressBar)
+    {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Export History");
+        dialog.setHeaderText("Export transactions of " + account.getAccountNumber());
+
+        ComboBox<HistoryExporter.Format> formatBox =
+                new ComboBox<>(FXCollections.observableArrayList(HistoryExporter.Format.values()));
+        formatBox.setValue(HistoryExporter.Format.CSV);
+        DatePicker fromPicker = new DatePicker();
+        DatePicker toPicker = new DatePicker(LocalDate.now());
+        CheckBox deposits = new CheckBox("Deposits");
+        CheckBox withdrawals = new CheckBox("Withdrawals");
+        CheckBox transfers = new CheckBox("Transfers");
+        deposits.setSelected(true);
+        withdrawals.setSelected(true);
+        transfers.setSelected(true);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.addRow(0, new Label("Format:"), formatBox);
+        grid.addRow(1, new Label("From (empty = all):"), fromPicker);
+        grid.addRow(2, new Label("To:"), toPicker);
+        grid.addRow(3, new Label("Types:"), new HBox(10, deposits, withdrawals, transfers));
+        dialog.getDialogPane().setContent(grid);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        Optional<ButtonType> res = dialog.showAndWait();
+        if (res.isEmpty() || res.get() != ButtonType.OK) return;
+
+        Set<String> types = new HashSet<>();
+        if (deposits.isSelected()) types.add("DEPOSIT");
+        if (withdrawals.isSelected()) types.add("WITHDRAWAL");
+        if (transfers.isSelected()) { types.add("TRANSFER_IN"); types.add("TRANSFER_OUT"); }
+        if (types.isEmpty()) {
+            showSimpleAlert("No types", "Select at least one transaction type.");
+            return;
+        }
+
+        HistoryExporter.Format format = formatBox.getValue();
+        LocalDateTime from = fromPicker.getValue() == null ? null : fromPicker.getValue().atStartOfDay();
+        LocalDateTime to = toPicker.getValue() == null ? null : toPicker.getValue().plusDays(1).atStartOfDay();
+
+        javafx.stage.FileChooser chooser = new javafx.stage.FileChooser();
+        chooser.setTitle("Save Transaction History");
+        chooser.getExtensionFilters().add(new javafx.stage.FileChooser.ExtensionFilter(
+                format + " Files", "*." + format.getExtension()));
+        chooser.setInitialFileName("History_" + account.getAccountNumber() + "." + format.getExtension());
+
+        java.io.File file = chooser.showSaveDialog(stage);
+        if (file == null) return;
+
+        Task<Long> task = new Task<>() {
+            @Override
+            protected Long call() throws Exception {
+                return historyExporter.export(account, from, to, types, format, file.toPath(),
+                        (rows, fraction) -> {
+                            if (isCancelled()) throw new CancellationException();
+                            updateProgress(fraction, 1);
+                        });
+            }
+        };
+
+        progressBar.progressProperty().bind(task.progressProperty());
+        progressBar.setVisible(true);
+        progressBar.setManaged(true);
+        trigger.setDisable(true);
+
+        Runnable done = () -> {
+            progressBar.progressProperty().unbind();
+            progressBar.setVisible(false);
+            progressBar.setManaged(false);
+            trigger.setDisable(false);
+        };
+        task.setOnSucceeded(ev -> {
+            done.run();
+            showSimpleAlert("Saved ✅", task.getValue() + " transactions exported to:\n" + file.getAbsolutePath());
+        });
+        task.setOnFailed(ev -> {
+            done.run();
+            task.getException().printStackTrace();
+            showSimpleAlert("Error", "Could not export transaction history.");
+        });
+
+        Thread worker = new Thread(task, "history-export");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
     private void downloadStatementPdf(Account account) 
     {
         try {
@@ -1215,8 +1527,8 @@ public class MainUI extends Application
             java.io.File file = chooser.showSaveDialog(stage);
             if (file == null) return;
 
-            List<Transaction> txs = transactionDAO.getTransactionsByAccountId(account.getAccountId());
-            txs.sort(Comparator.comparing(Transaction::getCreatedAt).reversed());
+            // Newest first, one page's worth (cached across repeated downloads)
+            List<Transaction> txs = transactionDAO.getTransactionsPage(account.getAccountId(), null, 0, STATEMENT_ROWS);
 
             // PDFBox
             org.apache.pdfbox.pdmodel.PDDocument doc = new org.apache.pdfbox.pdmodel.PDDocument();
@@ -1369,6 +1681,7 @@ public class MainUI extends Application
         if (chequing == null && userAccounts != null && userAccounts.size() >= 1) chequing = userAccounts.get(0);
         if (savings  == null && userAccounts != null && userAccounts.size() >= 2) savings  = userAccounts.get(1);
 
+        balanceLabels.clear();
         BigDecimal chequingBal = chequing != null ? chequing.getBalance() : BigDecimal.ZERO;
         BigDecimal savingsBal  = savings  != null ? savings.getBalance()  : BigDecimal.ZERO;
 
@@ -1416,6 +1729,7 @@ public class MainUI extends Application
 
         Label a = new Label(amount);
         a.getStyleClass().add("cardAmount");
+        if (accOrNull != null) balanceLabels.put(accOrNull.getAccountId(), a);
 
         Label s = new Label(sub);
         s.getStyleClass().add("cardSub");
@@ -1443,33 +1757,78 @@ public class MainUI extends Application
         Label title = new Label("Statistics");
         title.getStyleClass().add("panelTitle");
 
+        // Window selector (7d / 30d / 1y)
+        ComboBox<AnalyticsService.Window> windowBox = new ComboBox<>(
+                FXCollections.observableArrayList(AnalyticsService.Window.values()));
+        windowBox.setValue(statsWindow);
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox header = new HBox(10, title, spacer, windowBox);
+        header.setAlignment(Pos.CENTER_LEFT);
+
         CategoryAxis xAxis = new CategoryAxis();
         NumberAxis yAxis = new NumberAxis();
         LineChart<String, Number> chart = new LineChart<>(xAxis, yAxis);
         chart.getStyleClass().add("chartBox");
-        chart.setLegendVisible(false);
+        chart.setLegendVisible(true);
         chart.setAnimated(false);
         chart.setCreateSymbols(false);
         chart.setMinHeight(320);
         VBox.setVgrow(chart, Priority.ALWAYS);
 
-        XYChart.Series<String, Number> s = new XYChart.Series<>();
-        s.getData().add(new XYChart.Data<>("Mon", 120));
-        s.getData().add(new XYChart.Data<>("Tue", 180));
-        s.getData().add(new XYChart.Data<>("Wed", 160));
-        s.getData().add(new XYChart.Data<>("Thu", 220));
-        s.getData().add(new XYChart.Data<>("Fri", 200));
-        s.getData().add(new XYChart.Data<>("Sat", 260));
-        s.getData().add(new XYChart.Data<>("Sun", 240));
-        chart.getData().add(s);
+        Label summary = new Label("Loading statistics...");
+        summary.getStyleClass().add("muted");
+
+        Runnable reloadChart = () -> {
+            if (loggedInUser == null) return;
+            AnalyticsService.Window window = windowBox.getValue();
+            summary.setText("Loading statistics...");
+
+            // Query runs off the FX thread; cached windows complete immediately
+            analyticsService.loadAsync(loggedInUser.getUserId(), window)
+                    .thenAccept(snapshot -> Platform.runLater(() -> {
+                        if (windowBox.getValue() != window) return; // user switched meanwhile
+                        if (snapshot == null) {
+                            summary.setText("Statistics are unavailable right now.");
+                            return;
+                        }
+                        chart.getData().setAll(statsSeries(snapshot));
+                        summary.setText("Income " + money(snapshot.getTotalIncome())
+                                + "  |  Spend " + money(snapshot.getTotalSpend())
+                                + "  |  Net " + money(snapshot.getNetFlow()));
+                    }));
+        };
 
-        Label hint = new Label("AI insights & analytics coming soon.");
-        hint.getStyleClass().add("muted");
+        windowBox.valueProperty().addListener((obs, o, n) -> {
+            statsWindow = n;
+            reloadChart.run();
+        });
+        reloadChart.run();
 
-        panel.getChildren().addAll(title, chart, hint);
+        panel.getChildren().addAll(header, chart, summary);
         return panel;
     }
 
+    private List<XYChart.Series<String, Number>> statsSeries(AnalyticsService.Snapshot snapshot) {
+        XYChart.Series<String, Number> income = new XYChart.Series<>();
+        income.setName("Income");
+        XYChart.Series<String, Number> spend = new XYChart.Series<>();
+        spend.setName("Spend");
+        XYChart.Series<String, Number> net = new XYChart.Series<>();
+        net.setName("Net flow");
+        XYChart.Series<String, Number> balance = new XYChart.Series<>();
+        balance.setName("Balance");
+
+        for (AnalyticsService.Point p : snapshot.getPoints()) {
+            income.getData().add(new XYChart.Data<>(p.getLabel(), p.getIncome()));
+            spend.getData().add(new XYChart.Data<>(p.getLabel(), p.getSpend()));
+            net.getData().add(new XYChart.Data<>(p.getLabel(), p.getNet()));
+            balance.getData().add(new XYChart.Data<>(p.getLabel(), p.getBalance()));
+        }
+        return List.of(income, spend, net, balance);
+    }
+
     private VBox buildTransactionsPanelBox() 
     {
         VBox panel = new VBox(12);
@@ -1530,12 +1889,36 @@ public class MainUI extends Application
         final SimpleStringProperty amount = new SimpleStringProperty();
         final SimpleStringProperty desc = new SimpleStringProperty();
 
+        // Set for rows of real transactions (ordering when merging deltas)
+        final int transactionId;
+        final LocalDateTime createdAt;
+
         TxRow(String dt, String t, String a, String d) {
+            this(0, null, dt, t, a, d);
+        }
+
+        TxRow(int transactionId, LocalDateTime createdAt, String dt, String t, String a, String d) {
+            this.transactionId = transactionId;
+            this.createdAt = createdAt;
             dateTime.set(dt);
             type.set(t);
             amount.set(a);
             desc.set(d);
         }
+
+        boolean isNewerThan(Transaction t) {
+            if (createdAt == null) return false;
+            int c = createdAt.compareTo(t.getCreatedAt());
+            return c > 0 || (c == 0 && transactionId > t.getTransactionId());
+        }
+    }
+
+    // One account's rows as shown, newest first
+    private static class TxHistory
+    {
+        final ObservableList<TxRow> rows = FXCollections.observableArrayList();
+        final IntSet ids = new IntSet();
+        volatile LocalDateTime newest;        // also read by the live-update thread
     }
 
     private String formatTxTime(Object createdAt) 
@@ -1574,12 +1957,47 @@ public class MainUI extends Application
         final int toAccountId;
         final BigDecimal amount;
         final String description;
+        final LocalDate runOn;          // today = now
+        final String repeatInterval;    // NONE / DAILY / WEEKLY / MONTHLY
 
-        TransferInput(int fromId, int toId, BigDecimal amount, String desc) {
+        TransferInput(int fromId, int toId, BigDecimal amount, String desc,
+                      LocalDate runOn, String repeatInterval) {
             this.fromAccountId = fromId;
             this.toAccountId = toId;
             this.amount = amount;
             this.description = desc;
+            this.runOn = runOn;
+            this.repeatInterval = repeatInterval;
+        }
+
+        boolean isScheduled() {
+            return runOn.isAfter(LocalDate.now()) || !"NONE".equals(repeatInterval);
+        }
+    }
+
+    private void scheduleTransfer(TransferInput input)
+    {
+        // Future dates run at the start of that day; a repeat starting today runs now
+        LocalDateTime firstRun = input.runOn.isAfter(LocalDate.now())
+                ? input.runOn.atStartOfDay()
+                : LocalDateTime.now();
+
+        ScheduledTransfer st = new ScheduledTransfer(
+                input.fromAccountId,
+                input.toAccountId,
+                input.amount,
+                input.description,
+                input.repeatInterval,
+                firstRun
+        );
+
+        if (scheduledTransferDAO.createScheduledTransfer(st)) {
+            String when = "NONE".equals(input.repeatInterval)
+                    ? "on " + input.runOn
+                    : input.repeatInterval.toLowerCase() + " starting " + input.runOn;
+            showSimpleAlert("Transfer scheduled", "The transfer of $" + input.amount + " will run " + when + ".");
+        } else {
+            showSimpleAlert("Scheduling failed", "The transfer could not be scheduled.");
         }
     }
 
@@ -1672,6 +2090,18 @@ public class MainUI extends Application
         TextField descField = new TextField();
         descField.setPromptText("Description");
 
+        DatePicker whenPicker = new DatePicker(LocalDate.now());
+        whenPicker.setDayCellFactory(p -> new DateCell() {
+            @Override public void updateItem(LocalDate date, boolean empty) {
+                super.updateItem(date, empty);
+                setDisable(empty || date.isBefore(LocalDate.now()));
+            }
+        });
+
+        ComboBox<String> repeatBox = new ComboBox<>(
+                FXCollections.observableArrayList("NONE", "DAILY", "WEEKLY", "MONTHLY"));
+        repeatBox.setValue("NONE");
+
         grid.add(new Label("From"), 0, 0);
         grid.add(fromBox, 1, 0);
         grid.add(new Label("To"), 0, 1);
@@ -1680,6 +2110,10 @@ public class MainUI extends Application
         grid.add(amountField, 1, 2);
         grid.add(new Label("Description"), 0, 3);
         grid.add(descField, 1, 3);
+        grid.add(new Label("When"), 0, 4);
+        grid.add(whenPicker, 1, 4);
+        grid.add(new Label("Repeat"), 0, 5);
+        grid.add(repeatBox, 1, 5);
 
         dialog.getDialogPane().setContent(grid);
 
@@ -1719,7 +2153,14 @@ public class MainUI extends Application
                 String desc = descField.getText() == null ? "" : descField.getText().trim();
                 if (desc.isBlank()) desc = "Transfer via UI";
 
-                return new TransferInput(from.getAccountId(), to.getAccountId(), amt, desc);
+                LocalDate runOn = whenPicker.getValue() == null ? LocalDate.now() : whenPicker.getValue();
+                if (runOn.isBefore(LocalDate.now())) {
+                    showSimpleAlert("Invalid date", "A transfer cannot be scheduled in the past.");
+                    return null;
+                }
+
+                return new TransferInput(from.getAccountId(), to.getAccountId(), amt, desc,
+                        runOn, repeatBox.getValue());
 
             } catch (Exception ex) {
                 showSimpleAlert("Invalid amount", "Enter a valid number like 200.00");
@@ -1730,10 +2171,151 @@ public class MainUI extends Application
         return dialog.showAndWait();
     }
 
+    // Balances straight from a committed BankingService result: no re-query of
+    // the account list; cards, tables and histories are updated in place
+    private void applyBalances(Map<Integer, BigDecimal> balances)
+    {
+        setBalances(balances);
+        for (Integer accountId : balances.keySet()) {
+            if (txHistories.containsKey(accountId)) historyRows(accountId);
+        }
+        redrawLiveParts();
+    }
+
+    private void setBalances(Map<Integer, BigDecimal> balances)
+    {
+        balances.forEach((accountId, balance) -> {
+            Account a = userAccountsById.get(accountId);
+            if (a == null) return;
+            a.setBalance(balance);
+            Label label = balanceLabels.get(accountId);
+            if (label != null) label.setText(money(balance));
+        });
+    }
+
+    private void redrawLiveParts()
+    {
+        if (accountsTableView != null) accountsTableView.refresh();
+        if (dashboardTxRedraw != null) dashboardTxRedraw.run();
+    }
+
+    // ===========================
+    // LIVE UPDATES
+    // ===========================
+    private void watchLedger()
+    {
+        List<Integer> ids = new ArrayList<>();
+        if (userAccounts != null) {
+            for (Account a : userAccounts) ids.add(a.getAccountId());
+        }
+        if (ledgerSubscription == null) {
+            ledgerSubscription = ledgerEvents.subscribe(ids, 1000 / PUSH_FPS, this::onLedgerChange);
+        } else {
+            ledgerSubscription.watch(ids);
+        }
+    }
+
+    // Runs on the event bus thread with a coalesced batch of changed accounts:
+    // read their balances and new history rows here, apply on the FX thread
+    private void onLedgerChange(Set<Integer> accountIds)
+    {
+        User user = loggedInUser;
+        if (user == null) return;
+
+        // The change may not have reached the replicas yet: read these from the primary
+        DBConnection.recordUserWrite(user.getUserId());
+        Map<Integer, BigDecimal> balances = accountDAO.getBalances(user.getUserId(), accountIds);
+        Map<Integer, List<Transaction>> newRows = new HashMap<>();
+
+        for (Integer accountId : accountIds) {
+            TxHistory history = txHistories.get(accountId);
+            LocalDateTime newest = history == null ? null : history.newest;
+            if (newest == null) continue;
+            DBConnection.recordAccountWrite(accountId);
+            List<Transaction> rows = transactionDAO.getTransactionsSince(
+                    accountId, newest.minusSeconds(DELTA_OVERLAP_SECONDS));
+
+            // The commit may be stamped further back than the overlap (a long
+            // transaction): the first page has it; merging skips rows held
+            if (rows.stream().noneMatch(t -> t.getCreatedAt().isAfter(newest))) {
+                rows = new ArrayList<>(rows);
+                rows.addAll(transactionDAO.getTransactionsPage(accountId, null, 0, FIRST_PAGE_ROWS));
+            }
+            newRows.put(accountId, rows);
+        }
+
+        Platform.runLater(() -> {
+            if (loggedInUser != user) return;    // logged out meanwhile
+            setBalances(balances);
+            newRows.forEach((accountId, rows) -> {
+                TxHistory history = txHistories.get(accountId);
+                if (history != null) mergeHistory(history, rows);
+            });
+            redrawLiveParts();
+        });
+    }
+
+    // Top 10 of an account's merged history for the dashboard panel
+    private ObservableList<TxRow> recentRows(int accountId)
+    {
+        TxHistory history = txHistories.get(accountId);
+        var rows = FXCollections.<TxRow>observableArrayList();
+        if (history != null) rows.addAll(history.rows.subList(0, Math.min(10, history.rows.size())));
+        return rows;
+    }
+
+    // History of one account, newest first. The first call loads it; later
+    // calls only fetch rows from the last DELTA_OVERLAP_SECONDS before the
+    // newest one held and merge the unseen ones in, so the cost follows the
+    // number of new rows, not the length of the history. Rows committed later
+    // than that by long transactions arrive through onLedgerChange.
+    private ObservableList<TxRow> historyRows(int accountId)
+    {
+        TxHistory history = txHistories.get(accountId);
+        if (history == null || history.newest == null) {
+            history = new TxHistory();
+            mergeHistory(history, transactionDAO.getTransactionsByAccountId(accountId));
+            txHistories.put(accountId, history);
+        } else {
+            mergeHistory(history, transactionDAO.getTransactionsSince(
+                    accountId, history.newest.minusSeconds(DELTA_OVERLAP_SECONDS)));
+        }
+        return history.rows;
+    }
+
+    private void mergeHistory(TxHistory history, List<Transaction> txs)
+    {
+        for (Transaction t : txs) {
+            if (!history.ids.add(t.getTransactionId())) continue;
+
+            // New rows belong at (or very near) the top
+            int at = 0;
+            while (at < history.rows.size() && history.rows.get(at).isNewerThan(t)) at++;
+            history.rows.add(at, txRow(t));
+
+            if (history.newest == null || t.getCreatedAt().isAfter(history.newest)) {
+                history.newest = t.getCreatedAt();
+            }
+        }
+    }
+
+    private TxRow txRow(Transaction t)
+    {
+        return new TxRow(
+                t.getTransactionId(),
+                t.getCreatedAt(),
+                formatTxTime(t.getCreatedAt()),
+                safe(t.getTransactionType()),
+                money(t.getAmount()),
+                safe(t.getDescription())
+        );
+    }
+
     private void refreshDashboardData() 
     {
         if (loggedInUser == null) return;
-        userAccounts = accountDAO.getAccountsByUserId(loggedInUser.getUserId());
+        setUserAccounts(accountDAO.getAccountsByUserId(loggedInUser.getUserId()));
+        watchLedger();
         // refresh center content (dashboard) without breaking layout
         if (appRoot != null && pageTitle != null && "Dashboard".equals(pageTitle.getText())) {
             appRoot.setCenter(buildDashboard());
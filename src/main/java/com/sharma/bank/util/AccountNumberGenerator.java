@@ -0,0 +1,148 @@
+package com.sharma.bank.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Collision-free account numbers: "AC-" + 12-digit serial + 1 Luhn check digit.
+//
+// Serials are handed out in blocks. Each block is one nextval() on a shared DB
+// sequence, so every node gets disjoint ranges without coordinating. Inside a
+// block a number costs one AtomicLong increment - no lock and no DB round trip.
+public class AccountNumberGenerator {
+
+    public static final String PREFIX = "AC-";
+    public static final int SERIAL_DIGITS = 12;
+    public static final int DEFAULT_BLOCK_SIZE = 10_000;
+
+    // Where block numbers come from (the DB sequence in production)
+    public interface BlockSource {
+        long nextBlock() throws SQLException;
+    }
+
+    private static class Block {
+        final long end;                 // exclusive
+        final AtomicLong next;
+
+        Block(long start, long end) {
+            this.end = end;
+            this.next = new AtomicLong(start);
+        }
+    }
+
+    private static final AccountNumberGenerator SHARED =
+            new AccountNumberGenerator(new SequenceBlockSource(), DEFAULT_BLOCK_SIZE);
+
+    public static AccountNumberGenerator shared() {
+        return SHARED;
+    }
+
+    private final BlockSource blockSource;
+    private final int blockSize;
+    private volatile Block current = new Block(0, 0);   // empty: first call refills
+
+    public AccountNumberGenerator(BlockSource blockSource, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive");
+        }
+        this.blockSource = blockSource;
+        this.blockSize = blockSize;
+    }
+
+    // ===========================
+    // NEXT NUMBER
+    // ===========================
+    public String next() throws SQLException {
+        return format(nextSerial());
+    }
+
+    long nextSerial() throws SQLException {
+        while (true) {
+            Block block = current;
+            long serial = block.next.getAndIncrement();
+            if (serial < block.end) {
+                return serial;
+            }
+            refill(block);
+        }
+    }
+
+    // Only the thread that finds the block exhausted goes to the DB
+    private synchronized void refill(Block exhausted) throws SQLException {
+        if (current != exhausted) {
+            return;     // another thread already refilled
+        }
+        long blockNo = blockSource.nextBlock();
+        long start = blockNo * blockSize;
+        if (start + blockSize > 999_999_999_999L) {
+            throw new SQLException("Account number space exhausted");
+        }
+        current = new Block(start, start + blockSize);
+    }
+
+    // ===========================
+    // FORMAT + CHECK DIGIT
+    // ===========================
+    static String format(long serial) {
+        char[] out = new char[PREFIX.length() + SERIAL_DIGITS + 1];
+        PREFIX.getChars(0, PREFIX.length(), out, 0);
+
+        long v = serial;
+        for (int i = PREFIX.length() + SERIAL_DIGITS - 1; i >= PREFIX.length(); i--) {
+            out[i] = (char) ('0' + (v % 10));
+            v /= 10;
+        }
+        out[out.length - 1] = luhnCheckDigit(out, PREFIX.length(), PREFIX.length() + SERIAL_DIGITS);
+        return new String(out);
+    }
+
+    // Luhn digit for the digits in [from, to): double every second digit from the right
+    static char luhnCheckDigit(char[] digits, int from, int to) {
+        int sum = 0;
+        boolean doubleIt = true;
+        for (int i = to - 1; i >= from; i--) {
+            int d = digits[i] - '0';
+            if (doubleIt) {
+                d *= 2;
+                if (d > 9) d -= 9;
+            }
+            sum += d;
+            doubleIt = !doubleIt;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+
+    // True for numbers produced by this generator (catches typos and swapped digits)
+    public static boolean isValid(String accountNumber) {
+        if (accountNumber == null
+                || accountNumber.length() != PREFIX.length() + SERIAL_DIGITS + 1
+                || !accountNumber.startsWith(PREFIX)) {
+            return false;
+        }
+        char[] chars = accountNumber.toCharArray();
+        for (int i = PREFIX.length(); i < chars.length; i++) {
+            if (chars[i] < '0' || chars[i] > '9') return false;
+        }
+        int last = chars.length - 1;
+        return luhnCheckDigit(chars, PREFIX.length(), last) == chars[last];
+    }
+
+    // ===========================
+    // DB-BACKED BLOCK SOURCE
+    // ===========================
+    static class SequenceBlockSource implements BlockSource {
+
+        @Override
+        public long nextBlock() throws SQLException {
+            try (Connection conn = DBConnection.getConnection()) {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT nextval('account_number_block_seq')");
+                     ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package com.sharma.bank.util;
+
+import com.sharma.bank.model.Transaction;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Compact, read-only columnar file for cold transaction history.
+//
+// Rows are stored sorted by (account_id, created_at, transaction_id) in
+// blocks. A block holds at most BLOCK_ROWS rows of ONE account and is
+// deflate-compressed on its own, so a lookup only inflates the blocks it needs.
+// Inside a block every column is stored separately:
+//
+//   transaction_id   zigzag varint delta from the previous row
+//   created_at       epoch microseconds, zigzag varint delta from the previous row
+//   amount           minor units (cents) as a zigzag varint
+//   type             varint index into the block's type dictionary
+//   description      varint index into the block's description dictionary (0 = null)
+//
+// File layout (big-endian):
+//
+//   "BKTX" u8 version | block* | index entry* | trailer
+//   index entry = accountId i32, minMicros i64, maxMicros i64, rows i32,
+//                 offset i64, compressedLength i32, rawLength i32
+//   trailer     = indexOffset i64, blockCount i32, totalRows i64, "BKTX"
+//
+// Readers memory-map the file and binary-search the index (sorted by account,
+// then time), so a seek to one account's date range touches only that
+// account's overlapping blocks. A file is mapped in 1 GB segments (one
+// buffer can't pass 2 GB); the rare block that straddles two is copied.
+public class ColumnarArchive {
+
+    public static final int MAGIC = 0x424B5458;         // "BKTX"
+    public static final byte VERSION = 1;
+    public static final int BLOCK_ROWS = 4096;
+
+    private static final int INDEX_ENTRY_BYTES = 4 + 8 + 8 + 4 + 8 + 4 + 4;
+    private static final int TRAILER_BYTES = 8 + 4 + 8 + 4;
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    static long toMicros(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + t.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    // ===========================
+    // WRITER
+    // ===========================
+    public static Writer create(Path file) throws IOException {
+        return new Writer(file);
+    }
+
+    public static class Writer implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final List<long[]> index = new ArrayList<>();     // one long[7] per block
+        private final List<Transaction> pending = new ArrayList<>(BLOCK_ROWS);
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private long position;
+        private long totalRows;
+        private Transaction last;
+
+        private Writer(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer header = ByteBuffer.allocate(5).putInt(MAGIC).put(VERSION);
+            header.flip();
+            writeFully(header);
+        }
+
+        // Rows must arrive in (account_id, created_at, transaction_id) order
+        public void add(Transaction tx) throws IOException {
+            if (last != null && compare(last, tx) > 0) {
+                throw new IllegalArgumentException("Rows out of order at transaction " + tx.getTransactionId());
+            }
+            if (!pending.isEmpty() && (pending.get(0).getAccountId() != tx.getAccountId()
+                    || pending.size() == BLOCK_ROWS)) {
+                flushBlock();
+            }
+            pending.add(tx);
+            last = tx;
+            totalRows++;
+        }
+
+        public long getRowCount() {
+            return totalRows;
+        }
+
+        private static int compare(Transaction a, Transaction b) {
+            int c = Integer.compare(a.getAccountId(), b.getAccountId());
+            if (c == 0) c = a.getCreatedAt().compareTo(b.getCreatedAt());
+            if (c == 0) c = Integer.compare(a.getTransactionId(), b.getTransactionId());
+            return c;
+        }
+
+        private void flushBlock() throws IOException {
+            if (pending.isEmpty()) return;
+
+            byte[] raw = encodeBlock(pending);
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+
+            byte[] out = new byte[Math.max(64, raw.length + raw.length / 100 + 64)];
+            int compressed = 0;
+            while (!deflater.finished()) {
+                if (compressed == out.length) out = Arrays.copyOf(out, out.length * 2);
+                compressed += deflater.deflate(out, compressed, out.length - compressed);
+            }
+
+            index.add(new long[] {
+                    pending.get(0).getAccountId(),
+                    toMicros(pending.get(0).getCreatedAt()),
+                    toMicros(pending.get(pending.size() - 1).getCreatedAt()),
+                    pending.size(),
+                    position,
+                    compressed,
+                    raw.length
+            });
+            writeFully(ByteBuffer.wrap(out, 0, compressed));
+            pending.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flushBlock();
+
+                long indexOffset = position;
+                ByteBuffer buf = ByteBuffer.allocate(index.size() * INDEX_ENTRY_BYTES + TRAILER_BYTES);
+                for (long[] e : index) {
+                    buf.putInt((int) e[0]).putLong(e[1]).putLong(e[2]).putInt((int) e[3])
+                       .putLong(e[4]).putInt((int) e[5]).putInt((int) e[6]);
+                }
+                buf.putLong(indexOffset).putInt(index.size()).putLong(totalRows).putInt(MAGIC);
+                buf.flip();
+                writeFully(buf);
+                channel.force(true);
+            } finally {
+                deflater.end();
+                channel.close();
+            }
+        }
+
+        private void writeFully(ByteBuffer buf) throws IOException {
+            while (buf.hasRemaining()) {
+                position += channel.write(buf);
+            }
+        }
+    }
+
+    // Column-by-column encoding of one block (all rows of one account)
+    static byte[] encodeBlock(List<Transaction> rows) {
+        Map<String, Integer> types = new HashMap<>();
+        Map<String, Integer> descriptions = new HashMap<>();
+        List<String> typeDict = new ArrayList<>();
+        List<String> descDict = new ArrayList<>();
+        int[] typeCodes = new int[rows.size()];
+        int[] descCodes = new int[rows.size()];
+
+        for (int i = 0; i < rows.size(); i++) {
+            Transaction tx = rows.get(i);
+            typeCodes[i] = types.computeIfAbsent(tx.getTransactionType(), k -> {
+                typeDict.add(k);
+                return typeDict.size() - 1;
+            });
+            String d = tx.getDescription();
+            descCodes[i] = d == null ? 0 : descriptions.computeIfAbsent(d, k -> {
+                descDict.add(k);
+                return descDict.size();          // 1-based, 0 = null
+            });
+        }
+
+        ByteSink out = new ByteSink(rows.size() * 8 + 64);
+        out.varint(rows.size());
+        out.varint(typeDict.size());
+        for (String s : typeDict) out.string(s);
+        out.varint(descDict.size());
+        for (String s : descDict) out.string(s);
+
+        long prev = 0;
+        for (Transaction tx : rows) {
+            out.zigzag(tx.getTransactionId() - prev);
+            prev = tx.getTransactionId();
+        }
+        prev = 0;
+        for (Transaction tx : rows) {
+            long micros = toMicros(tx.getCreatedAt());
+            out.zigzag(micros - prev);
+            prev = micros;
+        }
+        for (Transaction tx : rows) {
+            out.zigzag(tx.getAmount().movePointRight(2).longValueExact());
+        }
+        for (int code : typeCodes) out.varint(code);
+        for (int code : descCodes) out.varint(code);
+
+        return out.toByteArray();
+    }
+
+    static List<Transaction> decodeBlock(int accountId, ByteBuffer in) {
+        int n = readVarint(in);
+        String[] typeDict = new String[readVarint(in)];
+        for (int i = 0; i < typeDict.length; i++) typeDict[i] = readString(in);
+        String[] descDict = new String[readVarint(in)];
+        for (int i = 0; i < descDict.length; i++) descDict[i] = readString(in);
+
+        int[] ids = new int[n];
+        long[] micros = new long[n];
+        long[] cents = new long[n];
+        long prev = 0;
+        for (int i = 0; i < n; i++) ids[i] = (int) (prev += readZigzag(in));
+        prev = 0;
+        for (int i = 0; i < n; i++) micros[i] = prev += readZigzag(in);
+        for (int i = 0; i < n; i++) cents[i] = readZigzag(in);
+
+        List<Transaction> rows = new ArrayList<>(n);
+        int[] typeCodes = new int[n];
+        for (int i = 0; i < n; i++) typeCodes[i] = readVarint(in);
+        for (int i = 0; i < n; i++) {
+            int d = readVarint(in);
+            rows.add(new Transaction(
+                    ids[i],
+                    accountId,
+                    BigDecimal.valueOf(cents[i], 2),
+                    typeDict[typeCodes[i]],
+                    d == 0 ? null : descDict[d - 1],
+                    fromMicros(micros[i])
+            ));
+        }
+        return rows;
+    }
+
+    // ===========================
+    // READER
+    // ===========================
+    public static Reader open(Path file) throws IOException {
+        return new Reader(file, SEGMENT_BYTES);
+    }
+
+    // Thread-safe: lookups only use absolute reads and their own views of the mapping
+    public static class Reader {
+
+        private final MappedByteBuffer[] segments;
+        private final long segmentBytes;
+        private final int blockCount;
+        private final long totalRows;
+        private final long indexOffset;
+
+        Reader(Path file, long segmentBytes) throws IOException {
+            this.segmentBytes = segmentBytes;
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = ch.size();
+                if (size < 5 + TRAILER_BYTES) {
+                    throw new IOException("Truncated archive: " + file);
+                }
+                // The mappings stay valid after the channel is closed
+                this.segments = new MappedByteBuffer[(int) ((size + segmentBytes - 1) / segmentBytes)];
+                for (int i = 0; i < segments.length; i++) {
+                    long start = i * segmentBytes;
+                    segments[i] = ch.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentBytes, size - start));
+                }
+
+                if (getInt(0) != MAGIC || slice(4, 1).get(0) != VERSION) {
+                    throw new IOException("Not a columnar transaction archive: " + file);
+                }
+                long trailer = size - TRAILER_BYTES;
+                if (getInt(trailer + 20) != MAGIC) {
+                    throw new IOException("Archive trailer missing (incomplete write?): " + file);
+                }
+                this.indexOffset = getLong(trailer);
+                this.blockCount = getInt(trailer + 8);
+                this.totalRows = getLong(trailer + 12);
+            }
+        }
+
+        // Bytes [offset, offset + length) of the file, big-endian: a view of
+        // one segment, or a copy when they run into the next
+        private ByteBuffer slice(long offset, int length) {
+            int seg = (int) (offset / segmentBytes);
+            int at = (int) (offset % segmentBytes);
+            MappedByteBuffer first = segments[seg];
+            if (at + length <= first.capacity()) {
+                return first.slice(at, length);
+            }
+
+            byte[] copy = new byte[length];
+            for (int n = 0; n < length; seg++, at = 0) {
+                int chunk = Math.min(length - n, segments[seg].capacity() - at);
+                segments[seg].get(at, copy, n, chunk);
+                n += chunk;
+            }
+            return ByteBuffer.wrap(copy);
+        }
+
+        private int getInt(long offset) {
+            return slice(offset, 4).getInt(0);
+        }
+
+        private long getLong(long offset) {
+            return slice(offset, 8).getLong(0);
+        }
+
+        public long getRowCount() { return totalRows; }
+        public int getBlockCount() { return blockCount; }
+
+        private long entry(int block) {
+            return indexOffset + (long) block * INDEX_ENTRY_BYTES;
+        }
+
+        private int accountOf(int block) {
+            return getInt(entry(block));
+        }
+
+        // First block of the account (or where it would be)
+        private int firstBlock(int accountId) {
+            int lo = 0;
+            int hi = blockCount;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (accountOf(mid) < accountId) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        // Rows of one account with from <= created_at < to (null = unbounded), oldest first
+        public List<Transaction> read(int accountId, LocalDateTime from, LocalDateTime to) throws IOException {
+            List<Transaction> result = new ArrayList<>();
+            forEach(accountId, from, to, result::add);
+            return result;
+        }
+
+        // Same rows, handed over one block at a time (memory stays at one block)
+        public void forEach(int accountId, LocalDateTime from, LocalDateTime to,
+                            Consumer<Transaction> action) throws IOException {
+            long fromMicros = from == null ? Long.MIN_VALUE : toMicros(from);
+            long toMicros = to == null ? Long.MAX_VALUE : toMicros(to);
+
+            for (int b = firstBlock(accountId); b < blockCount && accountOf(b) == accountId; b++) {
+                long e = entry(b);
+                long minMicros = getLong(e + 4);
+                long maxMicros = getLong(e + 12);
+                if (maxMicros < fromMicros) continue;       // block entirely before the range
+                if (minMicros >= toMicros) break;           // this and later blocks are after it
+
+                for (Transaction tx : inflate(accountId, e)) {
+                    long t = toMicros(tx.getCreatedAt());
+                    if (t >= fromMicros && t < toMicros) {
+                        action.accept(tx);
+                    }
+                }
+            }
+        }
+
+        private List<Transaction> inflate(int accountId, long entry) throws IOException {
+            long offset = getLong(entry + 24);
+            int compressed = getInt(entry + 32);
+            int rawLength = getInt(entry + 36);
+
+            ByteBuffer src = slice(offset, compressed);
+
+            byte[] raw = new byte[rawLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(src);
+                int n = 0;
+                while (n < rawLength && !inflater.finished()) {
+                    int got = inflater.inflate(raw, n, rawLength - n);
+                    if (got == 0 && inflater.needsInput()) break;
+                    n += got;
+                }
+                if (n != rawLength) {
+                    throw new IOException("Corrupt archive block at offset " + offset);
+                }
+            } catch (DataFormatException ex) {
+                throw new IOException("Corrupt archive block at offset " + offset, ex);
+            } finally {
+                inflater.end();
+            }
+            return decodeBlock(accountId, ByteBuffer.wrap(raw));
+        }
+    }
+
+    // ===========================
+    // VARINTS
+    // ===========================
+    static final class ByteSink {
+        private byte[] buf;
+        private int size;
+
+        ByteSink(int capacity) {
+            buf = new byte[Math.max(16, capacity)];
+        }
+
+        void put(byte b) {
+            if (size == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+            buf[size++] = b;
+        }
+
+        void varint(long v) {
+            while ((v & ~0x7FL) != 0) {
+                put((byte) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            put((byte) v);
+        }
+
+        void zigzag(long v) {
+            varint((v << 1) ^ (v >> 63));
+        }
+
+        void string(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            for (byte b : bytes) put(b);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, size);
+        }
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    static int readVarint(ByteBuffer in) {
+        return (int) readVarLong(in);
+    }
+
+    static long readZigzag(ByteBuffer in) {
+        long v = readVarLong(in);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[readVarint(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,13 +1,25 @@
 package com.sharma.bank.util;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection; //Represents an open channel from Java → PostgreSQL.
 import java.sql.DriverManager; //It acts like a gateway to the DB.
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DBConnection {
 
     // 1. Connection details for your PostgreSQL database
-    private static final String URL = "jdbc:postgresql://localhost:5432/bank_app";
+    private static final String URL = System.getProperty("bank.db.url", "jdbc:postgresql://localhost:5432/bank_app");
     /*
         This is the address Java uses to locate the PostgreSQL database.
         Breakdown:
@@ -16,13 +28,255 @@ public class DBConnection {
         localhost → database server is on your own computer
         5432 → default PostgreSQL port
         bank_app → name of the database you want to connect to
+
+        Override with -Dbank.db.url / -Dbank.db.user / -Dbank.db.password.
      */
-    private static final String USER = "bank_user";
-    private static final String PASSWORD = "bank_pass";
+    private static final String USER = System.getProperty("bank.db.user", "bank_user");
+    private static final String PASSWORD = System.getProperty("bank.db.password", "bank_pass");
 
-    // 2. This method returns a live connection object
+    // 2. This method returns a live connection object (always the primary).
+    //    Use it for writes and for anything that must see the latest commit.
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return open(URL);
+    }
+
+    // ===========================
+    // REQUEST DEADLINES
+    // ===========================
+    /*
+        A thread serving a request with a time budget (the API server) sets a
+        deadline; every connection it opens until clearDeadline() sets the time
+        left as statement_timeout before each statement it creates (one SET per
+        statement: the budget is for the whole request, not for each of its
+        statements). A statement still running (or waiting for a lock) at the
+        deadline is cancelled by PostgreSQL, and commit() past the deadline
+        rolls back instead - so a request that ran out of time has not moved
+        any money.
+     */
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+    private static final String QUERY_CANCELED = "57014";
+
+    public static void setDeadline(long deadlineMillis) {
+        DEADLINE.set(deadlineMillis);
+    }
+
+    public static void clearDeadline() {
+        DEADLINE.remove();
+    }
+
+    private static Connection open(String url) throws SQLException {
+        Properties props = new Properties();
+        props.setProperty("user", USER);
+        props.setProperty("password", PASSWORD);
+
+        Long deadline = DEADLINE.get();
+        if (deadline != null) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new SQLTimeoutException("Request deadline passed");
+            }
+            props.setProperty("connectTimeout", String.valueOf((remaining + 999) / 1000));
+            return withDeadline(DriverManager.getConnection(url, props), deadline);
+        }
+        return DriverManager.getConnection(url, props);
+    }
+
+    private static Connection withDeadline(Connection conn, long deadline) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "createStatement", "prepareStatement", "prepareCall" -> setStatementTimeout(conn, deadline);
+                case "commit" -> {
+                    if (System.currentTimeMillis() >= deadline) {
+                        conn.rollback();
+                        throw new SQLTimeoutException("Request deadline passed before commit; rolled back");
+                    }
+                }
+                default -> { }
+            }
+            try {
+                return method.invoke(conn, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, handler);
+    }
+
+    private static void setStatementTimeout(Connection conn, long deadline) throws SQLException {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+            throw new SQLTimeoutException("Request deadline passed");
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET statement_timeout = " + remaining);
+        }
+    }
+
+    // ===========================
+    // READ REPLICAS
+    // ===========================
+    /*
+        Optional streaming replicas for query-only work (history, statements,
+        analytics), so browsing doesn't compete with payments on the primary.
+
+        -Dbank.db.replicaUrls=jdbc:postgresql://r1:5432/bank_app,jdbc:postgresql://r2:5432/bank_app
+        -Dbank.db.replicaMaxLagMillis=5000   replicas further behind are skipped
+        -Dbank.db.stickyMillis=10000         read-your-writes window (see below)
+
+        Read-your-writes: after an account (or a user's account list) changes,
+        reads for that account / user go to the primary for stickyMillis, so
+        people never see their own deposit "disappear". Without replicas
+        configured every read simply uses the primary.
+     */
+    private static final List<Replica> REPLICAS = parseReplicas(System.getProperty("bank.db.replicaUrls", ""));
+    private static final long MAX_LAG_MILLIS = Long.getLong("bank.db.replicaMaxLagMillis", 5_000);
+    private static final long STICKY_MILLIS = Long.getLong("bank.db.stickyMillis", Math.max(10_000, MAX_LAG_MILLIS * 2));
+    private static final long LAG_CHECK_MILLIS = 1_000;
+    private static final long REPLICA_BACKOFF_MILLIS = 30_000;
+    private static final int STICKY_PRUNE_SIZE = 10_000;
+
+    // Lag = age of the last replayed commit, or 0 when everything received is replayed
+    // (an idle primary would otherwise look like a lagging replica). "Everything
+    // received" only means caught up while the WAL receiver is streaming: a replica
+    // that lost its upstream stops receiving too, so it is reported as unusable.
+    private static final String LAG_SQL =
+            "SELECT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming'), " +
+            "CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM (NOW() - pg_last_xact_replay_timestamp())) * 1000, 0) END";
+
+    private static final AtomicInteger NEXT_REPLICA = new AtomicInteger();
+
+    // key -> time (millis) until which reads must use the primary
+    private static final Map<Integer, Long> STICKY_ACCOUNTS = new ConcurrentHashMap<>();
+    private static final Map<Integer, Long> STICKY_USERS = new ConcurrentHashMap<>();
+
+    private static final class Replica {
+        final String url;
+        volatile long lagMillis;                // Long.MAX_VALUE = not streaming from the primary
+        volatile long checkedAtMillis;          // 0 = never measured
+        volatile long downUntilMillis;
+
+        Replica(String url) {
+            this.url = url;
+        }
+    }
+
+    private static List<Replica> parseReplicas(String urls) {
+        List<Replica> list = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (!url.isBlank()) {
+                list.add(new Replica(url.trim()));
+            }
+        }
+        return list;
+    }
+
+    public static boolean hasReplicas() {
+        return !REPLICAS.isEmpty();
+    }
+
+    // Record that an account / user changed (call after the commit)
+    public static void recordAccountWrite(int accountId) {
+        recordWrite(STICKY_ACCOUNTS, accountId);
+    }
+
+    public static void recordUserWrite(int userId) {
+        recordWrite(STICKY_USERS, userId);
+    }
+
+    private static void recordWrite(Map<Integer, Long> sticky, int key) {
+        if (REPLICAS.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        sticky.put(key, now + STICKY_MILLIS);
+        if (sticky.size() > STICKY_PRUNE_SIZE) {
+            sticky.values().removeIf(until -> until < now);
+        }
+    }
+
+    private static boolean isSticky(Map<Integer, Long> sticky, int key) {
+        Long until = sticky.get(key);
+        if (until == null) return false;
+        if (until < System.currentTimeMillis()) {
+            sticky.remove(key, until);
+            return false;
+        }
+        return true;
+    }
+
+    // Reads about one account (history, statements, rollups)
+    public static Connection getReadConnectionForAccount(int accountId) throws SQLException {
+        if (REPLICAS.isEmpty() || isSticky(STICKY_ACCOUNTS, accountId)) {
+            return getConnection();
+        }
+        return getReadConnection();
+    }
+
+    // Reads about everything a user owns (account list, analytics)
+    public static Connection getReadConnectionForUser(int userId) throws SQLException {
+        if (REPLICAS.isEmpty() || isSticky(STICKY_USERS, userId)) {
+            return getConnection();
+        }
+        return getReadConnection();
+    }
+
+    // A read-only connection to a replica within the lag bound, else the primary
+    public static Connection getReadConnection() throws SQLException {
+        int n = REPLICAS.size();
+        int start = Math.floorMod(NEXT_REPLICA.getAndIncrement(), Math.max(n, 1));
+
+        for (int i = 0; i < n; i++) {
+            Connection conn = tryReplica(REPLICAS.get((start + i) % n));
+            if (conn != null) {
+                return conn;
+            }
+        }
+        return getConnection();
+    }
+
+    private static Connection tryReplica(Replica replica) {
+        long now = System.currentTimeMillis();
+        if (now < replica.downUntilMillis) return null;
+        if (replica.checkedAtMillis > 0 && now - replica.checkedAtMillis < LAG_CHECK_MILLIS
+                && replica.lagMillis > MAX_LAG_MILLIS) {
+            return null;                        // known to be behind, don't even connect
+        }
+
+        Connection conn = null;
+        try {
+            conn = open(replica.url);
+
+            if (now - replica.checkedAtMillis >= LAG_CHECK_MILLIS) {
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(LAG_SQL)) {
+                    rs.next();
+                    replica.lagMillis = rs.getBoolean(1) ? rs.getLong(2) : Long.MAX_VALUE;
+                    replica.checkedAtMillis = now;
+                }
+            }
+            if (replica.lagMillis > MAX_LAG_MILLIS) {
+                conn.close();
+                return null;
+            }
+
+            conn.setReadOnly(true);
+            return conn;
+
+        } catch (SQLException e) {
+            // The caller's request deadline running out says nothing about the replica
+            if (!(e instanceof SQLTimeoutException) && !QUERY_CANCELED.equals(e.getSQLState())) {
+                System.out.println("⚠️ Replica " + replica.url + " unavailable, using primary: " + e.getMessage());
+                replica.downUntilMillis = now + REPLICA_BACKOFF_MILLIS;
+            }
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (SQLException ignored) {
+                    // already broken
+                }
+            }
+            return null;
+        }
     }
 
     // 3. Simple test method (optional)
@@ -30,12 +284,26 @@ public class DBConnection {
         try (Connection conn = getConnection()) {
             if (conn != null) {
                 System.out.println("✅ Connected to database successfully!");
-            } else { 
+            } else {
                 System.out.println("❌ Failed to connect.");
             }
         } catch (SQLException e) {
             System.out.println("Database connection error:");
             e.printStackTrace();
         }
+
+        for (Replica replica : REPLICAS) {
+            Connection conn = tryReplica(replica);
+            if (conn != null) {
+                System.out.println("✅ Replica " + replica.url + " lag " + replica.lagMillis + " ms");
+                try {
+                    conn.close();
+                } catch (SQLException ignored) {
+                    // nothing to do
+                }
+            } else {
+                System.out.println("❌ Replica " + replica.url + " not usable");
+            }
+        }
     }
 }
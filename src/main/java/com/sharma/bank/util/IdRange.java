@@ -0,0 +1,80 @@
+package com.sharma.bank.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Inclusive [fromId, toId] slice of a table's integer primary key.
+// Batch jobs use it to cut a big table into chunks that can run in parallel.
+public class IdRange {
+
+    private final int fromId;
+    private final int toId;
+
+    public IdRange(int fromId, int toId) {
+        if (toId < fromId) {
+            throw new IllegalArgumentException("Empty id range: " + fromId + ".." + toId);
+        }
+        this.fromId = fromId;
+        this.toId = toId;
+    }
+
+    public int getFromId() {
+        return fromId;
+    }
+
+    public int getToId() {
+        return toId;
+    }
+
+    public long size() {
+        return (long) toId - fromId + 1;
+    }
+
+    // Split this range in two halves (used by fork-join tasks)
+    public IdRange[] halves() {
+        int mid = (int) (((long) fromId + toId) >>> 1);
+        return new IdRange[] { new IdRange(fromId, mid), new IdRange(mid + 1, toId) };
+    }
+
+    // Cut this range into consecutive chunks of at most chunkSize ids
+    public List<IdRange> split(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        List<IdRange> chunks = new ArrayList<>();
+        long start = fromId;
+        while (start <= toId) {
+            long end = Math.min((long) toId, start + chunkSize - 1);
+            chunks.add(new IdRange((int) start, (int) end));
+            start = end + 1;
+        }
+        return chunks;
+    }
+
+    // MIN/MAX of an id column, or null when the table is empty.
+    // table and idColumn are always code constants, never user input.
+    public static IdRange bounds(Connection conn, String table, String idColumn) throws SQLException {
+        String sql = "SELECT MIN(" + idColumn + "), MAX(" + idColumn + ") FROM " + table;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                int min = rs.getInt(1);
+                if (rs.wasNull()) {
+                    return null;
+                }
+                return new IdRange(min, rs.getInt(2));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return fromId + ".." + toId;
+    }
+}
@@ -0,0 +1,113 @@
+package com.sharma.bank.util;
+
+import java.util.Arrays;
+
+// int -> long accumulator without boxing (same open-addressing layout as
+// IntObjectMap), for per-account sums and counts: cents credited, rows seen.
+// Absent keys read as 0. Not thread-safe.
+public class IntLongMap {
+
+    public interface EntryConsumer {
+        void accept(int key, long value);
+    }
+
+    private int[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    public IntLongMap() {
+        this(8);
+    }
+
+    public IntLongMap(int expectedSize) {
+        allocate(IntObjectMap.tableSize(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    public long get(int key) {
+        return getOrDefault(key, 0);
+    }
+
+    public long getOrDefault(int key, long defaultValue) {
+        for (int i = IntObjectMap.slot(key, mask); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return defaultValue;
+    }
+
+    public boolean containsKey(int key) {
+        for (int i = IntObjectMap.slot(key, mask); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return true;
+        }
+        return false;
+    }
+
+    public void put(int key, long value) {
+        values[index(key)] = value;
+    }
+
+    // Adds delta to the key's value (0 if absent); returns the new value
+    public long add(int key, long delta) {
+        int i = index(key);
+        return values[i] += delta;
+    }
+
+    // Slot of the key, inserted with value 0 if absent
+    private int index(int key) {
+        int i = IntObjectMap.slot(key, mask);
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return i;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length << 1);
+            return index(key);
+        }
+        keys[i] = key;
+        values[i] = 0;
+        used[i] = true;
+        size++;
+        return i;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i]) continue;
+            int j = IntObjectMap.slot(oldKeys[i], mask);
+            while (used[j]) j = (j + 1) & mask;
+            keys[j] = oldKeys[i];
+            values[j] = oldValues[i];
+            used[j] = true;
+        }
+    }
+
+    public void forEach(EntryConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) action.accept(keys[i], values[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+}
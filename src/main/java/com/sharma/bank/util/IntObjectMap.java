@@ -0,0 +1,160 @@
+package com.sharma.bank.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+// int -> object map without boxing: open addressing with linear probing over
+// parallel key/value arrays, for lookups by account or transaction id in hot
+// loops. Null values are not allowed (a null slot is an empty slot).
+// Not thread-safe.
+public class IntObjectMap<V> {
+
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public IntObjectMap() {
+        this(8);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    // Power of two, at most half full
+    static int tableSize(int expectedSize) {
+        int cap = 16;
+        while (cap < (long) expectedSize * 2) cap <<= 1;
+        return cap;
+    }
+
+    static int slot(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            Object v = values[i];
+            if (v == null) return null;
+            if (keys[i] == key) return (V) v;
+        }
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    // Returns the previous value, or null
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "value");
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            Object v = values[i];
+            if (v == null) {
+                keys[i] = key;
+                values[i] = value;
+                if (++size * 2 > values.length) rehash(values.length << 1);
+                return null;
+            }
+            if (keys[i] == key) {
+                values[i] = value;
+                return (V) v;
+            }
+        }
+    }
+
+    // Returns the removed value, or null
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            Object v = values[i];
+            if (v == null) return null;
+            if (keys[i] == key) {
+                closeGap(i);
+                size--;
+                return (V) v;
+            }
+        }
+    }
+
+    // Backward-shift deletion: pull later entries of the probe run into the
+    // gap so lookups never stop early (no tombstones)
+    private void closeGap(int gap) {
+        for (int j = (gap + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        values[gap] = null;
+    }
+
+    // Removes every entry whose value matches; returns how many went
+    @SuppressWarnings("unchecked")
+    public int removeValuesIf(Predicate<? super V> filter) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        int removed = 0;
+
+        allocate(oldValues.length);
+        size = 0;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) continue;
+            if (filter.test((V) oldValues[i])) {
+                removed++;
+            } else {
+                put(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+        return removed;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) continue;
+            int j = slot(oldKeys[i], mask);
+            while (values[j] != null) j = (j + 1) & mask;
+            keys[j] = oldKeys[i];
+            values[j] = oldValues[i];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) action.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.sharma.bank.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Set of ints without boxing (same open-addressing layout as IntObjectMap),
+// e.g. the account ids touched by a batch or the transaction ids already
+// shown. Not thread-safe.
+public class IntSet {
+
+    private int[] keys;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    public IntSet() {
+        this(8);
+    }
+
+    public IntSet(int expectedSize) {
+        allocate(IntObjectMap.tableSize(expectedSize));
+    }
+
+    public static IntSet of(int... values) {
+        IntSet set = new IntSet(values.length);
+        for (int v : values) set.add(v);
+        return set;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    public boolean contains(int key) {
+        for (int i = IntObjectMap.slot(key, mask); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return true;
+        }
+        return false;
+    }
+
+    // True if the value was not in the set yet
+    public boolean add(int key) {
+        int i = IntObjectMap.slot(key, mask);
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return false;
+        }
+        keys[i] = key;
+        used[i] = true;
+        if (++size * 2 > keys.length) rehash(keys.length << 1);
+        return true;
+    }
+
+    public boolean remove(int key) {
+        for (int i = IntObjectMap.slot(key, mask); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                closeGap(i);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Backward-shift deletion, as in IntObjectMap
+    private void closeGap(int gap) {
+        for (int j = (gap + 1) & mask; used[j]; j = (j + 1) & mask) {
+            int home = IntObjectMap.slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                gap = j;
+            }
+        }
+        used[gap] = false;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i]) continue;
+            int j = IntObjectMap.slot(oldKeys[i], mask);
+            while (used[j]) j = (j + 1) & mask;
+            keys[j] = oldKeys[i];
+            used[j] = true;
+        }
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) action.accept(keys[i]);
+        }
+    }
+
+    // The members in no particular order
+    public int[] toArray() {
+        int[] out = new int[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) out[n++] = keys[i];
+        }
+        return out;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+}
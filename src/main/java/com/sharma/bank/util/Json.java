@@ -0,0 +1,259 @@
+package com.sharma.bank.util;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Minimal JSON writer for flat objects (event payloads, API responses).
+// Values may be null, String, Number, Boolean, Map, Iterable or another Json.
+// parse() reads request bodies: objects become Maps, arrays Lists and
+// numbers BigDecimal (so amounts are never rounded through a double).
+public class Json {
+
+    private final StringBuilder sb = new StringBuilder("{");
+    private boolean first = true;
+
+    public static Json object() {
+        return new Json();
+    }
+
+    // Already-serialized JSON to embed as-is (e.g. a stored payload)
+    public static Object raw(String json) {
+        return new Raw(json);
+    }
+
+    private static final class Raw {
+        final String json;
+
+        Raw(String json) {
+            this.json = json;
+        }
+    }
+
+    public Json put(String key, Object value) {
+        if (!first) sb.append(',');
+        first = false;
+        quote(sb, key);
+        sb.append(':');
+        writeValue(sb, value);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return sb + "}";
+    }
+
+    private static void writeValue(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof Json) {
+            sb.append(value);
+        } else if (value instanceof Raw) {
+            sb.append(((Raw) value).json);
+        } else if (value instanceof BigDecimal) {
+            // Money stays exact: written as a string, never as a binary float
+            quote(sb, ((BigDecimal) value).toPlainString());
+        } else if (value instanceof Number || value instanceof Boolean) {
+            sb.append(value);
+        } else if (value instanceof Map) {
+            Json nested = object();
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                nested.put(String.valueOf(e.getKey()), e.getValue());
+            }
+            sb.append(nested);
+        } else if (value instanceof Iterable) {
+            sb.append('[');
+            boolean firstItem = true;
+            for (Object item : (Iterable<?>) value) {
+                if (!firstItem) sb.append(',');
+                firstItem = false;
+                writeValue(sb, item);
+            }
+            sb.append(']');
+        } else {
+            quote(sb, value.toString());
+        }
+    }
+
+    public static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        quote(sb, s);
+        return sb.toString();
+    }
+
+    private static void quote(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    // ===========================
+    // PARSING
+    // ===========================
+    public static Object parse(String text) {
+        Parser p = new Parser(text);
+        Object value = p.value();
+        p.skipWhitespace();
+        if (p.pos != text.length()) {
+            throw p.error("Unexpected trailing characters");
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        Object value = parse(text);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("JSON object expected");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static final class Parser {
+        final String s;
+        int pos;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos);
+        }
+
+        void skipWhitespace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
+
+        void expect(char c) {
+            skipWhitespace();
+            if (pos >= s.length() || s.charAt(pos) != c) {
+                throw error("Expected '" + c + "'");
+            }
+            pos++;
+        }
+
+        Object value() {
+            skipWhitespace();
+            if (pos >= s.length()) throw error("Unexpected end of input");
+            char c = s.charAt(pos);
+            switch (c) {
+                case '{': return object();
+                case '[': return array();
+                case '"': return string();
+                case 't': return literal("true", Boolean.TRUE);
+                case 'f': return literal("false", Boolean.FALSE);
+                case 'n': return literal("null", null);
+                default:  return number();
+            }
+        }
+
+        Map<String, Object> object() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (pos < s.length() && s.charAt(pos) == '}') {
+                pos++;
+                return map;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                expect(':');
+                map.put(key, value());
+                skipWhitespace();
+                if (pos < s.length() && s.charAt(pos) == ',') {
+                    pos++;
+                    continue;
+                }
+                expect('}');
+                return map;
+            }
+        }
+
+        List<Object> array() {
+            List<Object> list = new ArrayList<>();
+            expect('[');
+            skipWhitespace();
+            if (pos < s.length() && s.charAt(pos) == ']') {
+                pos++;
+                return list;
+            }
+            while (true) {
+                list.add(value());
+                skipWhitespace();
+                if (pos < s.length() && s.charAt(pos) == ',') {
+                    pos++;
+                    continue;
+                }
+                expect(']');
+                return list;
+            }
+        }
+
+        String string() {
+            if (pos >= s.length() || s.charAt(pos) != '"') throw error("Expected string");
+            pos++;
+            StringBuilder sb = new StringBuilder();
+            while (pos < s.length()) {
+                char c = s.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= s.length()) break;
+                char e = s.charAt(pos++);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > s.length()) throw error("Bad unicode escape");
+                        sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: sb.append(e);
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        Object literal(String word, Object value) {
+            if (!s.startsWith(word, pos)) throw error("Unexpected token");
+            pos += word.length();
+            return value;
+        }
+
+        BigDecimal number() {
+            int start = pos;
+            while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) pos++;
+            if (start == pos) throw error("Unexpected character");
+            try {
+                return new BigDecimal(s.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("Bad number");
+            }
+        }
+    }
+}
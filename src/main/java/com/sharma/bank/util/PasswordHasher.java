@@ -0,0 +1,78 @@
+package com.sharma.bank.util;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+// Single place that knows the BCrypt cost.
+// The cost comes from -Dbank.bcrypt.cost (default 10, same as BCrypt.gensalt()).
+public class PasswordHasher {
+
+    public static final int DEFAULT_COST = 10;
+
+    private static final int COST = readCost();
+
+    private static int readCost() {
+        String value = System.getProperty("bank.bcrypt.cost");
+        if (value == null || value.isBlank()) {
+            return DEFAULT_COST;
+        }
+        try {
+            int cost = Integer.parseInt(value.trim());
+            if (cost >= 4 && cost <= 31) {
+                return cost;
+            }
+        } catch (NumberFormatException ignored) {
+            // fall through
+        }
+        System.out.println("⚠️ Invalid bank.bcrypt.cost '" + value + "', using " + DEFAULT_COST);
+        return DEFAULT_COST;
+    }
+
+    // Hash with the configured cost, computed at class load so the first
+    // unknown-user login doesn't pay for a second BCrypt round
+    private static final String DUMMY_HASH = BCrypt.hashpw("not-a-real-password", BCrypt.gensalt(COST));
+
+    public static int configuredCost() {
+        return COST;
+    }
+
+    // 1) Hash a plain password with the configured cost
+    public static String hash(String plainPassword) {
+        return BCrypt.hashpw(plainPassword, BCrypt.gensalt(COST));
+    }
+
+    // 2) Check a password. A missing hash (unknown user) is checked against a
+    //    dummy hash of the same cost so both paths take the same time.
+    public static boolean verify(String plainPassword, String storedHash) {
+        if (storedHash == null || !storedHash.startsWith("$2")) {
+            BCrypt.checkpw(plainPassword == null ? "" : plainPassword, DUMMY_HASH);
+            return false;
+        }
+        try {
+            return BCrypt.checkpw(plainPassword, storedHash);
+        } catch (IllegalArgumentException e) {
+            // corrupt hash in the DB
+            return false;
+        }
+    }
+
+    // 3) True when the stored hash was made with a different cost than configured
+    public static boolean needsRehash(String storedHash) {
+        return costOf(storedHash) != COST;
+    }
+
+    // "$2a$10$..." -> 10, or -1 if it is not a BCrypt hash
+    public static int costOf(String storedHash) {
+        if (storedHash == null || storedHash.length() < 7 || storedHash.charAt(0) != '$') {
+            return -1;
+        }
+        int costStart = storedHash.indexOf('$', 1) + 1;
+        if (costStart <= 0 || costStart + 2 > storedHash.length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(storedHash.substring(costStart, costStart + 2));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
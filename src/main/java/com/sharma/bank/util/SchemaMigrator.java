@@ -0,0 +1,342 @@
+package com.sharma.bank.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// Versioned schema migrations, applied at startup.
+//
+// Scripts live on the classpath in db/migration, named V<version>__<description>.sql
+// and listed in order in db/migration/migrations.txt (a jar can't be listed
+// reliably). Each script runs in its own DB transaction and is recorded in
+// schema_version with a checksum; an applied script that has since changed
+// stops startup instead of silently drifting.
+//
+// A script whose first line is "-- migrate:no-transaction" runs statement by
+// statement instead, each committing on its own (for CREATE INDEX CONCURRENTLY,
+// or a long VALIDATE that must not sit inside the same transaction as the
+// locks that follow). Its statements end at a line ending in ';' outside a
+// $$ body; all but the last must be safe to re-run, and the last commits
+// together with the schema_version row. A statement headed by the comment
+// "-- migrate:execute-results" is a query whose rows are SQL: each one is run
+// as a statement of its own (e.g. CREATE INDEX CONCURRENTLY per partition).
+//
+// A PostgreSQL advisory lock makes concurrent starts (UI + API server +
+// scheduler) safe: one node migrates, the others wait and then see nothing to do.
+public class SchemaMigrator {
+
+    private static final String LOCATION = "db/migration/";
+    private static final String INDEX = LOCATION + "migrations.txt";
+    private static final Pattern NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String NO_TRANSACTION = "-- migrate:no-transaction";
+    private static final String EXECUTE_RESULTS = "-- migrate:execute-results";
+
+    // Arbitrary but fixed key for pg_advisory_lock
+    private static final long LOCK_KEY = 0x62616E6B5F6D6967L;
+
+    private static final String CREATE_VERSION_SQL =
+            "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "  version       INT PRIMARY KEY," +
+            "  description   VARCHAR(200) NOT NULL," +
+            "  checksum      BIGINT NOT NULL," +
+            "  execution_ms  BIGINT NOT NULL," +
+            "  applied_at    TIMESTAMP NOT NULL DEFAULT NOW()" +
+            ")";
+
+    private static volatile boolean migrated = false;
+
+    public static class Migration {
+        final int version;
+        final String description;
+        final String sql;
+        final long checksum;
+        final boolean transactional;
+
+        Migration(int version, String description, String sql) {
+            this.version = version;
+            this.description = description;
+            this.sql = sql;
+            this.checksum = checksum(sql);
+            this.transactional = !sql.startsWith(NO_TRANSACTION);
+        }
+
+        public int getVersion() { return version; }
+        public String getDescription() { return description; }
+    }
+
+    // Once per JVM; every entry point calls this before touching the DB.
+    // -Dbank.db.migrate=false skips it (schema managed elsewhere).
+    public static synchronized void migrateOnce() throws SQLException {
+        if (migrated || !Boolean.parseBoolean(System.getProperty("bank.db.migrate", "true"))) return;
+
+        try (Connection conn = DBConnection.getConnection()) {
+            int applied = migrate(conn, load());
+            if (applied > 0) {
+                System.out.println("✅ Applied " + applied + " schema migration(s)");
+            }
+            ensureTransactionPartitions(conn);
+        }
+        migrated = true;
+    }
+
+    // Monthly transactions partitions must exist before the month starts,
+    // or inserts fail. Cheap when they already do; also run by TransactionArchiveJob.
+    private static void ensureTransactionPartitions(Connection conn) throws SQLException {
+        int monthsAhead = Integer.getInteger("bank.db.partitionMonthsAhead", 3);
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT ensure_transaction_partitions(?)")) {
+            stmt.setInt(1, monthsAhead);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    System.out.println("✅ Created " + rs.getInt(1) + " transactions partition(s)");
+                }
+            }
+        }
+    }
+
+    // Applies every migration newer than schema_version; returns how many ran
+    public static int migrate(Connection conn, List<Migration> migrations) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+        }
+
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(CREATE_VERSION_SQL);
+            }
+
+            Map<Integer, Long> done = appliedChecksums(conn);
+            int applied = 0;
+
+            for (Migration m : migrations) {
+                Long checksum = done.get(m.version);
+                if (checksum != null) {
+                    if (checksum != m.checksum) {
+                        throw new SQLException("Migration V" + m.version + " (" + m.description +
+                                ") changed after it was applied; add a new version instead");
+                    }
+                    continue;
+                }
+                apply(conn, m);
+                applied++;
+            }
+            return applied;
+
+        } finally {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+            }
+        }
+    }
+
+    private static Map<Integer, Long> appliedChecksums(Connection conn) throws SQLException {
+        Map<Integer, Long> done = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                done.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return done;
+    }
+
+    private static void apply(Connection conn, Migration m) throws SQLException {
+        long start = System.nanoTime();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+
+        try {
+            if (m.transactional) {
+                // pgjdbc splits multi-statement scripts itself (dollar quotes included)
+                execute(conn, m, m.sql);
+            } else {
+                List<String> statements = splitStatements(m.sql);
+                conn.setAutoCommit(true);
+                for (int i = 0; i < statements.size(); i++) {
+                    if (i == statements.size() - 1) {
+                        conn.setAutoCommit(false);
+                    }
+                    if (executesResults(statements.get(i))) {
+                        for (String generated : generatedStatements(conn, statements.get(i))) {
+                            execute(conn, m, generated);
+                        }
+                    } else {
+                        execute(conn, m, statements.get(i));
+                    }
+                }
+            }
+
+            String sql = "INSERT INTO schema_version (version, description, checksum, execution_ms) " +
+                         "VALUES (?, ?, ?, ?)";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, m.version);
+                stmt.setString(2, m.description);
+                stmt.setLong(3, m.checksum);
+                stmt.setLong(4, (System.nanoTime() - start) / 1_000_000);
+                stmt.executeUpdate();
+            }
+
+            conn.commit();
+            System.out.println("✅ Migrated schema to V" + m.version + " (" + m.description + ")");
+
+        } catch (SQLException | RuntimeException e) {
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+            }
+            System.out.println(m.transactional
+                    ? "❌ Migration V" + m.version + " failed, rolled back."
+                    : "❌ Migration V" + m.version + " failed; statements before the failing one stay committed.");
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    // RAISE WARNING in a script is how it reports data an operator must fix
+    private static void execute(Connection conn, Migration m, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+            for (SQLWarning w = stmt.getWarnings(); w != null; w = w.getNextWarning()) {
+                System.out.println("⚠️ Migration V" + m.version + ": " + w.getMessage());
+            }
+        }
+    }
+
+    // ===========================
+    // LOADING SCRIPTS
+    // ===========================
+    public static List<Migration> load() throws SQLException {
+        List<Migration> migrations = new ArrayList<>();
+        int last = 0;
+
+        for (String name : readLines(INDEX)) {
+            Matcher matcher = NAME.matcher(name);
+            if (!matcher.matches()) {
+                throw new SQLException("Bad migration name: " + name);
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            if (version <= last) {
+                throw new SQLException("Migrations out of order at " + name);
+            }
+            last = version;
+
+            String sql = String.join("\n", readLines(LOCATION + name, false));
+            migrations.add(new Migration(version, matcher.group(2).replace('_', ' '), sql));
+        }
+        return migrations;
+    }
+
+    private static List<String> readLines(String resource) throws SQLException {
+        List<String> names = new ArrayList<>();
+        for (String line : readLines(resource, true)) {
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                names.add(line);
+            }
+        }
+        return names;
+    }
+
+    private static List<String> readLines(String resource, boolean trim) throws SQLException {
+        InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new SQLException("Missing migration resource: " + resource);
+        }
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(trim ? line.trim() : line);
+            }
+        } catch (IOException e) {
+            throw new SQLException("Cannot read " + resource, e);
+        }
+        return lines;
+    }
+
+    // Statements of a no-transaction script: each ends at a code line ending in
+    // ';' that is not inside a $$ body. Comment-only chunks are dropped.
+    static List<String> splitStatements(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inBody = false;
+        boolean hasCode = false;
+
+        for (String line : sql.split("\r?\n")) {
+            current.append(line).append('\n');
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            hasCode = true;
+            for (int i = line.indexOf("$$"); i >= 0; i = line.indexOf("$$", i + 2)) {
+                inBody = !inBody;
+            }
+            if (!inBody && trimmed.endsWith(";")) {
+                if (hasCode) {
+                    statements.add(current.toString().trim());
+                }
+                current.setLength(0);
+                hasCode = false;
+            }
+        }
+        if (hasCode) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    // True when the statement's comment header asks for its rows to be run
+    static boolean executesResults(String statement) {
+        for (String line : statement.split("\r?\n")) {
+            String trimmed = line.trim();
+            if (trimmed.equals(EXECUTE_RESULTS)) return true;
+            if (!trimmed.isEmpty() && !trimmed.startsWith("--")) return false;
+        }
+        return false;
+    }
+
+    // The query's rows, read in full before the first one runs
+    private static List<String> generatedStatements(Connection conn, String query) throws SQLException {
+        List<String> generated = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                generated.add(rs.getString(1));
+            }
+        }
+        return generated;
+    }
+
+    static long checksum(String sql) {
+        CRC32 crc = new CRC32();
+        crc.update(sql.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    // Usage: SchemaMigrator   (migrates the configured database and exits)
+    public static void main(String[] args) {
+        try {
+            migrateOnce();
+            System.out.println("✅ Schema is up to date.");
+        } catch (SQLException e) {
+            System.out.println("Schema migration failed:");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
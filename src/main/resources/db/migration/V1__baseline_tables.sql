@@ -0,0 +1,29 @@
+-- Core tables the DAOs have always assumed. IF NOT EXISTS so an existing
+-- database is adopted as-is at version 1.
+
+CREATE TABLE IF NOT EXISTS users (
+    user_id        SERIAL PRIMARY KEY,
+    full_name      VARCHAR(100) NOT NULL,
+    email          VARCHAR(255) NOT NULL UNIQUE,
+    password_hash  VARCHAR(255) NOT NULL,
+    created_at     TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS accounts (
+    account_id      SERIAL PRIMARY KEY,
+    user_id         INT NOT NULL REFERENCES users(user_id),
+    account_number  VARCHAR(32) NOT NULL UNIQUE,
+    account_type    VARCHAR(20) NOT NULL,
+    balance         NUMERIC(15,2) NOT NULL DEFAULT 0,
+    status          VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+    created_at      TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    transaction_id    SERIAL PRIMARY KEY,
+    account_id        INT NOT NULL REFERENCES accounts(account_id),
+    amount            NUMERIC(15,2) NOT NULL,
+    transaction_type  VARCHAR(20) NOT NULL,
+    description       VARCHAR(255),
+    created_at        TIMESTAMP NOT NULL DEFAULT NOW()
+);
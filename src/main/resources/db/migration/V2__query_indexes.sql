@@ -0,0 +1,52 @@
+-- migrate:no-transaction
+-- Indexes behind the hot DAO queries.
+--
+-- Built CONCURRENTLY, one statement at a time: an existing database keeps
+-- taking inserts and sign-ups while they build. A build that fails leaves an
+-- INVALID index, which the last statement reports; drop it and restart.
+
+-- History, keyset pages, daily-limit seeding, reconciliation and rollup backfill:
+-- WHERE account_id = ? [AND created_at ...] ORDER BY created_at DESC, transaction_id DESC.
+-- Both keys DESC so the (created_at, transaction_id) < (?, ?) page scan is a
+-- single forward index range.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_account_created
+    ON transactions (account_id, created_at DESC, transaction_id DESC);
+
+-- getAccountsByUserId: WHERE user_id = ? ORDER BY created_at
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_accounts_user_created
+    ON accounts (user_id, created_at);
+
+-- Every email lookup is lower(email) = lower(?); the unique index also makes
+-- "Bob@x.com" and "bob@x.com" the same account at the database level.
+-- Nothing used to stop such pairs being registered, and a unique build over
+-- them would fail: while any exist, only a plain index is built and the
+-- pairs are reported below. Once merged or renamed, drop
+-- idx_users_email_lower and create uq_users_email_lower by hand.
+-- migrate:execute-results
+SELECT CASE
+    WHEN EXISTS (SELECT 1 FROM users GROUP BY lower(email) HAVING count(*) > 1)
+    THEN 'CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_lower ON users (lower(email))'
+    ELSE 'CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uq_users_email_lower ON users (lower(email))'
+END;
+
+DO $$
+DECLARE
+    dupes TEXT;
+    invalid TEXT;
+BEGIN
+    SELECT string_agg(email, ', ' ORDER BY email) INTO dupes
+    FROM (SELECT lower(email) AS email FROM users GROUP BY lower(email) HAVING count(*) > 1) d;
+    IF dupes IS NOT NULL THEN
+        RAISE WARNING 'emails registered more than once with different case: %', dupes;
+    END IF;
+
+    SELECT string_agg(c.relname, ', ') INTO invalid
+    FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+    WHERE NOT i.indisvalid
+      AND c.relname IN ('idx_transactions_account_created', 'idx_accounts_user_created',
+                        'uq_users_email_lower', 'idx_users_email_lower');
+    IF invalid IS NOT NULL THEN
+        RAISE EXCEPTION 'index build failed, drop and restart: %', invalid;
+    END IF;
+END
+$$;
@@ -0,0 +1,73 @@
+-- Tables the DAOs used to create on first use (CREATE ... IF NOT EXISTS at
+-- runtime). IF NOT EXISTS again so databases that already have them are adopted.
+
+-- One row per account per day (RollupDAO)
+CREATE TABLE IF NOT EXISTS daily_account_rollups (
+    account_id          INT NOT NULL,
+    day                 DATE NOT NULL,
+    opening_balance     NUMERIC(15,2) NOT NULL,
+    closing_balance     NUMERIC(15,2) NOT NULL,
+    deposit_count       INT NOT NULL DEFAULT 0,
+    deposit_total       NUMERIC(15,2) NOT NULL DEFAULT 0,
+    withdrawal_count    INT NOT NULL DEFAULT 0,
+    withdrawal_total    NUMERIC(15,2) NOT NULL DEFAULT 0,
+    transfer_in_count   INT NOT NULL DEFAULT 0,
+    transfer_in_total   NUMERIC(15,2) NOT NULL DEFAULT 0,
+    transfer_out_count  INT NOT NULL DEFAULT 0,
+    transfer_out_total  NUMERIC(15,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (account_id, day)
+);
+
+-- Account number blocks (AccountNumberGenerator)
+CREATE SEQUENCE IF NOT EXISTS account_number_block_seq START 1;
+
+-- Future-dated and recurring transfers (ScheduledTransferDAO)
+CREATE TABLE IF NOT EXISTS scheduled_transfers (
+    schedule_id      BIGSERIAL PRIMARY KEY,
+    from_account_id  INT NOT NULL REFERENCES accounts(account_id),
+    to_account_id    INT NOT NULL REFERENCES accounts(account_id),
+    amount           NUMERIC(15,2) NOT NULL CHECK (amount > 0),
+    description      VARCHAR(255),
+    repeat_interval  VARCHAR(10) NOT NULL DEFAULT 'NONE',
+    next_run_at      TIMESTAMP NOT NULL,
+    due_bucket       BIGINT NOT NULL,
+    status           VARCHAR(12) NOT NULL DEFAULT 'ACTIVE',
+    attempts         INT NOT NULL DEFAULT 0,
+    last_error       VARCHAR(255),
+    last_run_at      TIMESTAMP,
+    created_at       TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_scheduled_transfers_due
+    ON scheduled_transfers (due_bucket, schedule_id) WHERE status = 'ACTIVE';
+
+CREATE INDEX IF NOT EXISTS idx_scheduled_transfers_from
+    ON scheduled_transfers (from_account_id) WHERE status = 'ACTIVE';
+
+-- Per-day interest markers (InterestDAO)
+CREATE TABLE IF NOT EXISTS interest_accruals (
+    account_id    INT NOT NULL REFERENCES accounts(account_id),
+    accrual_date  DATE NOT NULL,
+    balance       NUMERIC(15,2) NOT NULL,
+    annual_rate   NUMERIC(9,6) NOT NULL,
+    interest      NUMERIC(24,12) NOT NULL,
+    credited      NUMERIC(15,2) NOT NULL,
+    carry         NUMERIC(24,12) NOT NULL,
+    created_at    TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (account_id, accrual_date)
+);
+
+-- Transactional outbox + relay positions (OutboxDAO)
+CREATE TABLE IF NOT EXISTS ledger_outbox (
+    event_id    BIGSERIAL PRIMARY KEY,
+    account_id  INT NOT NULL,
+    event_type  VARCHAR(30) NOT NULL,
+    payload     TEXT NOT NULL,
+    created_at  TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS outbox_consumer_offsets (
+    consumer       VARCHAR(64) PRIMARY KEY,
+    last_event_id  BIGINT NOT NULL,
+    updated_at     TIMESTAMP NOT NULL DEFAULT NOW()
+);
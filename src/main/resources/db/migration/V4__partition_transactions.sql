@@ -0,0 +1,103 @@
+-- migrate:no-transaction
+-- Monthly range partitioning of transactions by created_at.
+--
+-- The existing table is kept (no row copy) as transactions_legacy and attached
+-- as the partition for everything before the month after next. From then on
+-- every month gets its own partition, transactions_pYYYY_MM; the first few are
+-- created here, later ones ahead of time by the application.
+-- Every index on the parent is created on each partition automatically.
+--
+-- The legacy table can be large, so nothing below scans or rebuilds it while
+-- holding a lock that stops writes. Each statement commits on its own:
+--   1. a NOT VALID check of the future partition bound (instant),
+--   2. VALIDATE, which scans but lets reads and writes through,
+--   3. the (transaction_id, created_at) key built CONCURRENTLY,
+--   4. the swap: SET NOT NULL and ATTACH PARTITION are proven by the validated
+--      check instead of a scan, and the new key becomes the partition's key.
+-- Steps 1-3 are safe to re-run; step 4 commits together with its
+-- schema_version row. If step 3 fails it leaves an INVALID index: drop
+-- transactions_legacy_id_created_key before restarting.
+-- The bound is two months out so inserts made while steps 2-3 run never
+-- reach it, even across a month end.
+
+DO $$
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'transactions'::regclass) = 'p' THEN
+        RETURN;                                 -- already partitioned
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'transactions'::regclass AND conname = 'transactions_legacy_bound') THEN
+        EXECUTE format('ALTER TABLE transactions ADD CONSTRAINT transactions_legacy_bound '
+                       'CHECK (created_at IS NOT NULL AND created_at < %L) NOT VALID',
+                       (date_trunc('month', NOW()) + INTERVAL '2 months')::date);
+    END IF;
+END
+$$;
+
+DO $$
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'transactions'::regclass) <> 'p' THEN
+        ALTER TABLE transactions VALIDATE CONSTRAINT transactions_legacy_bound;
+    END IF;
+END
+$$;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS transactions_legacy_id_created_key
+    ON transactions (transaction_id, created_at);
+
+DO $$
+DECLARE
+    bound DATE := (date_trunc('month', NOW()) + INTERVAL '2 months')::date;
+    seq TEXT;
+    old_pkey TEXT;
+    m DATE;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'transactions'::regclass) = 'p' THEN
+        RETURN;                                 -- already partitioned
+    END IF;
+
+    ALTER TABLE transactions RENAME TO transactions_legacy;
+    ALTER INDEX IF EXISTS idx_transactions_account_created
+        RENAME TO transactions_legacy_account_created_idx;
+
+    -- Unique keys on a partitioned table must contain the partition key.
+    -- SET NOT NULL is proven by the check, not by a scan; the prebuilt index
+    -- then replaces the id-only primary key, so ATTACH adopts it.
+    ALTER TABLE transactions_legacy ALTER COLUMN created_at SET NOT NULL;
+    SELECT conname INTO old_pkey FROM pg_constraint
+    WHERE conrelid = 'transactions_legacy'::regclass AND contype = 'p';
+    IF old_pkey IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE transactions_legacy DROP CONSTRAINT %I', old_pkey);
+    END IF;
+    ALTER TABLE transactions_legacy
+        ADD CONSTRAINT transactions_legacy_pkey PRIMARY KEY USING INDEX transactions_legacy_id_created_key;
+
+    -- Same columns, types and defaults (including the id sequence)
+    CREATE TABLE transactions (LIKE transactions_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+        PARTITION BY RANGE (created_at);
+    ALTER TABLE transactions DROP CONSTRAINT transactions_legacy_bound;
+    ALTER TABLE transactions ADD PRIMARY KEY (transaction_id, created_at);
+    ALTER TABLE transactions ADD FOREIGN KEY (account_id) REFERENCES accounts(account_id);
+
+    -- The id sequence must outlive the legacy partition (it may be archived and dropped)
+    seq := pg_get_serial_sequence('transactions_legacy', 'transaction_id');
+    IF seq IS NOT NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s OWNED BY transactions.transaction_id', seq);
+    END IF;
+
+    -- No validation scan: the check implies the partition bound
+    ALTER TABLE transactions ATTACH PARTITION transactions_legacy
+        FOR VALUES FROM (MINVALUE) TO (bound);
+    ALTER TABLE transactions_legacy DROP CONSTRAINT transactions_legacy_bound;
+
+    CREATE INDEX idx_transactions_account_created
+        ON transactions (account_id, created_at DESC, transaction_id DESC);
+
+    m := bound;
+    WHILE m < bound + INTERVAL '3 months' LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                       'transactions_p' || to_char(m, 'YYYY_MM'), m, (m + INTERVAL '1 month')::date);
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+END
+$$;
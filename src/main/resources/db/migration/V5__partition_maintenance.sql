@@ -0,0 +1,36 @@
+-- Creates the monthly transactions partitions from the current month up to
+-- months_ahead months out; returns how many were new. Months still covered by
+-- an older, wider partition (transactions_legacy) are skipped.
+CREATE OR REPLACE FUNCTION ensure_transaction_partitions(months_ahead INT) RETURNS INT AS $$
+DECLARE
+    m DATE := date_trunc('month', NOW())::date;
+    last_month DATE := (date_trunc('month', NOW()) + make_interval(months => months_ahead))::date;
+    part TEXT;
+    created INT := 0;
+BEGIN
+    WHILE m <= last_month LOOP
+        part := 'transactions_p' || to_char(m, 'YYYY_MM');
+        IF to_regclass(part) IS NULL THEN
+            BEGIN
+                EXECUTE format('CREATE TABLE %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                               part, m, (m + INTERVAL '1 month')::date);
+                created := created + 1;
+            EXCEPTION WHEN invalid_object_definition THEN
+                NULL;                           -- would overlap an older partition
+            END;
+        END IF;
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END
+$$ LANGUAGE plpgsql;
+
+-- Partitions that were exported to archive files and dropped
+CREATE TABLE IF NOT EXISTS transaction_archives (
+    partition_name  VARCHAR(63) PRIMARY KEY,
+    range_from      TIMESTAMP,                  -- NULL = unbounded (legacy partition)
+    range_to        TIMESTAMP NOT NULL,
+    file_name       VARCHAR(255) NOT NULL,
+    row_count       BIGINT NOT NULL,
+    archived_at     TIMESTAMP NOT NULL DEFAULT NOW()
+);
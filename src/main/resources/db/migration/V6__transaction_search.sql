@@ -0,0 +1,53 @@
+-- migrate:no-transaction
+-- Full-text search over transaction descriptions (TransactionDAO.searchTransactions).
+--
+-- 'simple' configuration: descriptions are short labels ("Rent (to AC-1042)",
+-- names, references), so no stemming or stop words - every token is searchable.
+-- btree_gin lets account_id live in the same GIN index, so a search only
+-- touches the searcher's own rows instead of every match bank-wide.
+--
+-- A plain CREATE INDEX on the partitioned parent would lock every partition
+-- against writes for the whole build, transactions_legacy (the entire
+-- history, and where current inserts go) included. Instead:
+--   1. the parent's index alone (ON ONLY: no partition touched, left invalid),
+--   2. each partition's index built CONCURRENTLY, reads and writes going on,
+--   3. each one attached to the parent's; with all attached it becomes valid
+--      and partitions created from then on get theirs automatically.
+-- Steps 1-3 are safe to re-run. If step 2 fails it leaves an INVALID index:
+-- drop <partition>_search_idx before restarting.
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX IF NOT EXISTS idx_transactions_account_search
+    ON ONLY transactions USING gin (account_id, to_tsvector('simple', coalesce(description, '')));
+
+-- migrate:execute-results
+SELECT format('CREATE INDEX CONCURRENTLY IF NOT EXISTS %I ON %I '
+              'USING gin (account_id, to_tsvector(''simple'', coalesce(description, '''')))',
+              c.relname || '_search_idx', c.relname)
+FROM pg_inherits p
+JOIN pg_class c ON c.oid = p.inhrelid
+WHERE p.inhparent = 'transactions'::regclass
+  AND NOT EXISTS (SELECT 1 FROM pg_inherits a JOIN pg_index i ON i.indexrelid = a.inhrelid
+                  WHERE a.inhparent = 'idx_transactions_account_search'::regclass
+                    AND i.indrelid = c.oid)
+ORDER BY c.relname;
+
+-- migrate:execute-results
+SELECT format('ALTER INDEX idx_transactions_account_search ATTACH PARTITION %I', c.relname || '_search_idx')
+FROM pg_inherits p
+JOIN pg_class c ON c.oid = p.inhrelid
+WHERE p.inhparent = 'transactions'::regclass
+  AND NOT EXISTS (SELECT 1 FROM pg_inherits a JOIN pg_index i ON i.indexrelid = a.inhrelid
+                  WHERE a.inhparent = 'idx_transactions_account_search'::regclass
+                    AND i.indrelid = c.oid)
+ORDER BY c.relname;
+
+DO $$
+BEGIN
+    IF NOT (SELECT indisvalid FROM pg_index
+            WHERE indexrelid = 'idx_transactions_account_search'::regclass) THEN
+        RAISE EXCEPTION 'idx_transactions_account_search is missing a partition''s index; '
+                        'drop any INVALID <partition>_search_idx and restart';
+    END IF;
+END
+$$;
@@ -0,0 +1,15 @@
+-- Push channel for open UI sessions (LedgerEventBus): every ledger event
+-- raises NOTIFY ledger_events with the account id as payload. Notifications
+-- are delivered at COMMIT only, and PostgreSQL folds identical payloads of one
+-- transaction, so a 1000-row payroll batch still notifies each account once.
+CREATE OR REPLACE FUNCTION notify_ledger_event() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('ledger_events', NEW.account_id::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_ledger_outbox_notify ON ledger_outbox;
+CREATE TRIGGER trg_ledger_outbox_notify
+    AFTER INSERT ON ledger_outbox
+    FOR EACH ROW EXECUTE FUNCTION notify_ledger_event();
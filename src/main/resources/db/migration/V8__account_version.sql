@@ -0,0 +1,17 @@
+-- Row version for accounts, bumped by every UPDATE of balance or status
+-- whoever makes it. BalanceIndex keeps it next to each cached balance:
+-- balance writes from the cache are conditional on it (UPDATE ... WHERE
+-- version = ?), and a cached value is never replaced by an older version.
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION bump_account_version() RETURNS trigger AS $$
+BEGIN
+    NEW.version := OLD.version + 1;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_accounts_version ON accounts;
+CREATE TRIGGER trg_accounts_version
+    BEFORE UPDATE OF balance, status ON accounts
+    FOR EACH ROW EXECUTE FUNCTION bump_account_version();
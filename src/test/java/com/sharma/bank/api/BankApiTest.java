@@ -0,0 +1,72 @@
+package com.sharma.bank.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.Test;
+
+import com.sharma.bank.service.AuthService;
+
+public class BankApiTest
+{
+    // Only routes that never reach the database
+    private final BankApi api = new BankApi(new AuthService(), null);
+
+    private static ApiRequest request(String method, String path, String body, String auth)
+    {
+        return new ApiRequest(method, path, null, body, auth);
+    }
+
+    @Test
+    public void cursorRoundTrips()
+    {
+        LocalDateTime at = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000);
+        String cursor = BankApi.encodeCursor(at, 42);
+
+        BankApi.Cursor decoded = BankApi.decodeCursor(cursor);
+        assertEquals(at, decoded.createdAt);
+        assertEquals(42, decoded.transactionId);
+    }
+
+    @Test
+    public void tamperedCursorsAreBadRequests()
+    {
+        String badDate = Base64.getUrlEncoder().encodeToString("yesterday|42".getBytes(StandardCharsets.UTF_8));
+        String badId = Base64.getUrlEncoder().encodeToString("2024-03-01T12:30|x".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : new String[] { badDate, badId, "%%%", "bm8tc2VwYXJhdG9y" }) {
+            try {
+                BankApi.decodeCursor(cursor);
+                fail("accepted " + cursor);
+            } catch (BankApi.ApiException e) {
+                assertEquals(400, e.status);
+            }
+        }
+    }
+
+    @Test
+    public void healthAndUnknownRoutes()
+    {
+        assertEquals(200, api.handle(request("GET", "/health", "", null)).getStatus());
+        assertEquals(404, api.handle(request("GET", "/nope", "", null)).getStatus());
+    }
+
+    @Test
+    public void protectedRoutesNeedASession()
+    {
+        assertEquals(401, api.handle(request("GET", "/api/accounts", "", null)).getStatus());
+        assertEquals(401, api.handle(request("GET", "/api/accounts", "", "Bearer not-a-token")).getStatus());
+    }
+
+    @Test
+    public void badLoginBodiesAreRejected()
+    {
+        assertEquals(400, api.handle(request("POST", "/api/login", "{not json", null)).getStatus());
+        assertEquals(400, api.handle(request("POST", "/api/login", "{\"email\":\"a@b.c\"}", null)).getStatus());
+        assertEquals(405, api.handle(request("GET", "/api/login", "", null)).getStatus());
+    }
+}
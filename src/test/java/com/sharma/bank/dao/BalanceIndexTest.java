@@ -0,0 +1,121 @@
+package com.sharma.bank.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class BalanceIndexTest
+{
+    @Test
+    public void keepsOnlyTheNewestVersion()
+    {
+        BalanceIndex index = new BalanceIndex(64);
+
+        assertTrue(index.put(7, 3, new BigDecimal("125.50"), "ACTIVE", 4, index.stamps()));
+        assertFalse(index.put(7, 3, new BigDecimal("100.00"), "ACTIVE", 3, index.stamps()));    // lagging replica read
+
+        BalanceIndex.Snapshot s = index.get(7);
+        assertEquals(new BigDecimal("125.50"), s.getBalance());
+        assertEquals(12550, s.getBalanceMinor());
+        assertEquals(3, s.getUserId());
+        assertEquals("ACTIVE", s.getStatus());
+        assertEquals(4, s.getVersion());
+        assertNull(index.get(8));
+    }
+
+    @Test
+    public void invalidatedEntryNeedsANewerVersion()
+    {
+        BalanceIndex index = new BalanceIndex(64);
+        index.put(7, 3, new BigDecimal("10.00"), "ACTIVE", 4, index.stamps());
+
+        index.invalidate(7);
+        assertNull(index.get(7));
+
+        // A read that started before the write still sees version 4
+        assertFalse(index.put(7, 3, new BigDecimal("10.00"), "ACTIVE", 4, index.stamps()));
+        assertNull(index.get(7));
+
+        assertTrue(index.put(7, 3, new BigDecimal("15.00"), "ACTIVE", 5, index.stamps()));
+        assertEquals(new BigDecimal("15.00"), index.get(7).getBalance());
+    }
+
+    @Test
+    public void invalidationOfAnUncachedAccountDropsARacingRead()
+    {
+        BalanceIndex index = new BalanceIndex(64);
+
+        // The read's snapshot predates a commit announced while it ran
+        long[] before = index.stamps();
+        index.invalidate(7);
+        assertFalse(index.put(7, 3, new BigDecimal("10.00"), "ACTIVE", 4, before));
+        assertNull(index.get(7));
+
+        // Other stripes are unaffected
+        assertTrue(index.put(8, 3, new BigDecimal("10.00"), "ACTIVE", 4, before));
+        assertTrue(index.put(7, 3, new BigDecimal("15.00"), "ACTIVE", 5, index.stamps()));
+    }
+
+    @Test
+    public void stopsAddingAccountsAtTheLoadLimit()
+    {
+        BalanceIndex index = new BalanceIndex(16);
+
+        int added = 0;
+        for (int id = 1; id <= 100; id++) {
+            if (index.put(id, 1, BigDecimal.ONE, "ACTIVE", 0, index.stamps())) added++;
+        }
+        assertEquals(index.size(), added);
+        assertTrue(added < index.getCapacity());
+        for (int id = 1; id <= added; id++) {
+            assertEquals(BigDecimal.valueOf(100, 2), index.get(id).getBalance());
+        }
+        assertNull(index.get(100));
+
+        // Sub-cent amounts can't be stored exactly: not cached
+        assertFalse(index.put(1, 1, new BigDecimal("1.005"), "ACTIVE", 1, index.stamps()));
+        assertNull(index.get(1));
+    }
+
+    @Test
+    public void readersNeverSeeATornSlot() throws Exception
+    {
+        BalanceIndex index = new BalanceIndex(64);
+        index.put(1, 1, BigDecimal.ZERO, "ACTIVE", 0, index.stamps());
+
+        // Writer keeps balance == version cents; a torn read would break that
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (long v = 1; v <= 200_000; v++) {
+                index.put(1, 1, BigDecimal.valueOf(v, 2), "ACTIVE", v, index.stamps());
+            }
+            done.set(true);
+        });
+
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                BalanceIndex.Snapshot s = index.get(1);
+                if (s.getBalanceMinor() != s.getVersion()) {
+                    failure.set("balance " + s.getBalanceMinor() + " at version " + s.getVersion());
+                    return;
+                }
+            }
+        });
+
+        reader.start();
+        writer.start();
+        writer.join();
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(200_000, index.get(1).getVersion());
+    }
+}
@@ -0,0 +1,83 @@
+package com.sharma.bank.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sharma.bank.model.Transaction;
+
+public class HistoryPageCacheTest
+{
+    private static List<Transaction> page(int accountId, int rows)
+    {
+        List<Transaction> list = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            list.add(new Transaction(i + 1, accountId, new BigDecimal("10.00"), "DEPOSIT", "Pay",
+                    LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i)));
+        }
+        return list;
+    }
+
+    @Test
+    public void writeInvalidatesOnlyThatAccount()
+    {
+        HistoryPageCache cache = new HistoryPageCache(1024 * 1024);
+        LocalDateTime cursor = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        cache.put(1, null, 0, 20, page(1, 20), cache.stamp(1));
+        cache.put(1, cursor, 7, 20, page(1, 20), cache.stamp(1));
+        cache.put(2, null, 0, 20, page(2, 20), cache.stamp(2));
+
+        assertEquals(20, cache.get(1, null, 0, 20).size());
+        assertNull(cache.get(1, null, 0, 50));              // different page size
+        assertNull(cache.get(1, cursor, 8, 20));            // different cursor
+
+        cache.invalidate(1);
+        assertNull(cache.get(1, null, 0, 20));
+        assertNull(cache.get(1, cursor, 7, 20));
+        assertNotNull(cache.get(2, null, 0, 20));
+        assertEquals(1, cache.size());
+
+        HistoryPageCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(4, stats.getMisses());
+        assertEquals(0.333, stats.getHitRatio(), 0.001);
+    }
+
+    @Test
+    public void pageReadBeforeAnInvalidationIsNotCached()
+    {
+        HistoryPageCache cache = new HistoryPageCache(1024 * 1024);
+
+        long stamp = cache.stamp(1);
+        cache.invalidate(1);                                // a write committed meanwhile
+        cache.put(1, null, 0, 20, page(1, 20), stamp);
+
+        assertNull(cache.get(1, null, 0, 20));
+        assertEquals(1, cache.getStats().getRejected());
+    }
+
+    @Test
+    public void leastRecentlyUsedPagesAreEvictedToStayUnderBudget()
+    {
+        HistoryPageCache cache = new HistoryPageCache(20_000);
+
+        for (int account = 1; account <= 10; account++) {
+            cache.put(account, null, 0, 20, page(account, 20), cache.stamp(account));
+            cache.get(1, null, 0, 20);                      // keep account 1 hot
+        }
+
+        assertTrue(cache.getEstimatedBytes() <= 20_000);
+        assertTrue(cache.getStats().getEvictions() > 0);
+        assertNotNull(cache.get(1, null, 0, 20));
+        assertNull(cache.get(2, null, 0, 20));
+    }
+}
@@ -0,0 +1,39 @@
+package com.sharma.bank.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.LocalDateTime;
+
+import org.junit.Test;
+
+public class PartitionDAOTest
+{
+    @Test
+    public void parsesMonthlyBounds()
+    {
+        PartitionDAO.TxPartition p = PartitionDAO.parseBound("transactions_p2024_01",
+                "FOR VALUES FROM ('2024-01-01 00:00:00') TO ('2024-02-01 00:00:00')");
+
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0), p.getFrom());
+        assertEquals(LocalDateTime.of(2024, 2, 1, 0, 0), p.getTo());
+    }
+
+    @Test
+    public void legacyPartitionIsUnboundedBelow()
+    {
+        PartitionDAO.TxPartition p = PartitionDAO.parseBound("transactions_legacy",
+                "FOR VALUES FROM (MINVALUE) TO ('2024-02-01 00:00:00')");
+
+        assertNull(p.getFrom());
+        assertEquals(LocalDateTime.of(2024, 2, 1, 0, 0), p.getTo());
+    }
+
+    @Test
+    public void ignoresUnmanagedBounds()
+    {
+        assertNull(PartitionDAO.parseBound("transactions_default", "DEFAULT"));
+        assertNull(PartitionDAO.parseBound("transactions_tail",
+                "FOR VALUES FROM ('2024-01-01 00:00:00') TO (MAXVALUE)"));
+    }
+}
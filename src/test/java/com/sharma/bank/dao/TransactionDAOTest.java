@@ -0,0 +1,24 @@
+package com.sharma.bank.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class TransactionDAOTest
+{
+    @Test
+    public void searchTextBecomesPrefixMatchOfEveryWord()
+    {
+        assertEquals("rent:* & to:* & ac:* & 1042:*", TransactionDAO.toTsQuery("Rent (to AC-1042)"));
+        assertEquals("café:*", TransactionDAO.toTsQuery("  Café "));
+    }
+
+    @Test
+    public void tsqueryOperatorsAreStripped()
+    {
+        assertEquals("a:* & b:*", TransactionDAO.toTsQuery("a & !b | ':*"));
+        assertNull(TransactionDAO.toTsQuery("&|!()"));
+        assertNull(TransactionDAO.toTsQuery(null));
+    }
+}
@@ -0,0 +1,18 @@
+package com.sharma.bank.service;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class BankingServiceTest
+{
+    @Test
+    public void moneyMovesOnlyOnActiveAccounts()
+    {
+        assertNull(BankingService.notActive(7, "ACTIVE"));
+        assertNotNull(BankingService.notActive(7, "CLOSED"));
+        assertNotNull(BankingService.notActive(7, "FROZEN"));
+        assertNotNull(BankingService.notActive(7, null));
+    }
+}
@@ -0,0 +1,69 @@
+package com.sharma.bank.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class FraudRulesEngineTest
+{
+    private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+
+    private FraudRulesEngine engine(String rules)
+    {
+        return new FraudRulesEngine(FraudRulesEngine.parseRules(rules), clock::get);
+    }
+
+    @Test
+    public void countRuleDeniesOnceTheWindowIsFull()
+    {
+        FraudRulesEngine engine = engine("deny WITHDRAWAL count 1m > 3");
+        BigDecimal ten = new BigDecimal("10.00");
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(engine.evaluate(7, "WITHDRAWAL", ten).isDenied());
+            engine.record(7, "WITHDRAWAL", ten);
+        }
+
+        assertTrue(engine.evaluate(7, "WITHDRAWAL", ten).isDenied());
+        // Other accounts and other types are unaffected
+        assertFalse(engine.evaluate(8, "WITHDRAWAL", ten).isDenied());
+        assertFalse(engine.evaluate(7, "TRANSFER_OUT", ten).isDenied());
+
+        // A minute later the window has slid past all three
+        clock.addAndGet(65_000);
+        assertFalse(engine.evaluate(7, "WITHDRAWAL", ten).isDenied());
+    }
+
+    @Test
+    public void amountRuleOnAnyAddsUpBothTypes()
+    {
+        FraudRulesEngine engine = engine(
+                "deny ANY amount 24h > 1000   # daily debit cap\n" +
+                "flag TRANSFER_OUT amount 1h >= 500\n");
+
+        engine.record(1, "WITHDRAWAL", new BigDecimal("600.00"));
+        clock.addAndGet(2 * 60 * 60 * 1000L);
+
+        FraudRulesEngine.Decision small = engine.evaluate(1, "TRANSFER_OUT", new BigDecimal("400.00"));
+        assertEquals(FraudRulesEngine.Outcome.ALLOW, small.getOutcome());
+
+        FraudRulesEngine.Decision large = engine.evaluate(1, "TRANSFER_OUT", new BigDecimal("500.00"));
+        assertTrue(large.isDenied());
+        assertEquals("deny ANY amount 24h > 1000", large.getMatched().get(0).getText());
+        assertEquals(2, large.getMatched().size());
+
+        assertEquals(2, engine.getMetrics().getEvaluations());
+        assertEquals(1, engine.getMetrics().getDenied());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMalformedRules()
+    {
+        FraudRulesEngine.parseRules("deny WITHDRAWAL count 2m > 3");
+    }
+}
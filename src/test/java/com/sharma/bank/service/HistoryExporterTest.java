@@ -0,0 +1,62 @@
+package com.sharma.bank.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.Test;
+
+import com.sharma.bank.model.Account;
+import com.sharma.bank.model.Transaction;
+
+public class HistoryExporterTest
+{
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 5, 1, 9, 30, 15);
+
+    @Test
+    public void csvQuotesOnlyFieldsThatNeedIt() throws Exception
+    {
+        StringWriter out = new StringWriter();
+        HistoryExporter.CsvWriter csv = new HistoryExporter.CsvWriter(out);
+
+        csv.begin();
+        csv.row(new Transaction(17, 4, new BigDecimal("1250.00"), "WITHDRAWAL", "Rent, \"May\"\nflat 2", AT));
+        csv.row(new Transaction(18, 4, new BigDecimal("5.00"), "DEPOSIT", null, AT));
+        csv.end();
+
+        assertEquals("transaction_id,date,type,amount,description\r\n" +
+                     "17,2024-05-01 09:30:15,WITHDRAWAL,-1250.00,\"Rent, \"\"May\"\"\nflat 2\"\r\n" +
+                     "18,2024-05-01 09:30:15,DEPOSIT,5.00,\r\n",
+                     out.toString());
+    }
+
+    @Test
+    public void ofxSignsAmountsAndEscapesText() throws Exception
+    {
+        Account account = new Account(4, 1, "1000123", "SAVINGS", new BigDecimal("42.10"), "ACTIVE", AT);
+        StringWriter out = new StringWriter();
+        HistoryExporter.OfxWriter ofx = new HistoryExporter.OfxWriter(out, account, AT, AT.plusDays(1));
+
+        ofx.begin();
+        ofx.row(new Transaction(17, 4, new BigDecimal("3.50"), "TRANSFER_OUT", "Tom & <Jerry>", AT));
+        ofx.end();
+
+        String text = out.toString();
+        assertTrue(text.contains("<ACCTID>1000123</ACCTID><ACCTTYPE>SAVINGS</ACCTTYPE>"));
+        assertTrue(text.contains("<TRNTYPE>DEBIT</TRNTYPE><DTPOSTED>20240501093015</DTPOSTED><TRNAMT>-3.50</TRNAMT>"));
+        assertTrue(text.contains("<FITID>17</FITID>"));
+        assertTrue(text.contains("<MEMO>Tom &amp; &lt;Jerry&gt;</MEMO>"));
+        assertTrue(text.contains("<BALAMT>42.10</BALAMT>"));
+        assertTrue(text.trim().endsWith("</OFX>"));
+    }
+
+    @Test
+    public void creditsStayPositive()
+    {
+        assertEquals(new BigDecimal("7.00"),
+                     HistoryExporter.signedAmount(new Transaction(1, 1, new BigDecimal("7.00"), "TRANSFER_IN", null, AT)));
+    }
+}
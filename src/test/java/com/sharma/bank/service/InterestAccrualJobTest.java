@@ -0,0 +1,61 @@
+package com.sharma.bank.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import com.sharma.bank.model.InterestAccrual;
+
+public class InterestAccrualJobTest
+{
+    private static final BigDecimal RATE = new BigDecimal("0.02");
+
+    @Test
+    public void creditsWholeCentsAndCarriesTheRest()
+    {
+        // 1000.00 * 2% / 365 = 0.054794520548 (12 dp)
+        InterestAccrual a = new InterestAccrual(1, LocalDate.of(2025, 3, 1), new BigDecimal("1000.00"), BigDecimal.ZERO);
+
+        InterestAccrualJob.accrue(a, RATE);
+
+        assertEquals(new BigDecimal("0.054794520548"), a.getInterest());
+        assertEquals(new BigDecimal("0.05"), a.getCredited());
+        assertEquals(new BigDecimal("0.004794520548"), a.getCarryOut());
+    }
+
+    @Test
+    public void carryAddsUpToTheExactYearlyInterest()
+    {
+        // Small balance: daily interest is under a cent, so only the carry ever pays out
+        BigDecimal balance = new BigDecimal("100.00");
+        BigDecimal carry = BigDecimal.ZERO;
+        BigDecimal creditedTotal = BigDecimal.ZERO;
+
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < 365; i++) {
+            InterestAccrual a = new InterestAccrual(1, day.plusDays(i), balance, carry);
+            InterestAccrualJob.accrue(a, RATE);
+            creditedTotal = creditedTotal.add(a.getCredited());
+            carry = a.getCarryOut();
+        }
+
+        // 100.00 * 2% = 2.00 for the year; only rounding dust is left in the carry
+        assertEquals(new BigDecimal("2.00"), creditedTotal);
+        assertTrue(carry.compareTo(new BigDecimal("0.000001")) < 0);
+    }
+
+    @Test
+    public void leapYearsUse366Days()
+    {
+        InterestAccrual a = new InterestAccrual(1, LocalDate.of(2024, 6, 1), new BigDecimal("3660.00"), BigDecimal.ZERO);
+
+        InterestAccrualJob.accrue(a, RATE);
+
+        assertEquals(new BigDecimal("0.200000000000"), a.getInterest());
+        assertEquals(new BigDecimal("0.20"), a.getCredited());
+    }
+}
@@ -0,0 +1,56 @@
+package com.sharma.bank.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LedgerEventBusTest
+{
+    @Test
+    public void burstsAreCoalescedIntoOneBatchOfWatchedAccounts() throws Exception
+    {
+        LedgerEventBus bus = new LedgerEventBus();
+        BlockingQueue<Set<Integer>> batches = new LinkedBlockingQueue<>();
+
+        // First delivery opens the interval; everything after it waits for the next frame
+        try (LedgerEventBus.Subscription s = bus.subscribe(List.of(1, 2), 200, batches::add)) {
+            bus.publish(1);
+            assertEquals(Set.of(1), batches.poll(2, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            bus.publish(1);
+            bus.publish(2);
+            bus.publish(1);
+            bus.publish(3);                 // not watched
+
+            assertEquals(Set.of(1, 2), batches.poll(2, TimeUnit.SECONDS));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+            assertNull(batches.poll(300, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    public void watchReplacesAccountsAndCloseStopsDelivery() throws Exception
+    {
+        LedgerEventBus bus = new LedgerEventBus();
+        BlockingQueue<Set<Integer>> batches = new LinkedBlockingQueue<>();
+
+        LedgerEventBus.Subscription s = bus.subscribe(List.of(1), 0, batches::add);
+        s.watch(List.of(2));
+        bus.publish(1);
+        bus.publish(2);
+        assertEquals(Set.of(2), batches.poll(2, TimeUnit.SECONDS));
+
+        s.close();
+        bus.publish(2);
+        assertNull(batches.poll(200, TimeUnit.MILLISECONDS));
+    }
+}
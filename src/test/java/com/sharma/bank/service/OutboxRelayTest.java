@@ -0,0 +1,70 @@
+package com.sharma.bank.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sharma.bank.model.OutboxEvent;
+
+public class OutboxRelayTest
+{
+    private static List<OutboxEvent> events(long... ids)
+    {
+        List<OutboxEvent> list = new ArrayList<>();
+        for (long id : ids) {
+            list.add(new OutboxEvent(id, 1, "DEPOSIT", "{}", null));
+        }
+        return list;
+    }
+
+    private static OutboxRelay relayAt(long offset)
+    {
+        OutboxRelay relay = new OutboxRelay("test", new QueueOutboxSink(), 100, 10);
+        relay.setOffset(offset);
+        return relay;
+    }
+
+    @Test
+    public void publishesContiguousIds()
+    {
+        assertEquals(3, relayAt(10).contiguousPrefix(events(11, 12, 13), -1));
+    }
+
+    @Test
+    public void skipsAGapOnlyOnceEveryPossibleWriterHasFinished()
+    {
+        OutboxRelay relay = relayAt(10);
+        List<OutboxEvent> batch = events(11, 12, 14, 15);   // 13 not committed (yet)
+
+        assertEquals(2, relay.contiguousPrefix(batch, -1));
+        relay.setGapHorizon(500);                           // snapshot xmax after that read
+
+        // Writers that were running then may still commit 13, however long they take
+        relay.setOffset(12);
+        assertEquals(0, relay.contiguousPrefix(events(14, 15), 400));
+        assertEquals(0, relay.contiguousPrefix(events(14, 15), 499));
+
+        // All of them have finished and 13 is still missing: it rolled back
+        assertEquals(2, relay.contiguousPrefix(events(14, 15), 500));
+        assertEquals(1, relay.getGapsSkipped());
+    }
+
+    @Test
+    public void waitsForAGapRightAfterTheOffset()
+    {
+        OutboxRelay relay = relayAt(10);
+
+        assertEquals(0, relay.contiguousPrefix(events(12, 13), -1));
+        relay.setGapHorizon(500);
+        assertEquals(3, relay.contiguousPrefix(events(11, 12, 13), 100));
+        assertEquals(0, relay.getGapsSkipped());
+
+        // A later gap starts a new wait, whatever the old horizon was
+        relay.setOffset(13);
+        assertEquals(0, relay.contiguousPrefix(events(15), 1_000));
+        assertEquals(0, relay.getGapsSkipped());
+    }
+}
@@ -0,0 +1,18 @@
+package com.sharma.bank.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.Test;
+
+public class TransactionArchiveJobTest
+{
+    @Test
+    public void cutoffKeepsTheCurrentMonthPlusRetention()
+    {
+        assertEquals(LocalDateTime.of(2023, 6, 1, 0, 0),
+                     TransactionArchiveJob.cutoff(LocalDate.of(2024, 6, 19), 12));
+    }
+}
@@ -0,0 +1,70 @@
+package com.sharma.bank.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class AccountNumberGeneratorTest
+{
+    @Test
+    public void formatsSerialWithLuhnCheckDigit()
+    {
+        // 7992739871 is the textbook Luhn example; its check digit is 3
+        String number = AccountNumberGenerator.format(7992739871L);
+
+        assertEquals("AC-0079927398713", number);
+        assertTrue(AccountNumberGenerator.isValid(number));
+    }
+
+    @Test
+    public void rejectsTyposAndForeignFormats()
+    {
+        String number = AccountNumberGenerator.format(10_000L);
+
+        assertTrue(AccountNumberGenerator.isValid(number));
+        char last = number.charAt(number.length() - 1);
+        char wrong = last == '9' ? '0' : (char) (last + 1);
+        assertFalse(AccountNumberGenerator.isValid(number.substring(0, number.length() - 1) + wrong));
+        assertFalse(AccountNumberGenerator.isValid("AC-1731881234567"));
+        assertFalse(AccountNumberGenerator.isValid(null));
+    }
+
+    @Test
+    public void numbersAreUniqueAcrossThreadsAndBlocks() throws Exception
+    {
+        AtomicLong blocks = new AtomicLong(1);
+        AtomicLong refills = new AtomicLong();
+        AccountNumberGenerator generator = new AccountNumberGenerator(() -> {
+            refills.incrementAndGet();
+            return blocks.getAndIncrement();
+        }, 100);
+
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    seen.add(generator.next());
+                }
+                return null;
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(40_000, seen.size());
+        assertEquals(400, refills.get());
+        for (String n : seen) {
+            assertTrue(n, AccountNumberGenerator.isValid(n));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.sharma.bank.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sharma.bank.model.Transaction;
+
+public class ColumnarArchiveTest
+{
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+    private static Transaction tx(int id, int accountId, String amount, String type,
+                                  String description, LocalDateTime createdAt)
+    {
+        return new Transaction(id, accountId, new BigDecimal(amount), type, description, createdAt);
+    }
+
+    @Test
+    public void roundTripsRowsAcrossAccountsAndBlocks() throws Exception
+    {
+        Path file = Files.createTempFile("archive", ".bktx");
+        List<Transaction> big = new ArrayList<>();
+
+        try (ColumnarArchive.Writer writer = ColumnarArchive.create(file)) {
+            writer.add(tx(7, 1, "1250.00", "WITHDRAWAL", "Rent, \"May\"\nflat 2", START.plusNanos(123_456_000)));
+            writer.add(tx(3, 1, "-0.01", "FEE", null, START.plusDays(1)));
+
+            // More rows than one block holds, all for account 2
+            for (int i = 0; i < ColumnarArchive.BLOCK_ROWS + 10; i++) {
+                Transaction t = tx(100 + i, 2, (i % 50) + ".25", i % 2 == 0 ? "DEPOSIT" : "WITHDRAWAL",
+                                   "ATM " + (i % 3), START.plusMinutes(i));
+                writer.add(t);
+                big.add(t);
+            }
+            writer.add(tx(9, 5, "99999999.99", "DEPOSIT", "", START));
+        }
+
+        try {
+            ColumnarArchive.Reader reader = ColumnarArchive.open(file);
+            assertEquals(ColumnarArchive.BLOCK_ROWS + 13, reader.getRowCount());
+            assertEquals(4, reader.getBlockCount());
+
+            List<Transaction> one = reader.read(1, null, null);
+            assertEquals(2, one.size());
+            assertEquals("Rent, \"May\"\nflat 2", one.get(0).getDescription());
+            assertEquals(START.plusNanos(123_456_000), one.get(0).getCreatedAt());
+            assertEquals(new BigDecimal("1250.00"), one.get(0).getAmount());
+            assertEquals(3, one.get(1).getTransactionId());
+            assertEquals(new BigDecimal("-0.01"), one.get(1).getAmount());
+            assertNull(one.get(1).getDescription());
+
+            List<Transaction> two = reader.read(2, null, null);
+            assertEquals(big.size(), two.size());
+            for (int i = 0; i < big.size(); i++) {
+                assertEquals(big.get(i).getTransactionId(), two.get(i).getTransactionId());
+                assertEquals(big.get(i).getAmount(), two.get(i).getAmount());
+                assertEquals(big.get(i).getTransactionType(), two.get(i).getTransactionType());
+                assertEquals(big.get(i).getDescription(), two.get(i).getDescription());
+            }
+
+            assertEquals("", reader.read(5, null, null).get(0).getDescription());
+            assertTrue(reader.read(3, null, null).isEmpty());
+            assertTrue(reader.read(6, null, null).isEmpty());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void rangeReadsReturnOnlyRowsInsideTheRange() throws Exception
+    {
+        Path file = Files.createTempFile("archive", ".bktx");
+
+        try (ColumnarArchive.Writer writer = ColumnarArchive.create(file)) {
+            for (int i = 0; i < 3 * ColumnarArchive.BLOCK_ROWS; i++) {
+                writer.add(tx(i + 1, 4, "1.00", "DEPOSIT", null, START.plusMinutes(i)));
+            }
+        }
+
+        try {
+            ColumnarArchive.Reader reader = ColumnarArchive.open(file);
+            List<Transaction> rows = reader.read(4, START.plusMinutes(5000), START.plusMinutes(5010));
+
+            assertEquals(10, rows.size());
+            assertEquals(START.plusMinutes(5000), rows.get(0).getCreatedAt());
+            assertEquals(START.plusMinutes(5009), rows.get(9).getCreatedAt());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void readsAcrossMappingSegments() throws Exception
+    {
+        Path file = Files.createTempFile("archive", ".bktx");
+
+        try (ColumnarArchive.Writer writer = ColumnarArchive.create(file)) {
+            for (int a = 1; a <= 20; a++) {
+                for (int i = 0; i < 50; i++) {
+                    writer.add(tx(a * 1000 + i, a, i + ".50", "DEPOSIT", "Payroll " + (i % 7), START.plusHours(i)));
+                }
+            }
+        }
+
+        try {
+            // Segments far smaller than a block: nearly every read straddles one
+            ColumnarArchive.Reader reader = new ColumnarArchive.Reader(file, 97);
+            assertEquals(1000, reader.getRowCount());
+            assertEquals(20, reader.getBlockCount());
+            for (int a = 1; a <= 20; a++) {
+                List<Transaction> rows = reader.read(a, null, null);
+                assertEquals(50, rows.size());
+                assertEquals(a * 1000 + 49, rows.get(49).getTransactionId());
+                assertEquals("Payroll 0", rows.get(49).getDescription());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsRowsOutOfOrder() throws Exception
+    {
+        Path file = Files.createTempFile("archive", ".bktx");
+        try (ColumnarArchive.Writer writer = ColumnarArchive.create(file)) {
+            writer.add(tx(1, 2, "1.00", "DEPOSIT", null, START));
+            writer.add(tx(2, 1, "1.00", "DEPOSIT", null, START));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void zigzagVarintsRoundTripExtremes()
+    {
+        long[] values = { 0, 1, -1, 63, -64, 64, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE };
+
+        ColumnarArchive.ByteSink sink = new ColumnarArchive.ByteSink(0);
+        for (long v : values) sink.zigzag(v);
+
+        ByteBuffer in = ByteBuffer.wrap(sink.toByteArray());
+        for (long v : values) {
+            assertEquals(v, ColumnarArchive.readZigzag(in));
+        }
+        assertEquals(0, in.remaining());
+    }
+}
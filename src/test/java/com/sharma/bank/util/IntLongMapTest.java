@@ -0,0 +1,38 @@
+package com.sharma.bank.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class IntLongMapTest
+{
+    @Test
+    public void accumulatesPerKeyAcrossResizes()
+    {
+        IntLongMap totals = new IntLongMap();
+        for (int i = 0; i < 10_000; i++) {
+            totals.add(i % 1_000, 250);
+        }
+
+        assertEquals(1_000, totals.size());
+        assertEquals(2_500, totals.get(0));
+        assertEquals(2_500, totals.get(999));
+        assertEquals(0, totals.get(1_000));
+        assertEquals(-1, totals.getOrDefault(1_000, -1));
+        assertFalse(totals.containsKey(1_000));
+
+        totals.put(7, 1);
+        assertEquals(6, totals.add(7, 5));
+        assertTrue(totals.containsKey(7));
+
+        Map<Integer, Long> seen = new HashMap<>();
+        totals.forEach(seen::put);
+        assertEquals(1_000, seen.size());
+        assertEquals(Long.valueOf(6), seen.get(7));
+    }
+}
@@ -0,0 +1,55 @@
+package com.sharma.bank.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IntObjectMapTest
+{
+    @Test
+    public void behavesLikeAHashMapUnderRandomPutsAndRemoves()
+    {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // Small key range: lots of collisions, long probe runs and removals inside them
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(500) - 250;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = -250; key < 250; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+
+        Map<Integer, String> seen = new HashMap<>();
+        map.forEach(seen::put);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    public void removeValuesIfKeepsTheRestReachable()
+    {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        for (int id = 1; id <= 1_000; id++) {
+            map.put(id, id % 10);
+        }
+
+        assertEquals(100, map.removeValuesIf(v -> v == 0));
+        assertEquals(900, map.size());
+        assertNull(map.get(10));
+        assertEquals(Integer.valueOf(7), map.get(997));
+    }
+}
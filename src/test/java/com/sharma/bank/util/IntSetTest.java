@@ -0,0 +1,52 @@
+package com.sharma.bank.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class IntSetTest
+{
+    @Test
+    public void behavesLikeAHashSetUnderRandomAddsAndRemoves()
+    {
+        IntSet set = new IntSet();
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(400);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(key), set.add(key));
+            } else {
+                assertEquals(expected.remove(key), set.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (int key = 0; key < 400; key++) {
+            assertEquals(expected.contains(key), set.contains(key));
+        }
+    }
+
+    @Test
+    public void toArrayHoldsEveryMemberOnce()
+    {
+        IntSet set = IntSet.of(5, 3, 5, 0, -1, 3);
+
+        int[] members = set.toArray();
+        Arrays.sort(members);
+        assertArrayEquals(new int[] { -1, 0, 3, 5 }, members);
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(5));
+    }
+}
@@ -0,0 +1,90 @@
+package com.sharma.bank.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class SchemaMigratorTest
+{
+    @Test
+    public void loadsBundledMigrationsInVersionOrder() throws Exception
+    {
+        List<SchemaMigrator.Migration> migrations = SchemaMigrator.load();
+
+        assertFalse(migrations.isEmpty());
+        for (int i = 0; i < migrations.size(); i++) {
+            assertEquals(i + 1, migrations.get(i).getVersion());
+            assertFalse(migrations.get(i).sql.isBlank());
+        }
+        assertEquals("baseline tables", migrations.get(0).getDescription());
+    }
+
+    @Test
+    public void checksumIgnoresLineEndingsOnly()
+    {
+        assertEquals(SchemaMigrator.checksum("SELECT 1;\nSELECT 2;"),
+                     SchemaMigrator.checksum("SELECT 1;\r\nSELECT 2;"));
+        assertNotEquals(SchemaMigrator.checksum("SELECT 1;"), SchemaMigrator.checksum("SELECT 2;"));
+    }
+
+    @Test
+    public void noTransactionScriptsSplitOutsideDollarBodies()
+    {
+        String sql = "-- migrate:no-transaction\n"
+                + "-- header; not a statement\n"
+                + "DO $$\nBEGIN\n    PERFORM 1;\nEND\n$$;\n\n"
+                + "CREATE INDEX CONCURRENTLY IF NOT EXISTS i\n    ON t (a);\n"
+                + "SELECT 2;\n";
+
+        List<String> statements = SchemaMigrator.splitStatements(sql);
+
+        assertEquals(3, statements.size());
+        assertTrue(statements.get(0).endsWith("DO $$\nBEGIN\n    PERFORM 1;\nEND\n$$;"));
+        assertEquals("CREATE INDEX CONCURRENTLY IF NOT EXISTS i\n    ON t (a);", statements.get(1));
+        assertEquals("SELECT 2;", statements.get(2));
+    }
+
+    @Test
+    public void partitioningAndIndexBuildsRunOutsideOneTransaction() throws Exception
+    {
+        List<Integer> noTransaction = List.of(2, 4, 6);
+        for (SchemaMigrator.Migration m : SchemaMigrator.load()) {
+            assertEquals("V" + m.getVersion(), !noTransaction.contains(m.getVersion()), m.transactional);
+        }
+    }
+
+    @Test
+    public void onlyMarkedStatementsExecuteTheirResults()
+    {
+        String sql = "-- migrate:no-transaction\n"
+                + "CREATE INDEX IF NOT EXISTS i ON ONLY t (a);\n\n"
+                + "-- one per partition\n"
+                + "-- migrate:execute-results\n"
+                + "SELECT format('CREATE INDEX CONCURRENTLY %I ON %I (a)', relname || '_a', relname)\n"
+                + "FROM pg_class;\n"
+                + "SELECT '-- migrate:execute-results';\n";
+
+        List<String> statements = SchemaMigrator.splitStatements(sql);
+
+        assertEquals(3, statements.size());
+        assertFalse(SchemaMigrator.executesResults(statements.get(0)));
+        assertTrue(SchemaMigrator.executesResults(statements.get(1)));
+        assertFalse(SchemaMigrator.executesResults(statements.get(2)));
+    }
+
+    @Test
+    public void migrationsCreateEveryFeatureTable() throws Exception
+    {
+        String all = String.join("\n", SchemaMigrator.load().stream().map(m -> m.sql).toList());
+
+        for (String table : new String[] { "daily_account_rollups", "scheduled_transfers",
+                "interest_accruals", "ledger_outbox", "outbox_consumer_offsets" }) {
+            assertTrue(table, all.contains("CREATE TABLE IF NOT EXISTS " + table));
+        }
+    }
+}